@@ -156,11 +156,11 @@ public class Biconnectivity<V, E> {
    };
    private Graph<V, E> graph;
    private BiconnectedComponentIndexer<V, E> componentVisitor;
-   private DepthFirstSearch<V, E> depthFirstSearch;
+   private PrimitiveDepthFirstSearch<V, E> depthFirstSearch;
 
    public Biconnectivity(Graph<V, E> graph) {
       this.graph = graph;
-      depthFirstSearch = new DepthFirstSearch<V, E>(graph);
+      depthFirstSearch = new PrimitiveDepthFirstSearch<V, E>(graph);
    }
 
    private void lazyImpl() {
@@ -0,0 +1,153 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * An immutable snapshot of the adjacency of a graph in compressed sparse row form.
+ * Vertices are numbered densely in the order of the vertex set, and the neighbours
+ * of vertex i are targets[offsets[i]] to targets[offsets[i + 1] - 1], in the order of
+ * the edges of the vertex, with the edge weights alongside in weights. For directed graphs
+ * only edges leaving the vertex are included.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class CompressedSparseRowGraph<V, E> {
+
+   private final Object[] vertices;
+   private final Map<V, Integer> vertexIds;
+   private final int[] offsets;
+   private final int[] targets;
+   private final double[] weights;
+   private final boolean directed;
+
+   public CompressedSparseRowGraph(Graph<V, E> graph) {
+      int vertexCount = graph.vertexSet().size();
+      vertices = graph.vertexSet().toArray();
+      vertexIds = new HashMap<V, Integer>(vertexCount * 2);
+      for (int i = 0; i < vertexCount; ++i) {
+         vertexIds.put((V) vertices[i], i);
+      }
+
+      boolean isUndirected = graph instanceof UndirectedGraph;
+      boolean skippedEdge = false;
+      offsets = new int[vertexCount + 1];
+      int[] adjacency = new int[2 * graph.edgeSet().size()];
+      double[] edgeWeights = new double[adjacency.length];
+      int count = 0;
+      for (int i = 0; i < vertexCount; ++i) {
+         V u = (V) vertices[i];
+         offsets[i] = count;
+         for (E e : graph.edgesOf(u)) {
+            V v = graph.getEdgeTarget(e).equals(u)
+                    ? graph.getEdgeSource(e)
+                    : graph.getEdgeTarget(e);
+
+            // Exclude directed edges in the wrong direction
+            if (!isUndirected && !graph.containsEdge(u, v)) {
+               skippedEdge = true;
+               continue;
+            }
+            if (count == adjacency.length) {
+               adjacency = Arrays.copyOf(adjacency, Math.max(16, 2 * count));
+               edgeWeights = Arrays.copyOf(edgeWeights, adjacency.length);
+            }
+            edgeWeights[count] = graph.getEdgeWeight(e);
+            adjacency[count++] = vertexIds.get(v);
+         }
+      }
+      offsets[vertexCount] = count;
+      directed = skippedEdge;
+      targets = count == adjacency.length ? adjacency : Arrays.copyOf(adjacency, count);
+      weights = count == edgeWeights.length ? edgeWeights : Arrays.copyOf(edgeWeights, count);
+   }
+
+   public int getVertexCount() {
+      return vertices.length;
+   }
+
+   /**
+    * @param vertex
+    * @return The id of the vertex, or -1 if it is not in the graph
+    */
+   public int getId(V vertex) {
+      Integer id = vertexIds.get(vertex);
+      return id == null ? -1 : id;
+   }
+
+   public V getVertex(int id) {
+      return (V) vertices[id];
+   }
+
+   /**
+    * @return False if every edge is held from both of its ends, as for an
+    * undirected graph, so the neighbours of each vertex are also its predecessors
+    */
+   public boolean isDirected() {
+      return directed;
+   }
+
+   /**
+    * @param source
+    * @param target
+    * @return True if the target is among the neighbours of the source
+    */
+   public boolean isAdjacent(int source, int target) {
+      for (int i = offsets[source]; i < offsets[source + 1]; ++i) {
+         if (targets[i] == target) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   public int getDegree(int id) {
+      return offsets[id + 1] - offsets[id];
+   }
+
+   /**
+    * @return The start of the neighbours of each vertex in the targets, with
+    * a final entry for the end. Shared, so must not be modified.
+    */
+   public int[] getOffsets() {
+      return offsets;
+   }
+
+   /**
+    * @return The neighbour ids of all vertices. Shared, so must not be modified.
+    */
+   public int[] getTargets() {
+      return targets;
+   }
+
+   /**
+    * @return The weight of the edge to each neighbour, aligned with the targets.
+    * Shared, so must not be modified.
+    */
+   public double[] getWeights() {
+      return weights;
+   }
+}
@@ -92,12 +92,35 @@ public class Connectivity<V, E> {
       }
    }
    private Graph<V, E> graph;
-   private DepthFirstSearch<V, E> depthFirstSearch;
+   private CompressedSparseRowGraph<V, E> snapshot;
+   private PrimitiveDepthFirstSearch<V, E> depthFirstSearch;
    private ConnectedComponentIndexer<V, E> componentVisitor;
 
    public Connectivity(Graph<V, E> graph) {
       this.graph = graph;
-      this.depthFirstSearch = new DepthFirstSearch<V, E>(graph);
+      this.depthFirstSearch = new PrimitiveDepthFirstSearch<V, E>(graph);
+   }
+
+   /**
+    * Find the components of a snapshot. As the snapshot has no edge factory,
+    * it may only be made connected with an explicit factory, and
+    * makeConnected() throws an IllegalStateException.
+    * @param snapshot
+    */
+   public Connectivity(CompressedSparseRowGraph<V, E> snapshot) {
+      this.snapshot = snapshot;
+      this.depthFirstSearch = new PrimitiveDepthFirstSearch<V, E>(snapshot);
+   }
+
+   private List<V> getVertices() {
+      if (snapshot == null) {
+         return new ArrayList<V>(graph.vertexSet());
+      }
+      List<V> vertices = new ArrayList<V>(snapshot.getVertexCount());
+      for (int i = 0; i < snapshot.getVertexCount(); ++i) {
+         vertices.add(snapshot.getVertex(i));
+      }
+      return vertices;
    }
 
    private void lazyImpl() {
@@ -108,7 +131,7 @@ public class Connectivity<V, E> {
    }
 
    public int getComponents() {
-      if (graph.vertexSet().isEmpty()) {
+      if (snapshot == null ? graph.vertexSet().isEmpty() : snapshot.getVertexCount() == 0) {
          return 0;
       }
 
@@ -128,7 +151,7 @@ public class Connectivity<V, E> {
    }
 
    public void makeConnected(EdgeFactory<V, E> edgeFactory) {
-      List<V> verticesByComponent = new ArrayList<V>(graph.vertexSet());
+      List<V> verticesByComponent = getVertices();
 
       int componentCount = getComponents();
 
@@ -149,7 +172,14 @@ public class Connectivity<V, E> {
       }
    }
 
+   /**
+    * Connect the components with edges from the edge factory of the graph
+    * @throws IllegalStateException if constructed from a snapshot, which has no edge factory
+    */
    public void makeConnected() {
+      if (graph == null) {
+         throw new IllegalStateException("A snapshot has no edge factory.");
+      }
       makeConnected(graph.getEdgeFactory());
    }
 } 
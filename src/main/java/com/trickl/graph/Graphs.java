@@ -40,6 +40,22 @@ public final class Graphs {
       return !oppositeEdge.equals(edge);
    }
 
+   /**
+    * The number of edges touching a vertex, without building the edge set
+    * if the graph can supply the degree directly.
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @param vertex
+    * @return The number of edges of the vertex
+    */
+   static public <V, E> int degreeOf(Graph<V, E> graph, V vertex) {
+      if (graph instanceof UndirectedGraph) {
+         return ((UndirectedGraph<V, E>) graph).degreeOf(vertex);
+      }
+      return graph.edgesOf(vertex).size();
+   }
+
    static public <V1, E1, V2, E2> Map<V1, V2> aggregate(Graph<V1, E1> source,
            Graph<V2, E2> target,
            Map<V1, Integer> aggregateGroups,
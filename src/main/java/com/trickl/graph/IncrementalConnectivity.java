@@ -0,0 +1,187 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.ListenableGraph;
+import org.jgrapht.event.GraphEdgeChangeEvent;
+import org.jgrapht.event.GraphListener;
+import org.jgrapht.event.GraphVertexChangeEvent;
+
+/**
+ * Tracks the connected components of a graph as edges are added, with a union-find
+ * over int vertex ids using path compression and union by rank.
+ * If the graph is listenable the tracker subscribes to it, otherwise changes must be
+ * passed to the listener methods. Edges are treated as undirected, so a directed graph
+ * gives its weakly connected components. These match Connectivity only on undirected
+ * graphs, as Connectivity follows out-edges.
+ * A union-find cannot split components, so removals rebuild it on the next query.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class IncrementalConnectivity<V, E> implements GraphListener<V, E> {
+
+   private final Graph<V, E> graph;
+   private final Map<V, Integer> vertexIds = new HashMap<V, Integer>();
+   private int[] parents = new int[0];
+   private byte[] ranks = new byte[0];
+   private int vertexCount;
+   private int componentCount;
+   private boolean stale;
+
+   public IncrementalConnectivity(Graph<V, E> graph) {
+      this.graph = graph;
+      rebuild();
+      if (graph instanceof ListenableGraph) {
+         ((ListenableGraph<V, E>) graph).addGraphListener(this);
+      }
+   }
+
+   /**
+    * Stop listening to a listenable graph
+    */
+   public void dispose() {
+      if (graph instanceof ListenableGraph) {
+         ((ListenableGraph<V, E>) graph).removeGraphListener(this);
+      }
+   }
+
+   public int getComponents() {
+      lazyRebuild();
+      return componentCount;
+   }
+
+   public boolean isConnected() {
+      return getComponents() == 1;
+   }
+
+   public boolean isSameComponent(V u, V v) {
+      lazyRebuild();
+      return find(getId(u)) == find(getId(v));
+   }
+
+   @Override
+   public void vertexAdded(GraphVertexChangeEvent<V> event) {
+      if (!stale) {
+         addVertex(event.getVertex());
+      }
+   }
+
+   @Override
+   public void vertexRemoved(GraphVertexChangeEvent<V> event) {
+      stale = true;
+   }
+
+   @Override
+   public void edgeAdded(GraphEdgeChangeEvent<V, E> event) {
+      if (!stale) {
+         E edge = event.getEdge();
+         union(getId(graph.getEdgeSource(edge)), getId(graph.getEdgeTarget(edge)));
+      }
+   }
+
+   @Override
+   public void edgeRemoved(GraphEdgeChangeEvent<V, E> event) {
+      stale = true;
+   }
+
+   private void lazyRebuild() {
+      if (stale) {
+         rebuild();
+      }
+   }
+
+   private void rebuild() {
+      vertexIds.clear();
+      vertexCount = 0;
+      componentCount = 0;
+      int capacity = graph.vertexSet().size();
+      parents = new int[capacity];
+      ranks = new byte[capacity];
+      for (V vertex : graph.vertexSet()) {
+         addVertex(vertex);
+      }
+      for (E edge : graph.edgeSet()) {
+         union(getId(graph.getEdgeSource(edge)), getId(graph.getEdgeTarget(edge)));
+      }
+      stale = false;
+   }
+
+   private int getId(V vertex) {
+      Integer id = vertexIds.get(vertex);
+      if (id == null) {
+         throw new IllegalArgumentException("Vertex is not in the graph.");
+      }
+      return id;
+   }
+
+   private void addVertex(V vertex) {
+      if (vertexIds.containsKey(vertex)) {
+         return;
+      }
+      if (vertexCount == parents.length) {
+         int capacity = Math.max(16, 2 * vertexCount);
+         parents = Arrays.copyOf(parents, capacity);
+         ranks = Arrays.copyOf(ranks, capacity);
+      }
+      vertexIds.put(vertex, vertexCount);
+      parents[vertexCount] = vertexCount;
+      ranks[vertexCount] = 0;
+      ++vertexCount;
+      ++componentCount;
+   }
+
+   private int find(int u) {
+      int root = u;
+      while (parents[root] != root) {
+         root = parents[root];
+      }
+
+      // Compress the path, so later finds are near constant time
+      while (parents[u] != root) {
+         int next = parents[u];
+         parents[u] = root;
+         u = next;
+      }
+      return root;
+   }
+
+   private void union(int u, int v) {
+      int uRoot = find(u);
+      int vRoot = find(v);
+      if (uRoot == vRoot) {
+         return;
+      }
+
+      if (ranks[uRoot] < ranks[vRoot]) {
+         parents[uRoot] = vRoot;
+      } else if (ranks[uRoot] > ranks[vRoot]) {
+         parents[vRoot] = uRoot;
+      } else {
+         parents[vRoot] = uRoot;
+         ++ranks[uRoot];
+      }
+      --componentCount;
+   }
+}
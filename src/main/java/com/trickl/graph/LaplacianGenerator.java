@@ -22,18 +22,13 @@ package com.trickl.graph;
 
 import cern.colt.matrix.DoubleMatrix2D;
 import cern.colt.matrix.impl.SparseDoubleMatrix2D;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import org.jgrapht.Graph;
 
 /* See http://en.wikipedia.org/wiki/Laplacian_matrix */
 public class LaplacianGenerator<V, E> {
 
    private Graph<V, E> graph;
-   private List<V> vertices;
-   private Map<V, Integer> vertexIndexMap;
+   private CompressedSparseRowGraph<V, E> snapshot;
    private DoubleMatrix2D laplacian;
    private boolean useOutDegree;
 
@@ -46,56 +41,57 @@ public class LaplacianGenerator<V, E> {
       this.useOutDegree = useOutDegree;
    }
 
+   /**
+    * Generate the laplacian of a snapshot, indexed by the vertex ids of the snapshot
+    * @param snapshot
+    */
+   public LaplacianGenerator(CompressedSparseRowGraph<V, E> snapshot) {
+      this.snapshot = snapshot;
+   }
+
    public DoubleMatrix2D getLaplacian() {
       if (laplacian == null) {
-         int n = graph.vertexSet().size();
-         laplacian = new SparseDoubleMatrix2D(n, n);
-
-         vertices = new ArrayList<V>(n);
-         vertexIndexMap = new HashMap<V, Integer>();
-         int i = 0;
-         for (V vertex : graph.vertexSet()) {
-            vertices.add(vertex);
-            vertexIndexMap.put(vertex, i);
-            ++i;
+         if (snapshot == null) {
+            snapshot = new CompressedSparseRowGraph<V, E>(graph);
          }
-         
-         for (V vertex : graph.vertexSet()) {
-            double degree = 0;
-            for (E edge : graph.edgesOf(vertex)) {
-               // Use outdegree
-               V source = graph.getEdgeSource(edge);
-               V target = graph.getEdgeTarget(edge);
-               boolean outEdge = source.equals(vertex);
-               double edgeWeight = graph.getEdgeWeight(edge);
+         int n = snapshot.getVertexCount();
+         laplacian = new SparseDoubleMatrix2D(n, n);
 
-               if ((useOutDegree && outEdge)
-                       || (!useOutDegree && !outEdge)) {
-                  degree += edgeWeight;
-                  laplacian.setQuick(vertexIndexMap.get(source),
-                                     vertexIndexMap.get(target),
-                    -edgeWeight);
-               } else {
-                  degree += edgeWeight;
-                  laplacian.setQuick(vertexIndexMap.get(target),
-                                     vertexIndexMap.get(source),
-                    -edgeWeight);
-               }              
+         // Edges are symmetric in the laplacian whichever degree is used,
+         // so a directed edge only held at its source is added at its target
+         int[] offsets = snapshot.getOffsets();
+         int[] targets = snapshot.getTargets();
+         double[] weights = snapshot.getWeights();
+         double[] degrees = new double[n];
+         for (int u = 0; u < n; ++u) {
+            for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+               int v = targets[i];
+               degrees[u] += weights[i];
+               laplacian.setQuick(u, v, -weights[i]);
+               if (snapshot.isDirected() && v != u && !snapshot.isAdjacent(v, u)) {
+                  degrees[v] += weights[i];
+                  laplacian.setQuick(v, u, -weights[i]);
+               }
             }
+         }
 
-            laplacian.setQuick(vertexIndexMap.get(vertex),
-                               vertexIndexMap.get(vertex), degree);
-         }        
+         for (int u = 0; u < n; ++u) {
+            laplacian.setQuick(u, u, degrees[u]);
+         }
       }
 
       return laplacian;
    }
 
    public Integer getIndex(V vertex) {
-      return vertexIndexMap.get(vertex);
+      if (snapshot == null) {
+         return null;
+      }
+      int id = snapshot.getId(vertex);
+      return id < 0 ? null : id;
    }
 
    public V getVertex(int index) {
-      return vertices.get(index);
+      return snapshot.getVertex(index);
    }
 }
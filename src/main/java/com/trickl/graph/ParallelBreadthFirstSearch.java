@@ -0,0 +1,385 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jgrapht.Graph;
+
+/**
+ * A level synchronous breadth first search over a CompressedSparseRowGraph that
+ * expands each level in parallel on a ForkJoinPool, and produces hop counts.
+ * Levels are expanded top-down from the frontier while it is small, and bottom-up
+ * by checking the predecessors of every unvisited vertex while it is large, following
+ * Beamer, Asanovic and Patterson, "Direction-Optimizing Breadth-First Search".
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ParallelBreadthFirstSearch<V, E> {
+
+   // Switch to bottom-up once the frontier has more than 1 / ALPHA of the unexplored
+   // edges, and back to top-down once it has fewer than 1 / BETA of the vertices.
+   private static final int ALPHA = 14;
+   private static final int BETA = 24;
+
+   private final CompressedSparseRowGraph<V, E> graph;
+   private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+   private int sequentialThreshold = 1 << 11;
+
+   // The predecessors of each vertex, only distinct from the successors if directed
+   private int[] inOffsets;
+   private int[] inTargets;
+
+   /**
+    * Search a snapshot of the graph as it is now
+    * @param graph
+    */
+   public ParallelBreadthFirstSearch(Graph<V, E> graph) {
+      this(new CompressedSparseRowGraph<V, E>(graph));
+   }
+
+   public ParallelBreadthFirstSearch(CompressedSparseRowGraph<V, E> graph) {
+      this.graph = graph;
+   }
+
+   public CompressedSparseRowGraph<V, E> getGraph() {
+      return graph;
+   }
+
+   /**
+    * @param source
+    * @return The hop count of each vertex from the source, indexed by the
+    * vertex id in the graph, or -1 if it cannot be reached
+    */
+   public int[] getHopCounts(V source) {
+      Search search = new Search();
+      search.run(new int[]{getSourceId(source)});
+      return search.getHopCounts();
+   }
+
+   /**
+    * @param sources
+    * @return The hop count of each vertex from the nearest source, indexed by the
+    * vertex id in the graph, or -1 if it cannot be reached
+    */
+   public int[] getHopCounts(Collection<V> sources) {
+      int[] sourceIds = new int[sources.size()];
+      int count = 0;
+      for (V source : sources) {
+         sourceIds[count++] = getSourceId(source);
+      }
+      Search search = new Search();
+      search.run(sourceIds);
+      return search.getHopCounts();
+   }
+
+   /**
+    * The hop counts that a HopCountVisitor records over a traversal from the start
+    * vertex, so vertices that cannot be reached from the start are counted from
+    * the lowest numbered unreached vertex of their own component.
+    * @param startVertex
+    * @return The hop count of each vertex, indexed by the vertex id in the graph
+    */
+   public int[] getSpanningHopCounts(V startVertex) {
+      Search search = new Search();
+      search.run(new int[]{getSourceId(startVertex)});
+      for (int u = 0; u < graph.getVertexCount(); ++u) {
+         if (search.hops.get(u) < 0) {
+            search.run(new int[]{u});
+         }
+      }
+      return search.getHopCounts();
+   }
+
+   private int getSourceId(V source) {
+      int id = graph.getId(source);
+      if (id < 0) {
+         throw new IllegalArgumentException("Source vertex is not in the graph.");
+      }
+      return id;
+   }
+
+   private void lazyBuildPredecessors() {
+      if (inOffsets != null) {
+         return;
+      }
+      if (!graph.isDirected()) {
+         inOffsets = graph.getOffsets();
+         inTargets = graph.getTargets();
+         return;
+      }
+
+      int vertexCount = graph.getVertexCount();
+      int[] offsets = graph.getOffsets();
+      int[] targets = graph.getTargets();
+      int[] predecessorOffsets = new int[vertexCount + 1];
+      for (int i = 0; i < targets.length; ++i) {
+         ++predecessorOffsets[targets[i] + 1];
+      }
+      for (int v = 0; v < vertexCount; ++v) {
+         predecessorOffsets[v + 1] += predecessorOffsets[v];
+      }
+      int[] next = Arrays.copyOf(predecessorOffsets, vertexCount);
+      int[] predecessors = new int[targets.length];
+      for (int u = 0; u < vertexCount; ++u) {
+         for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+            predecessors[next[targets[i]]++] = u;
+         }
+      }
+      inOffsets = predecessorOffsets;
+      inTargets = predecessors;
+   }
+
+   // The state of one search, which may be run again from further sources
+   private class Search {
+
+      private final int vertexCount = graph.getVertexCount();
+      private final int[] offsets = graph.getOffsets();
+      private final int[] targets = graph.getTargets();
+      private final AtomicIntegerArray hops = new AtomicIntegerArray(vertexCount);
+      private int[] frontier = new int[vertexCount];
+      private int[] nextFrontier = new int[vertexCount];
+      private final AtomicInteger nextSize = new AtomicInteger();
+      private final AtomicLong nextEdges = new AtomicLong();
+      private long unexploredEdges = targets.length;
+
+      Search() {
+         for (int u = 0; u < vertexCount; ++u) {
+            hops.set(u, -1);
+         }
+      }
+
+      void run(int[] sources) {
+         int frontierSize = 0;
+         long frontierEdges = 0;
+         for (int source : sources) {
+            if (hops.get(source) < 0) {
+               hops.set(source, 0);
+               frontier[frontierSize++] = source;
+               frontierEdges += graph.getDegree(source);
+            }
+         }
+         unexploredEdges -= frontierEdges;
+
+         boolean bottomUp = false;
+         for (int level = 0; frontierSize > 0; ++level) {
+            // Bottom-up steps scan every vertex, so are reserved for large frontiers
+            boolean useBottomUp = frontierSize >= vertexCount / BETA
+                    && (bottomUp || frontierEdges > unexploredEdges / ALPHA);
+
+            nextSize.set(0);
+            nextEdges.set(0);
+            if (useBottomUp) {
+               lazyBuildPredecessors();
+               execute(new BottomUpTask(level, 0, vertexCount), vertexCount);
+            } else {
+               if (bottomUp) {
+                  // The frontier was only counted, so must be collected
+                  execute(new GatherTask(level, 0, vertexCount), vertexCount);
+                  int[] swap = frontier;
+                  frontier = nextFrontier;
+                  nextFrontier = swap;
+                  nextSize.set(0);
+                  nextEdges.set(0);
+               }
+               execute(new TopDownTask(level, 0, frontierSize), frontierSize);
+            }
+            bottomUp = useBottomUp;
+
+            int[] swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+            frontierSize = nextSize.get();
+            frontierEdges = nextEdges.get();
+            unexploredEdges -= frontierEdges;
+         }
+      }
+
+      int[] getHopCounts() {
+         int[] result = new int[vertexCount];
+         for (int u = 0; u < vertexCount; ++u) {
+            result[u] = hops.get(u);
+         }
+         return result;
+      }
+
+      private void execute(RecursiveAction task, int size) {
+         if (size <= sequentialThreshold) {
+            task.invoke();
+         } else {
+            forkJoinPool.invoke(task);
+         }
+      }
+
+      // Append vertices found by one task to the next frontier in a single block
+      private void publish(int[] found, int count, long edges) {
+         if (count > 0) {
+            int position = nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, nextFrontier, position, count);
+            nextEdges.addAndGet(edges);
+         }
+      }
+
+      private abstract class RangeTask extends RecursiveAction {
+
+         protected final int level;
+         protected final int from;
+         protected final int to;
+
+         RangeTask(int level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+         }
+
+         @Override
+         protected void compute() {
+            if (to - from <= sequentialThreshold) {
+               computeRange();
+            } else {
+               int middle = (from + to) >>> 1;
+               invokeAll(split(from, middle), split(middle, to));
+            }
+         }
+
+         protected abstract RangeTask split(int from, int to);
+
+         protected abstract void computeRange();
+      }
+
+      // Claim the unvisited successors of a range of the frontier
+      private class TopDownTask extends RangeTask {
+
+         TopDownTask(int level, int from, int to) {
+            super(level, from, to);
+         }
+
+         @Override
+         protected RangeTask split(int from, int to) {
+            return new TopDownTask(level, from, to);
+         }
+
+         @Override
+         protected void computeRange() {
+            int[] found = new int[16];
+            int count = 0;
+            long edges = 0;
+            for (int i = from; i < to; ++i) {
+               int u = frontier[i];
+               for (int j = offsets[u]; j < offsets[u + 1]; ++j) {
+                  int v = targets[j];
+                  if (hops.get(v) < 0 && hops.compareAndSet(v, -1, level + 1)) {
+                     if (count == found.length) {
+                        found = Arrays.copyOf(found, 2 * count);
+                     }
+                     found[count++] = v;
+                     edges += offsets[v + 1] - offsets[v];
+                  }
+               }
+            }
+            publish(found, count, edges);
+         }
+      }
+
+      // Each unvisited vertex in the range looks for a predecessor in the frontier
+      private class BottomUpTask extends RangeTask {
+
+         BottomUpTask(int level, int from, int to) {
+            super(level, from, to);
+         }
+
+         @Override
+         protected RangeTask split(int from, int to) {
+            return new BottomUpTask(level, from, to);
+         }
+
+         @Override
+         protected void computeRange() {
+            int count = 0;
+            long edges = 0;
+            for (int v = from; v < to; ++v) {
+               if (hops.get(v) >= 0) {
+                  continue;
+               }
+               for (int j = inOffsets[v]; j < inOffsets[v + 1]; ++j) {
+                  if (hops.get(inTargets[j]) == level) {
+                     hops.set(v, level + 1);
+                     ++count;
+                     edges += offsets[v + 1] - offsets[v];
+                     break;
+                  }
+               }
+            }
+            nextSize.addAndGet(count);
+            nextEdges.addAndGet(edges);
+         }
+      }
+
+      // Collect the vertices at a level into the next frontier
+      private class GatherTask extends RangeTask {
+
+         GatherTask(int level, int from, int to) {
+            super(level, from, to);
+         }
+
+         @Override
+         protected RangeTask split(int from, int to) {
+            return new GatherTask(level, from, to);
+         }
+
+         @Override
+         protected void computeRange() {
+            int[] found = new int[16];
+            int count = 0;
+            for (int v = from; v < to; ++v) {
+               if (hops.get(v) == level) {
+                  if (count == found.length) {
+                     found = Arrays.copyOf(found, 2 * count);
+                  }
+                  found[count++] = v;
+               }
+            }
+            publish(found, count, 0);
+         }
+      }
+   }
+
+   public ForkJoinPool getForkJoinPool() {
+      return forkJoinPool;
+   }
+
+   public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+   }
+
+   public int getSequentialThreshold() {
+      return sequentialThreshold;
+   }
+
+   public void setSequentialThreshold(int sequentialThreshold) {
+      this.sequentialThreshold = sequentialThreshold;
+   }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import org.jgrapht.Graph;
+
+/**
+ * Connected components found in parallel over a CompressedSparseRowGraph with a concurrent
+ * union-find, following Sutton, Ben-Nun and Barak, "Optimizing Parallel Graph Connectivity
+ * Computation via Subgraph Sampling" (Afforest). A couple of neighbours of every vertex are
+ * linked first, then the remaining edges are only linked for vertices outside the largest
+ * component found by sampling.
+ * Trees are always hooked under the lower vertex id, so each root is the lowest id in
+ * its component, and components are numbered from one in the order of their lowest id.
+ * This matches the numbering of Connectivity, which starts a search at each unvisited
+ * vertex in order. Edges of directed graphs are treated as undirected.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ParallelConnectivity<V, E> {
+
+   private static final int NEIGHBOUR_ROUNDS = 2;
+   private static final int SAMPLES = 1024;
+
+   private final Graph<V, E> graph;
+   private CompressedSparseRowGraph<V, E> snapshot;
+   private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+   private int[] vertexComponents;
+   private int componentCount;
+
+   public ParallelConnectivity(Graph<V, E> graph) {
+      this.graph = graph;
+   }
+
+   public ParallelConnectivity(CompressedSparseRowGraph<V, E> snapshot) {
+      this.graph = null;
+      this.snapshot = snapshot;
+   }
+
+   private void lazyImpl() {
+      if (vertexComponents == null) {
+         if (snapshot == null) {
+            snapshot = new CompressedSparseRowGraph<V, E>(graph);
+         }
+         findComponents();
+      }
+   }
+
+   public int getComponents() {
+      lazyImpl();
+      return componentCount;
+   }
+
+   public int getComponent(V vertex) {
+      lazyImpl();
+      int id = snapshot.getId(vertex);
+      if (id < 0) {
+         throw new IllegalArgumentException("Vertex is not in the graph.");
+      }
+      return vertexComponents[id];
+   }
+
+   public boolean isConnected() {
+      return getComponents() == 1;
+   }
+
+   /**
+    * @return The component of every vertex
+    */
+   public Map<V, Integer> getVertexComponents() {
+      lazyImpl();
+      Map<V, Integer> components = new HashMap<V, Integer>(2 * vertexComponents.length);
+      for (int u = 0; u < vertexComponents.length; ++u) {
+         components.put(snapshot.getVertex(u), vertexComponents[u]);
+      }
+      return components;
+   }
+
+   private void findComponents() {
+      int n = snapshot.getVertexCount();
+      int[] offsets = snapshot.getOffsets();
+      int[] targets = snapshot.getTargets();
+      AtomicIntegerArray parents = new AtomicIntegerArray(n);
+      parallelFor(n, u -> parents.set(u, u));
+
+      // Link a few neighbours of each vertex, which joins most of a large component
+      for (int round = 0; round < NEIGHBOUR_ROUNDS; ++round) {
+         final int r = round;
+         parallelFor(n, u -> {
+            if (offsets[u] + r < offsets[u + 1]) {
+               link(parents, u, targets[offsets[u] + r]);
+            }
+         });
+         parallelFor(n, u -> compress(parents, u));
+      }
+
+      // An edge leaving the largest component is also found from its other end,
+      // unless only the edges leaving each vertex are held
+      int largest = n == 0 ? -1 : sampleLargestComponent(parents, n);
+      boolean skipLargest = !snapshot.isDirected();
+      parallelFor(n, u -> {
+         if (!skipLargest || parents.get(u) != largest) {
+            for (int i = offsets[u] + NEIGHBOUR_ROUNDS; i < offsets[u + 1]; ++i) {
+               link(parents, u, targets[i]);
+            }
+         }
+      });
+      parallelFor(n, u -> compress(parents, u));
+
+      // Every vertex now points at the lowest id in its component
+      vertexComponents = new int[n];
+      componentCount = 0;
+      for (int u = 0; u < n; ++u) {
+         int root = parents.get(u);
+         vertexComponents[u] = root == u ? ++componentCount : vertexComponents[root];
+      }
+   }
+
+   private static int sampleLargestComponent(AtomicIntegerArray parents, int n) {
+      Random random = new Random(0);
+      Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+      int largest = parents.get(0);
+      int largestCount = 0;
+      for (int i = 0; i < SAMPLES; ++i) {
+         int root = parents.get(random.nextInt(n));
+         int count = counts.merge(root, 1, Integer::sum);
+         if (count > largestCount) {
+            largest = root;
+            largestCount = count;
+         }
+      }
+      return largest;
+   }
+
+   // Hook the higher of the two roots under the lower
+   private static void link(AtomicIntegerArray parents, int u, int v) {
+      int p1 = parents.get(u);
+      int p2 = parents.get(v);
+      while (p1 != p2) {
+         int high = Math.max(p1, p2);
+         int low = Math.min(p1, p2);
+         int highParent = parents.get(high);
+         if (highParent == low
+                 || (highParent == high && parents.compareAndSet(high, high, low))) {
+            break;
+         }
+         p1 = parents.get(parents.get(high));
+         p2 = parents.get(low);
+      }
+   }
+
+   private static void compress(AtomicIntegerArray parents, int u) {
+      int parent = parents.get(u);
+      int grandparent = parents.get(parent);
+      while (parent != grandparent) {
+         parents.set(u, grandparent);
+         parent = grandparent;
+         grandparent = parents.get(parent);
+      }
+   }
+
+   private void parallelFor(int n, IntConsumer body) {
+      forkJoinPool.submit(() -> IntStream.range(0, n).parallel().forEach(body)).join();
+   }
+
+   public ForkJoinPool getForkJoinPool() {
+      return forkJoinPool;
+   }
+
+   public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+   }
+}
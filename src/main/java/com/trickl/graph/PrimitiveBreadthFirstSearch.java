@@ -0,0 +1,135 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import org.jgrapht.Graph;
+
+/**
+ * A breadth first search with the same visitor callbacks as BreadthFirstSearch,
+ * that runs over a CompressedSparseRowGraph with the colour of each vertex in a
+ * byte array and the queue in an int array.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class PrimitiveBreadthFirstSearch<V, E> {
+
+   private static final byte WHITE = 0;
+   private static final byte GRAY = 1;
+   private static final byte BLACK = 2;
+
+   private final Graph<V, E> graph;
+   private final CompressedSparseRowGraph<V, E> snapshot;
+
+   /**
+    * Search the graph as it is when each traversal begins
+    * @param graph
+    */
+   public PrimitiveBreadthFirstSearch(Graph<V, E> graph) {
+      this.graph = graph;
+      this.snapshot = null;
+   }
+
+   public PrimitiveBreadthFirstSearch(CompressedSparseRowGraph<V, E> snapshot) {
+      this.graph = null;
+      this.snapshot = snapshot;
+   }
+
+   public void traverse(SpanningSearchVisitor<V, E> visitor) {
+      CompressedSparseRowGraph<V, E> csr = getSnapshot();
+      if (csr.getVertexCount() > 0) {
+         traverse(csr, 0, visitor);
+      }
+   }
+
+   public void traverse(V startVertex,
+                        SpanningSearchVisitor<V, E> visitor) {
+      CompressedSparseRowGraph<V, E> csr = getSnapshot();
+      int start = csr.getId(startVertex);
+      if (start < 0) {
+         throw new IllegalArgumentException("Start vertex is not in the graph.");
+      }
+      traverse(csr, start, visitor);
+   }
+
+   private CompressedSparseRowGraph<V, E> getSnapshot() {
+      return snapshot != null ? snapshot : new CompressedSparseRowGraph<V, E>(graph);
+   }
+
+   private void traverse(CompressedSparseRowGraph<V, E> csr, int start,
+                         SpanningSearchVisitor<V, E> visitor) {
+      int vertexCount = csr.getVertexCount();
+      byte[] colors = new byte[vertexCount];
+      int[] queue = new int[vertexCount];
+      for (int u = 0; u < vertexCount; ++u) {
+         visitor.initializeVertex(csr.getVertex(u));
+      }
+
+      visitor.startVertex(csr.getVertex(start));
+      traverseImpl(csr, start, visitor, colors, queue);
+
+      // The graph may be disconnected - search untouched disjoint sets
+      for (int u = 0; u < vertexCount; ++u) {
+         if (colors[u] == WHITE) {
+            visitor.startVertex(csr.getVertex(u));
+            traverseImpl(csr, u, visitor, colors, queue);
+         }
+      }
+   }
+
+   private void traverseImpl(CompressedSparseRowGraph<V, E> csr, int start,
+                             SpanningSearchVisitor<V, E> visitor,
+                             byte[] colors, int[] queue) {
+      int[] offsets = csr.getOffsets();
+      int[] targets = csr.getTargets();
+
+      // Each vertex is queued at most once, so the queue never wraps
+      int head = 0;
+      int tail = 0;
+      colors[start] = GRAY;
+      visitor.discoverVertex(csr.getVertex(start));
+      queue[tail++] = start;
+
+      while (head < tail) {
+         int u = queue[head++];
+         V uVertex = csr.getVertex(u);
+         for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+            int v = targets[i];
+            V vVertex = csr.getVertex(v);
+            visitor.examineEdge(uVertex, vVertex);
+
+            if (colors[v] == WHITE) {
+               visitor.discoverVertex(vVertex);
+               visitor.treeEdge(uVertex, vVertex);
+
+               queue[tail++] = v;
+               colors[v] = GRAY;
+            } else if (colors[v] == GRAY) {
+               visitor.backEdge(uVertex, vVertex);
+            } else {
+               visitor.forwardOrCrossEdge(uVertex, vVertex);
+            }
+         }
+
+         colors[u] = BLACK;
+         visitor.finishVertex(uVertex);
+      }
+   }
+}
@@ -25,22 +25,44 @@ import org.jgrapht.Graph;
 public class Volume<V, E> {
 
    private Graph<V, E> graph;
+   private CompressedSparseRowGraph<V, E> snapshot;
    private Double volume;
 
    public Volume(Graph<V, E> graph) {
       this.graph = graph;
    }
 
+   public Volume(CompressedSparseRowGraph<V, E> snapshot) {
+      this.snapshot = snapshot;
+   }
+
    public double getVolume() {
       if (volume == null) {
-         volume = 0.;
-         for (V vertex : graph.vertexSet()) {
-            for (E edge : graph.edgesOf(vertex)) {
-               volume += graph.getEdgeWeight(edge);
+         if (snapshot == null) {
+            snapshot = new CompressedSparseRowGraph<V, E>(graph);
+         }
+
+         // Each edge counts at both of its ends, so a directed edge that is
+         // only held at its source is also counted for its target
+         int[] offsets = snapshot.getOffsets();
+         int[] targets = snapshot.getTargets();
+         double[] weights = snapshot.getWeights();
+         double sum = 0.;
+         for (int u = 0; u < snapshot.getVertexCount(); ++u) {
+            for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+               sum += weights[i];
+               if (isHeldAtSourceOnly(u, targets[i])) {
+                  sum += weights[i];
+               }
             }
-         }        
+         }
+         volume = sum;
       }
 
       return volume;
    }
+
+   private boolean isHeldAtSourceOnly(int source, int target) {
+      return snapshot.isDirected() && source != target && !snapshot.isAdjacent(target, source);
+   }
 }
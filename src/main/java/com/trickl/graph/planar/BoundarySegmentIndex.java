@@ -0,0 +1,178 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.LineSegment;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A spatial index over the segments of a closed boundary, for finding where lines
+ * meet the boundary without testing every segment. Vertices added to split the
+ * boundary are recorded against the original segments, so the index itself never
+ * changes and queries may be made from several threads.
+ * @param <V> Vertex type
+ */
+public class BoundarySegmentIndex<V> {
+
+   private final List<V> vertices;
+   private final LineSegment[] segments;
+   private final List<List<SplitVertex<V>>> splitVertices;
+   private final STRtree tree = new STRtree();
+   private final Envelope bounds = new Envelope();
+   private final double initialSearchRadius;
+
+   private static class SplitVertex<V> {
+
+      final V vertex;
+      final Coordinate location;
+      final double projectionFactor;
+
+      SplitVertex(V vertex, Coordinate location, double projectionFactor) {
+         this.vertex = vertex;
+         this.location = location;
+         this.projectionFactor = projectionFactor;
+      }
+   }
+
+   /**
+    * @param boundaryVertices The vertices of the boundary, in order, without repeating the first
+    * @param layout
+    */
+   public BoundarySegmentIndex(List<V> boundaryVertices, PlanarLayout<V> layout) {
+      vertices = new ArrayList<V>(boundaryVertices);
+      segments = new LineSegment[vertices.size()];
+      splitVertices = new ArrayList<List<SplitVertex<V>>>(vertices.size());
+      for (int i = 0; i < segments.length; ++i) {
+         segments[i] = PlanarGraphs.getLineSegment(i, vertices, layout);
+         splitVertices.add(new ArrayList<SplitVertex<V>>(0));
+         Envelope envelope = new Envelope(segments[i].p0, segments[i].p1);
+         tree.insert(envelope, i);
+         bounds.expandToInclude(envelope);
+      }
+      if (segments.length > 0) {
+         tree.build();
+      }
+      initialSearchRadius = Math.max(bounds.getWidth(), bounds.getHeight())
+              / Math.sqrt(Math.max(1, segments.length));
+   }
+
+   /**
+    * Find the boundary segment intercepting a line nearest to the line origin, with the
+    * same result as {@link PlanarGraphs#getNearestInterceptingLineSegment}, but searching
+    * outwards from the origin through the index.
+    * @param halfLine
+    * @return The index of the original boundary segment, or -1 if none intercepts
+    */
+   public int getNearestInterceptingLineSegment(LineSegment halfLine) {
+      Coordinate origin = halfLine.p0;
+      if (segments.length == 0 || Double.isNaN(origin.x) || Double.isNaN(origin.y)
+              || Double.isInfinite(origin.x) || Double.isInfinite(origin.y)) {
+         return -1;
+      }
+
+      // An interception within the search radius must lie on a segment found by the search
+      double searchRadius = initialSearchRadius > 0 ? initialSearchRadius : 1;
+      while (true) {
+         Envelope searchEnvelope = new Envelope(origin.x - searchRadius, origin.x + searchRadius,
+                 origin.y - searchRadius, origin.y + searchRadius);
+         double minDistance = Double.POSITIVE_INFINITY;
+         int segmentIndex = -1;
+         for (Object item : tree.query(searchEnvelope)) {
+            int candidate = (Integer) item;
+            LineSegment boundarySegment = segments[candidate];
+            Coordinate intersection = boundarySegment.lineIntersection(halfLine);
+            if (intersection != null) {
+               double boundaryProjectionFactor = boundarySegment.projectionFactor(intersection);
+               if (boundaryProjectionFactor >= 0 && boundaryProjectionFactor < 1) {
+                  double distance = origin.distance(intersection);
+                  if (distance < minDistance || (distance == minDistance && candidate < segmentIndex)) {
+                     minDistance = distance;
+                     segmentIndex = candidate;
+                  }
+               }
+            }
+         }
+
+         if ((segmentIndex >= 0 && minDistance <= searchRadius) || searchEnvelope.contains(bounds)) {
+            return segmentIndex;
+         }
+         searchRadius *= 2;
+      }
+   }
+
+   public LineSegment getLineSegment(int segmentIndex) {
+      return segments[segmentIndex];
+   }
+
+   /**
+    * @param segmentIndex The original boundary segment
+    * @param location
+    * @return The boundary vertex at exactly this location on the segment, or null if there is none
+    */
+   public V getVertex(int segmentIndex, Coordinate location) {
+      if (location.equals(segments[segmentIndex].p0)) {
+         return vertices.get(segmentIndex);
+      } else if (location.equals(segments[segmentIndex].p1)) {
+         return vertices.get((segmentIndex + 1) % vertices.size());
+      }
+      for (SplitVertex<V> splitVertex : splitVertices.get(segmentIndex)) {
+         if (location.equals(splitVertex.location)) {
+            return splitVertex.vertex;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Split a boundary segment with a new vertex. Vertices at the same location
+    * are ordered by when they were added.
+    * @param segmentIndex The original boundary segment
+    * @param vertex
+    * @param location
+    */
+   public void addVertex(int segmentIndex, V vertex, Coordinate location) {
+      List<SplitVertex<V>> segmentVertices = splitVertices.get(segmentIndex);
+      double projectionFactor = segments[segmentIndex].projectionFactor(location);
+      int position = segmentVertices.size();
+      while (position > 0 && segmentVertices.get(position - 1).projectionFactor > projectionFactor) {
+         --position;
+      }
+      segmentVertices.add(position, new SplitVertex<V>(vertex, location, projectionFactor));
+   }
+
+   /**
+    * @return The vertices of the boundary in order, including those added
+    */
+   public List<V> getBoundaryVertices() {
+      List<V> boundaryVertices = new ArrayList<V>(vertices.size());
+      for (int i = 0; i < vertices.size(); ++i) {
+         boundaryVertices.add(vertices.get(i));
+         for (SplitVertex<V> splitVertex : splitVertices.get(i)) {
+            boundaryVertices.add(splitVertex.vertex);
+         }
+      }
+      return boundaryVertices;
+   }
+}
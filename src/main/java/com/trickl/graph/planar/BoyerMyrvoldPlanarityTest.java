@@ -21,7 +21,7 @@
  */
 package com.trickl.graph.planar;
 
-import com.trickl.graph.DepthFirstSearch;
+import com.trickl.graph.PrimitiveDepthFirstSearch;
 import com.trickl.graph.planar.FaceHandle.FaceIterator.CurrentIteration;
 import com.trickl.graph.planar.FaceHandle.FaceIterator.FaceIteratorBothSidesVertex;
 import com.trickl.graph.planar.FaceHandle.FaceIterator.FaceIteratorSingleSideEdge;
@@ -81,7 +81,7 @@ public class BoyerMyrvoldPlanarityTest<V, E> implements PlanarEmbedding<V, E> {
    }
    private Graph<V, E> graph;
    private PlanarDfsVisitor<V, E> componentVisitor;
-   private DepthFirstSearch<V, E> depthFirstSearch;
+   private PrimitiveDepthFirstSearch<V, E> depthFirstSearch;
    private V kuratowskiV;
    private V kuratowskiX;
    private V kuratowskiY;
@@ -106,7 +106,7 @@ public class BoyerMyrvoldPlanarityTest<V, E> implements PlanarEmbedding<V, E> {
       this.embeddingStorage = embeddingStorage;
       this.oldHandles = oldHandles;
       this.currentMergePoints = new Vector<V>();
-      depthFirstSearch = new DepthFirstSearch<V, E>(graph);
+      depthFirstSearch = new PrimitiveDepthFirstSearch<V, E>(graph);
       vertexDetails = new HashMap<V, Detail<V, E>>();
       for (V v : graph.vertexSet()) {
          vertexDetails.put(v, new Detail<V, E>());
@@ -21,9 +21,8 @@
 package com.trickl.graph.planar;
 
 import com.trickl.graph.edges.DirectedEdge;
-import java.util.HashMap;
+import java.util.ArrayDeque;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 
@@ -41,27 +40,26 @@ public class BreadthFirstPlanarFaceTraversal<V, E> implements PlanarFaceTraversa
 
       // Copy the embedding so the graph can be modified during traversal
       Map<DirectedEdge<V>, DirectedEdge<V>> embedding = new LinkedHashMap<DirectedEdge<V>, DirectedEdge<V>>();
+      RotationCursor<V> rotation = PlanarGraphs.rotationCursor(graph);
       for (V vertex : graph.vertexSet()) {
+         if (!rotation.reset(vertex)) {
+            continue;
+         }
 
-         V priorItr = null;
-         V firstItr = null;
-         for (V itr : PlanarGraphs.getConnectedVertices(graph, vertex)) {
-
-            if (priorItr != null) {               
-               embedding.put(new DirectedEdge<V>(itr, vertex), new DirectedEdge<V>(vertex, priorItr));              
-            } else {
-               firstItr = itr;
-            }
+         // Work backwards around the vertex from the first edge, in inward face order
+         V firstItr = rotation.getTarget();
+         V priorItr = firstItr;
+         while (rotation.prev()) {
+            V itr = rotation.getTarget();
+            embedding.put(new DirectedEdge<V>(itr, vertex), new DirectedEdge<V>(vertex, priorItr));
             priorItr = itr;
          }
-         if (priorItr != null) {
-            embedding.put(new DirectedEdge<V>(firstItr, vertex), new DirectedEdge<V>(vertex, priorItr));
-         }
+         embedding.put(new DirectedEdge<V>(firstItr, vertex), new DirectedEdge<V>(vertex, priorItr));
       }
 
       // Iterate over all the internal edges in the graph, deleting from
       // the embedding as we go
-      Queue<DirectedEdge<V>> edgeQueue = new LinkedList<DirectedEdge<V>>();
+      Queue<DirectedEdge<V>> edgeQueue = new ArrayDeque<DirectedEdge<V>>();
       while (!embedding.isEmpty()) {
          
          // Start traversal with first internal edge         
@@ -21,20 +21,21 @@
 package com.trickl.graph.planar;
 
 import com.trickl.graph.edges.DirectedEdge;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.jgrapht.Graphs;
 
 public class CanonicalPlanarFaceTraversal<V, E> implements PlanarFaceTraversal<V, E> {
 
    protected PlanarGraph<V, E> graph;
+   private final FaceCursor<V> faceCursor;
 
    public CanonicalPlanarFaceTraversal(PlanarGraph<V, E> graph) {
       this.graph = graph;
+      this.faceCursor = PlanarGraphs.faceCursor(graph);
    }
 
    @Override
@@ -43,12 +44,13 @@ public class CanonicalPlanarFaceTraversal<V, E> implements PlanarFaceTraversal<V
 
       // Copy the embedding so the graph can be modified during traversal
       Map<V, List<V>> embedding = new Hashtable<V, List<V>>();
+      RotationCursor<V> rotation = PlanarGraphs.rotationCursor(graph);
       for (V vertex : graph.vertexSet()) {
-         List<V> targets = new LinkedList<V>();
-         Set<E> edges = graph.edgesOf(vertex);
-         for (E edge : edges) {
-            V target = Graphs.getOppositeVertex(graph, edge, vertex);
-            targets.add(target);
+         List<V> targets = new ArrayList<V>(com.trickl.graph.Graphs.degreeOf(graph, vertex));
+         if (rotation.reset(vertex)) {
+            do {
+               targets.add(rotation.getTarget());
+            } while (rotation.next());
          }
 
          embedding.put(vertex, targets);
@@ -90,21 +92,21 @@ public class CanonicalPlanarFaceTraversal<V, E> implements PlanarFaceTraversal<V
    private void traverseFace(PlanarFaceTraversalVisitor<V, E> visitor, V source, V target) {
       visitor.beginFace(source, target);
 
-      V prevVertex = null;
-      V firstVertex = null;
-      for (V vertex : PlanarGraphs.getVerticesOnFace(graph, source, target)) {
-         if (prevVertex == null) {
-            firstVertex = vertex;
-         } else {
-            visitor.nextEdge(prevVertex, vertex);
-         }
-         visitor.nextVertex(vertex);
+      if (source != null) {
+         // Walk the face until it first returns to the source vertex
+         faceCursor.reset(source, target);
+         V prevVertex = null;
+         do {
+            V vertex = faceCursor.getSource();
+            if (prevVertex != null) {
+               visitor.nextEdge(prevVertex, vertex);
+            }
+            visitor.nextVertex(vertex);
 
-         prevVertex = vertex;
-      }
-      
-      if (firstVertex != null) {
-         visitor.nextEdge(prevVertex, firstVertex);
+            prevVertex = vertex;
+         } while (faceCursor.next() && !faceCursor.getSource().equals(source));
+
+         visitor.nextEdge(prevVertex, source);
       }
 
       visitor.endFace(source, target);
@@ -87,6 +87,14 @@ public class DcelFace<V, E, F> implements Serializable {
    }
 
    public void setBoundary(boolean isBoundary) {
+      if (this.isBoundary != isBoundary && adjacent != null) {
+         // Keep the boundary counts of the vertices on this face current
+         for (DcelHalfEdge<V, E, F> halfEdge : adjacent.edges()) {
+            if (halfEdge.getOrigin() != null && halfEdge.getFace() == this) {
+               halfEdge.getOrigin().adjustBoundaryEdgeCount(isBoundary ? 1 : -1);
+            }
+         }
+      }
       this.isBoundary = isBoundary;
    }
 
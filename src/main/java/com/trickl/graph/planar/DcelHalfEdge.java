@@ -31,11 +31,11 @@ import javax.xml.bind.annotation.XmlType;
 @XmlType(name="dcel-half-edge")
 public class DcelHalfEdge<V, E, F> implements Serializable {
 
-   private final static int ITERATION_LIMIT = 10000;   
-
    private DcelHalfEdge<V, E, F> twin;
    private DcelVertex<V, E, F> origin;
    private DcelHalfEdge<V, E, F> next;
+   // Maintained by setNext, the half-edge whose next is this one
+   private DcelHalfEdge<V, E, F> prev;
    private DcelFace<V, E, F> face;
    private E edge;
 
@@ -100,10 +100,21 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
 
    public void setNext(DcelHalfEdge<V, E, F> next) {
+      if (this.next != null && this.next.prev == this) {
+         this.next.prev = null;
+      }
       this.next = next;
+      if (next != null) {
+         next.prev = this;
+      }
    }
 
    public void setFace(DcelFace<V, E, F> face) {
+      boolean wasBoundary = this.face != null && this.face.isBoundary();
+      boolean isBoundary = face != null && face.isBoundary();
+      if (origin != null && wasBoundary != isBoundary) {
+         origin.adjustBoundaryEdgeCount(isBoundary ? 1 : -1);
+      }
       this.face = face;
       if (face != null && face.getAdjacent() == null) {
          face.setAdjacent(this);
@@ -111,6 +122,14 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
 
    public void setOrigin(DcelVertex<V, E, F> origin) {
+      if (face != null && face.isBoundary() && this.origin != origin) {
+         if (this.origin != null) {
+            this.origin.adjustBoundaryEdgeCount(-1);
+         }
+         if (origin != null) {
+            origin.adjustBoundaryEdgeCount(1);
+         }
+      }
       this.origin = origin;
       if (origin != null && origin.getLeaving() == null) {
          origin.setLeaving(this);
@@ -126,9 +145,15 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
 
    @XmlTransient
    public DcelHalfEdge<V, E, F> getPrev() {
+      if (prev != null && prev.next == this) {
+         return prev;
+      }
+
+      // Fall back to a search of the rotation if the link is missing
       for (DcelHalfEdge<V, E, F> halfEdge : origin.outHalfEdges()) {
          if (halfEdge.twin.next.equals(this)) {
-            return halfEdge.twin;
+            prev = halfEdge.twin;
+            return prev;
          }
       }
       return null;
@@ -171,7 +196,10 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
             return new Iterator<DcelHalfEdge<V, E, F>>() {
 
                DcelHalfEdge<V, E, F> next = startEdge;
-               int iteration = 0;
+               // Trails at half speed, the walk can only meet it again
+               // by cycling without reaching the end edge
+               DcelHalfEdge<V, E, F> trailing = startEdge;
+               boolean advanceTrailing = false;
 
                @Override
                public boolean hasNext() {
@@ -181,24 +209,30 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
                @Override
                public DcelHalfEdge<V, E, F> next() {
                   DcelHalfEdge<V, E, F> current = next;
-                  if (forward) {
-                     next = current.next;
-                  } else {
-                     next = current.getPrev();
-                  }
+                  assert(current.twin == null || current.twin.twin == current)
+                          : "Half-edge has an inconsistent twin, suggests corrupt structure.";
+                  next = step(current);
 
                   if (next == endEdge) {
                      next = null;
-                  }
-
-                  if (++iteration > ITERATION_LIMIT) {
-                     throw new IndexOutOfBoundsException(
-                             "Iteration beyond limit, suggests corrupt structure.");
+                  } else if (next != null) {
+                     if (advanceTrailing) {
+                        trailing = step(trailing);
+                     }
+                     advanceTrailing = !advanceTrailing;
+                     if (next == trailing) {
+                        throw new IndexOutOfBoundsException(
+                             "Face walk does not reach its end edge, suggests corrupt structure.");
+                     }
                   }
 
                   return current;
                }
 
+               private DcelHalfEdge<V, E, F> step(DcelHalfEdge<V, E, F> halfEdge) {
+                  return forward ? halfEdge.next : halfEdge.getPrev();
+               }
+
                @Override
                public void remove() {
                   throw new UnsupportedOperationException("Not supported yet.");
@@ -219,6 +253,11 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
   
    public void remove() {
+      origin.unindexHalfEdge(twin.origin.getVertex());
+      twin.origin.unindexHalfEdge(origin.getVertex());
+      origin.adjustEdgeCount(-1);
+      twin.origin.adjustEdgeCount(-1);
+
       // Check if this edge separates two distinct faces
       if (face != twin.face) {
          // Remove the redundant face, merging the faces
@@ -22,9 +22,11 @@ package com.trickl.graph.planar;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -36,9 +38,15 @@ import javax.xml.bind.annotation.XmlType;
 @XmlType(name = "dcel-vertex")
 public class DcelVertex<V, E, F> implements Serializable {
 
-   private final static int ITERATION_LIMIT = 10000;
+   private final static int UNKNOWN_COUNT = -1;
    private DcelHalfEdge<V, E, F> leaving;
    private V vertex;
+   // Optional index of leaving half-edges by target vertex, null if disabled
+   private Map<V, DcelHalfEdge<V, E, F>> halfEdgeIndex;
+   // Cached counts of leaving half-edges, and those on a boundary face.
+   // Computed on first use, then maintained as edges and faces change.
+   private int edgeCount = UNKNOWN_COUNT;
+   private int boundaryEdgeCount = UNKNOWN_COUNT;
 
    public DcelVertex() {
       this(null);
@@ -107,25 +115,47 @@ public class DcelVertex<V, E, F> implements Serializable {
 
    @XmlTransient
    public boolean isBoundary() {
-      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
-         if (halfEdge.isBoundary()) {
-            return true;
+      if (boundaryEdgeCount == UNKNOWN_COUNT) {
+         int count = 0;
+         for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+            if (halfEdge.isBoundary()) {
+               ++count;
+            }
          }
+         boundaryEdgeCount = count;
       }
-      return false;
+      return boundaryEdgeCount > 0;
    }
 
    @XmlTransient
    public int getEdgeCount() {
-      int count = 0;
-      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
-         ++count;
+      if (edgeCount == UNKNOWN_COUNT) {
+         int count = 0;
+         for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+            ++count;
+         }
+         edgeCount = count;
+      }
+
+      return edgeCount;
+   }
+
+   void adjustEdgeCount(int delta) {
+      if (edgeCount != UNKNOWN_COUNT) {
+         edgeCount += delta;
       }
+   }
 
-      return count;
+   void adjustBoundaryEdgeCount(int delta) {
+      if (boundaryEdgeCount != UNKNOWN_COUNT) {
+         boundaryEdgeCount += delta;
+      }
    }
 
    public DcelHalfEdge<V, E, F> getHalfEdge(final V target) {
+      if (halfEdgeIndex != null) {
+         return halfEdgeIndex.get(target);
+      }
 
       for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
          if (halfEdge.getNext().getOrigin().getVertex().equals(target)) {
@@ -135,6 +165,41 @@ public class DcelVertex<V, E, F> implements Serializable {
       return null;
    }
 
+   @XmlTransient
+   public boolean isHalfEdgeIndexed() {
+      return halfEdgeIndex != null;
+   }
+
+   /**
+    * Maintain a hash index of the leaving half-edges by target vertex,
+    * so that getHalfEdge runs in constant time rather than walking the
+    * rotation about this vertex.
+    * @param indexed
+    */
+   public void setHalfEdgeIndexed(boolean indexed) {
+      if (!indexed) {
+         halfEdgeIndex = null;
+      }
+      else if (halfEdgeIndex == null) {
+         halfEdgeIndex = new HashMap<V, DcelHalfEdge<V, E, F>>();
+         for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+            halfEdgeIndex.put(halfEdge.getTwin().getOrigin().getVertex(), halfEdge);
+         }
+      }
+   }
+
+   void indexHalfEdge(DcelHalfEdge<V, E, F> halfEdge, V target) {
+      if (halfEdgeIndex != null) {
+         halfEdgeIndex.put(target, halfEdge);
+      }
+   }
+
+   void unindexHalfEdge(V target) {
+      if (halfEdgeIndex != null) {
+         halfEdgeIndex.remove(target);
+      }
+   }
+
    @XmlTransient
    public Set<E> getEdges() {
       final Set<E> edges = new LinkedHashSet<E>(getEdgeCount());
@@ -187,7 +252,10 @@ public class DcelVertex<V, E, F> implements Serializable {
             return new Iterator<DcelHalfEdge<V, E, F>>() {
 
                DcelHalfEdge<V, E, F> next = startEdge;
-               int iteration = 0;
+               // Trails at half speed, the walk can only meet it again
+               // by cycling without reaching the end edge
+               DcelHalfEdge<V, E, F> trailing = startEdge;
+               boolean advanceTrailing = false;
 
                @Override
                public boolean hasNext() {
@@ -197,15 +265,23 @@ public class DcelVertex<V, E, F> implements Serializable {
                @Override
                public DcelHalfEdge<V, E, F> next() {
                   DcelHalfEdge<V, E, F> current = next;
+                  assert(current.getTwin() != null && current.getTwin().getTwin() == current)
+                          : "Half-edge has an inconsistent twin, suggests corrupt structure.";
+                  assert(current.getOrigin() == null || current.getOrigin() == startEdge.getOrigin())
+                          : "Half-edge in rotation has a different origin, suggests corrupt structure.";
                   next = current.getTwin().getNext();
 
                   if (next == endEdge) {
                      next = null;
-                  }
-
-                  if (++iteration > ITERATION_LIMIT) {
-                     throw new IndexOutOfBoundsException(
-                             "Iteration beyond limit, suggests corrupt structure.");
+                  } else {
+                     if (advanceTrailing) {
+                        trailing = trailing.getTwin().getNext();
+                     }
+                     advanceTrailing = !advanceTrailing;
+                     if (next == trailing) {
+                        throw new IndexOutOfBoundsException(
+                             "Rotation does not reach its end edge, suggests corrupt structure.");
+                     }
                   }
 
                   return current;
@@ -274,6 +350,9 @@ public class DcelVertex<V, E, F> implements Serializable {
       DcelHalfEdge<V, E, F> createdTwin = new DcelHalfEdge<V, E, F>(e);
       createdEdge.setTwin(createdTwin);
 
+      // Find the predecessor of the after edge before any links are changed
+      DcelHalfEdge<V, E, F> afterPrevEdge = afterEdge == null ? null : afterEdge.getPrev();
+
       // Set the edge next pointers
       if (beforeEdge == null) {
          createdTwin.setNext(createdEdge);
@@ -286,7 +365,7 @@ public class DcelVertex<V, E, F> implements Serializable {
          createdEdge.setNext(createdTwin);
       } else {
          createdEdge.setNext(afterEdge);
-         afterEdge.getPrev().setNext(createdTwin);
+         afterPrevEdge.setNext(createdTwin);
       }
 
       // Set the edge faces
@@ -329,6 +408,10 @@ public class DcelVertex<V, E, F> implements Serializable {
       setLeaving(createdEdge);
       createdTwin.setOrigin(target);
       target.setLeaving(createdTwin);
+      indexHalfEdge(createdEdge, target.getVertex());
+      target.indexHalfEdge(createdTwin, vertex);
+      adjustEdgeCount(1);
+      target.adjustEdgeCount(1);
 
       return createdEdge;
    }
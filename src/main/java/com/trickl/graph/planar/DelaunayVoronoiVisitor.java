@@ -23,8 +23,11 @@ package com.trickl.graph.planar;
 import com.vividsolutions.jts.algorithm.Angle;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.algorithm.ConvexHull;
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import java.util.*;
 import org.jgrapht.VertexFactory;
 
@@ -33,7 +36,9 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
     final private PlanarLayout<V1> inputLayout;
     final private PlanarLayoutStore<V2> outputLayout;
     final private LinearRing boundary;
-    final private List<V2> boundaryVertices;
+    final private BoundarySegmentIndex<V2> boundaryIndex;
+    final private IndexedPointInAreaLocator boundaryLocator;
+    final private PreparedGeometry preparedBoundary;
     final private GeometryFactory geometryFactory;
 
     /**
@@ -75,7 +80,7 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
         this.inputLayout = inputLayout;
         this.outputLayout = outputLayout;
         this.boundary = boundary;
-        this.boundaryVertices = new ArrayList<V2>(boundary == null ? 0
+        List<V2> boundaryVertices = new ArrayList<V2>(boundary == null ? 0
                 : boundary.getCoordinates().length);
 
         if (boundary != null) {
@@ -87,6 +92,13 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
                 this.outputLayout.setCoordinate(boundaryVertex, coord);
                 this.dualGraph.addVertex(boundaryVertex);
             }
+            this.boundaryIndex = new BoundarySegmentIndex<V2>(boundaryVertices, outputLayout);
+            this.boundaryLocator = new IndexedPointInAreaLocator(geometryFactory.createPolygon(boundary, null));
+            this.preparedBoundary = PreparedGeometryFactory.prepare(boundary);
+        } else {
+            this.boundaryIndex = null;
+            this.boundaryLocator = null;
+            this.preparedBoundary = null;
         }
     }
 
@@ -94,8 +106,7 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
     public void beginFace(V1 source, V1 target) {
         Coordinate dualTargetLocation = getDualLocation(source, target);
         
-        if (dualTargetLocation != null && 
-            CGAlgorithms.isPointInRing(dualTargetLocation, boundary.getCoordinates())) {
+        if (dualTargetLocation != null && isInsideBoundary(dualTargetLocation)) {
             super.beginFace(source, target);
             outputLayout.setCoordinate(dualTarget, dualTargetLocation);
         }
@@ -110,13 +121,13 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
             if (dualSourceLocation != null) {
                 if (dualTargetLocation == null &&
                     // There's no dual target as this is the boundary of the graph
-                    CGAlgorithms.isPointInRing(dualSourceLocation, boundary.getCoordinates())) {                    
+                    isInsideBoundary(dualSourceLocation)) {                    
                     createEdgeToBoundary(source, target);
                 }
                 else if (dualTargetLocation != null) {
                     // The dual target exists, but is outside the boundary
                     LineSegment line = new LineSegment(dualSourceLocation, dualTargetLocation);
-                    if (boundary.intersects(line.toGeometry(geometryFactory))) {
+                    if (preparedBoundary.intersects(line.toGeometry(geometryFactory))) {
                         createEdgeToBoundary(source, target);
                     }
                 }                
@@ -126,6 +137,10 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
         }
     }
 
+    private boolean isInsideBoundary(Coordinate location) {
+        return boundaryLocator.locate(location) != Location.EXTERIOR;
+    }
+
     /**
      * Get the location of the Voronoi vertex given a delaunay edge
      *
@@ -156,6 +171,8 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
         // Assumes the boundary is convex so half lines should never intersect.
         // Join up the boundary vertices, note the boundary faces
         // outwards so we take care to create an inward face        
+        List<V2> boundaryVertices = boundaryIndex == null ? new ArrayList<V2>()
+                : boundaryIndex.getBoundaryVertices();
         Collections.reverse(boundaryVertices);
         for (int prevItr = 0; prevItr < boundaryVertices.size(); ++prevItr) {
             int itr = (prevItr + 1) % boundaryVertices.size();
@@ -178,12 +195,12 @@ public class DelaunayVoronoiVisitor<V1, E1, V2, E2> extends DualGraphVisitor<V1,
 
     private void createEdgeToBoundary(V1 source, V1 target) {
         LineSegment halfLine = getHalfLineToBoundary(source, target);
-        int segmentIndex = PlanarGraphs.getNearestInterceptingLineSegment(halfLine, boundaryVertices, outputLayout);
-        LineSegment boundarySegment = PlanarGraphs.getLineSegment(segmentIndex, boundaryVertices, outputLayout);
+        int segmentIndex = boundaryIndex.getNearestInterceptingLineSegment(halfLine);
+        LineSegment boundarySegment = boundaryIndex.getLineSegment(segmentIndex);
         Coordinate dualTargetLocation = boundarySegment.lineIntersection(halfLine);
 
         super.beginFace(source, target);
-        boundaryVertices.add((segmentIndex + 1) % boundaryVertices.size(), dualTarget);
+        boundaryIndex.addVertex(segmentIndex, dualTarget, dualTargetLocation);
         outputLayout.setCoordinate(dualTarget, dualTargetLocation);
         super.nextEdge(source, target);
         super.endFace(source, target);
@@ -42,6 +42,7 @@ public class DoublyConnectedEdgeList<V, E, F>
    private Map<E, DcelHalfEdge<V, E, F>> edgeMap;
    private Map<V, DcelVertex<V, E, F>> vertexMap;
    private Map<F, DcelFace<V, E, F>> faceMap;
+   private boolean halfEdgeIndexed = false;
 
    private DoublyConnectedEdgeList() {
    }
@@ -390,7 +391,9 @@ public class DoublyConnectedEdgeList<V, E, F>
    @Override
    public boolean addVertex(V vertex) {
       if (!vertexMap.containsKey(vertex)) {
-         vertexMap.put(vertex, new DcelVertex<V, E, F>(vertex));
+         DcelVertex<V, E, F> dcelVertex = new DcelVertex<V, E, F>(vertex);
+         dcelVertex.setHalfEdgeIndexed(halfEdgeIndexed);
+         vertexMap.put(vertex, dcelVertex);
          return true;
       }
       return false;
@@ -400,21 +403,23 @@ public class DoublyConnectedEdgeList<V, E, F>
    public boolean removeAllEdges(Collection<? extends E> edges) {
       boolean changed = false;
       for (E edge : edges) {
-         changed = changed || removeEdge(edge);
+         changed |= removeEdge(edge);
       }
       return changed;
    }
 
    @Override
    public Set<E> removeAllEdges(V source, V target) {
-      throw new UnsupportedOperationException("Not supported yet.");
+      Set<E> edges = getAllEdges(source, target);
+      removeAllEdges(edges);
+      return edges;
    }
 
    @Override
    public boolean removeAllVertices(Collection<? extends V> vertices) {
       boolean changed = false;
       for (V vertex : vertices) {
-         changed = changed || removeVertex(vertex);
+         changed |= removeVertex(vertex);
       }
       return changed;
    }
@@ -547,6 +552,138 @@ public class DoublyConnectedEdgeList<V, E, F>
       return true;
    }
 
+   /**
+    * @return A cursor for walking the faces of this graph without allocation
+    */
+   public FaceCursor<V> faceCursor() {
+      return new DcelFaceCursor();
+   }
+
+   /**
+    * @return A cursor for walking the edges about a vertex without allocation
+    */
+   public RotationCursor<V> rotationCursor() {
+      return new DcelRotationCursor();
+   }
+
+   private DcelHalfEdge<V, E, F> getExistingHalfEdge(V source, V target) {
+      DcelHalfEdge<V, E, F> halfEdge = getHalfEdge(source, target);
+      if (halfEdge == null) {
+         throw new GraphArgumentException(this,
+            new NoSuchElementException("Edge not found."));
+      }
+      return halfEdge;
+   }
+
+   private class DcelFaceCursor implements FaceCursor<V> {
+
+      private DcelHalfEdge<V, E, F> start;
+      private DcelHalfEdge<V, E, F> current;
+
+      @Override
+      public void reset(V source, V target) {
+         start = getExistingHalfEdge(source, target);
+         current = start;
+      }
+
+      @Override
+      public V getSource() {
+         return current.getOrigin().getVertex();
+      }
+
+      @Override
+      public V getTarget() {
+         return current.getTwin().getOrigin().getVertex();
+      }
+
+      @Override
+      public boolean next() {
+         current = current.getNext();
+         return current != start;
+      }
+
+      @Override
+      public boolean prev() {
+         current = current.getPrev();
+         return current != start;
+      }
+
+      @Override
+      public void twin() {
+         current = current.getTwin();
+         start = current;
+      }
+
+      @Override
+      public boolean isBoundary() {
+         return current.isBoundary();
+      }
+   }
+
+   private class DcelRotationCursor implements RotationCursor<V> {
+
+      private DcelHalfEdge<V, E, F> start;
+      private DcelHalfEdge<V, E, F> current;
+
+      @Override
+      public boolean reset(V vertex) {
+         DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
+         if (dcelVertex == null) {
+            throw new GraphArgumentException(DoublyConnectedEdgeList.this,
+               new NoSuchElementException("Vertex not found."));
+         }
+         start = dcelVertex.getLeaving();
+         current = start;
+         return start != null;
+      }
+
+      @Override
+      public void reset(V vertex, V target) {
+         start = getExistingHalfEdge(vertex, target);
+         current = start;
+      }
+
+      @Override
+      public V getSource() {
+         return current.getOrigin().getVertex();
+      }
+
+      @Override
+      public V getTarget() {
+         return current.getTwin().getOrigin().getVertex();
+      }
+
+      @Override
+      public boolean next() {
+         current = current.getTwin().getNext();
+         return current != start;
+      }
+
+      @Override
+      public boolean prev() {
+         current = current.getPrev().getTwin();
+         return current != start;
+      }
+   }
+
+   public boolean isHalfEdgeIndexed() {
+      return halfEdgeIndexed;
+   }
+
+   /**
+    * Enable a (source, target) to half-edge hash index, so that edge lookups
+    * such as containsEdge, getEdge and getNextVertex take constant time
+    * rather than time proportional to the degree of the source vertex.
+    * The index costs a hash map per vertex, so is disabled by default.
+    * @param halfEdgeIndexed
+    */
+   public void setHalfEdgeIndexed(boolean halfEdgeIndexed) {
+      this.halfEdgeIndexed = halfEdgeIndexed;
+      for (DcelVertex<V, E, F> dcelVertex : vertexMap.values()) {
+         dcelVertex.setHalfEdgeIndexed(halfEdgeIndexed);
+      }
+   }
+
    /**
     * A bit uncomfortable about this. Not sure if we should allow people to alter the
     * face factory after construction. The reason this was added was due to the conceptual
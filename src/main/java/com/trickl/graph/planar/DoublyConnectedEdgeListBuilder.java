@@ -0,0 +1,204 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.jgrapht.EdgeFactory;
+
+/**
+ * Builds a doubly connected edge list in bulk from a known embedding, given
+ * as the ordered neighbours of each vertex. Unlike repeated calls to addEdge,
+ * which search rotations and walk faces on every insertion, all the half-edge
+ * pointers are wired in a single linear pass.
+ *
+ * The neighbours of a vertex are listed in the same order as edgesOf returns
+ * them, so the embedding of an existing graph can be reproduced with
+ * a RotationCursor.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class DoublyConnectedEdgeListBuilder<V, E, F> {
+
+   private final EdgeFactory<V, E> edgeFactory;
+   private final FaceFactory<V, F> faceFactory;
+   private final Map<V, List<V>> embedding = new LinkedHashMap<V, List<V>>();
+   private DirectedEdge<V> boundary;
+
+   public DoublyConnectedEdgeListBuilder(EdgeFactory<V, E> edgeFactory, FaceFactory<V, F> faceFactory) {
+      this.edgeFactory = edgeFactory;
+      this.faceFactory = faceFactory;
+   }
+
+   /**
+    * @param vertex
+    * @param neighbours The adjacent vertices, in rotation order
+    * @return This builder
+    */
+   public DoublyConnectedEdgeListBuilder<V, E, F> addVertex(V vertex, List<V> neighbours) {
+      embedding.put(vertex, neighbours);
+      return this;
+   }
+
+   /**
+    * Set the edge whose face is the boundary face. If not set, the face with
+    * the most edges is taken to be the boundary.
+    * @param source
+    * @param target
+    * @return This builder
+    */
+   public DoublyConnectedEdgeListBuilder<V, E, F> setBoundary(V source, V target) {
+      this.boundary = new DirectedEdge<V>(source, target);
+      return this;
+   }
+
+   public DoublyConnectedEdgeList<V, E, F> build() {
+      DoublyConnectedEdgeList<V, E, F> dcel = new DoublyConnectedEdgeList<V, E, F>(edgeFactory, faceFactory);
+      Map<V, DcelVertex<V, E, F>> vertexMap = dcel.getVertexMap();
+      Map<E, DcelHalfEdge<V, E, F>> edgeMap = dcel.getEdgeMap();
+
+      for (V vertex : embedding.keySet()) {
+         vertexMap.put(vertex, new DcelVertex<V, E, F>(vertex));
+      }
+
+      // Create the half-edge pairs, each twin is awaited in the rotation of the target
+      List<DcelHalfEdge<V, E, F>> halfEdges = new ArrayList<DcelHalfEdge<V, E, F>>();
+      Map<DirectedEdge<V>, DcelHalfEdge<V, E, F>> awaitingTwins = new HashMap<DirectedEdge<V>, DcelHalfEdge<V, E, F>>();
+      DcelHalfEdge<V, E, F> boundaryEdge = null;
+      for (Map.Entry<V, List<V>> entry : embedding.entrySet()) {
+         V source = entry.getKey();
+         DcelVertex<V, E, F> dcelSource = vertexMap.get(source);
+         List<V> neighbours = entry.getValue();
+         if (neighbours.isEmpty()) {
+            continue;
+         }
+
+         DcelHalfEdge<V, E, F> first = null;
+         DcelHalfEdge<V, E, F> prior = null;
+         for (V target : neighbours) {
+            DcelHalfEdge<V, E, F> halfEdge = awaitingTwins.remove(new DirectedEdge<V>(source, target));
+            if (halfEdge == null) {
+               DcelVertex<V, E, F> dcelTarget = vertexMap.get(target);
+               if (dcelTarget == null) {
+                  throw new GraphArgumentException(dcel,
+                     new NoSuchElementException("Neighbour (" + target + ") of (" + source + ") has no rotation."));
+               }
+
+               E edge = edgeFactory.createEdge(source, target);
+               halfEdge = new DcelHalfEdge<V, E, F>(edge);
+               DcelHalfEdge<V, E, F> twin = new DcelHalfEdge<V, E, F>(edge);
+               halfEdge.setTwin(twin);
+               twin.setOrigin(dcelTarget);
+               awaitingTwins.put(new DirectedEdge<V>(target, source), twin);
+               edgeMap.put(edge, halfEdge);
+               halfEdges.add(halfEdge);
+               halfEdges.add(twin);
+            }
+            halfEdge.setOrigin(dcelSource);
+
+            if (boundary != null && boundaryEdge == null
+                    && source.equals(boundary.getSource()) && target.equals(boundary.getTarget())) {
+               boundaryEdge = halfEdge;
+            }
+
+            // The edge into this vertex continues out along the next edge in the rotation
+            if (prior == null) {
+               first = halfEdge;
+            } else {
+               prior.getTwin().setNext(halfEdge);
+            }
+            prior = halfEdge;
+         }
+         prior.getTwin().setNext(first);
+         dcelSource.setLeaving(first);
+      }
+
+      if (!awaitingTwins.isEmpty()) {
+         DirectedEdge<V> missing = awaitingTwins.keySet().iterator().next();
+         throw new GraphArgumentException(dcel,
+            new NoSuchElementException("Edge (" + missing.getSource() + ") to ("
+                    + missing.getTarget() + ") is missing from the rotation of "
+                    + missing.getSource()));
+      }
+      if (boundary != null && boundaryEdge == null) {
+         throw new GraphArgumentException(dcel,
+            new NoSuchElementException("Boundary edge not found."));
+      }
+
+      // Each cycle of next pointers is a face
+      Map<DcelHalfEdge<V, E, F>, Boolean> visited = new IdentityHashMap<DcelHalfEdge<V, E, F>, Boolean>();
+      List<DcelHalfEdge<V, E, F>> faceStarts = new ArrayList<DcelHalfEdge<V, E, F>>();
+      int boundaryIndex = -1;
+      int largestFaceSize = 0;
+      for (DcelHalfEdge<V, E, F> halfEdge : halfEdges) {
+         if (visited.containsKey(halfEdge)) {
+            continue;
+         }
+         int size = 0;
+         DcelHalfEdge<V, E, F> itr = halfEdge;
+         do {
+            visited.put(itr, Boolean.TRUE);
+            if (itr == boundaryEdge) {
+               boundaryIndex = faceStarts.size();
+            }
+            ++size;
+            itr = itr.getNext();
+         } while (itr != halfEdge);
+
+         if (boundary == null && size > largestFaceSize) {
+            largestFaceSize = size;
+            boundaryIndex = faceStarts.size();
+         }
+         faceStarts.add(halfEdge);
+      }
+
+      Map<F, DcelFace<V, E, F>> faceMap = dcel.getFaceMap();
+      for (int i = 0; i < faceStarts.size(); ++i) {
+         DcelHalfEdge<V, E, F> faceStart = faceStarts.get(i);
+         DcelFace<V, E, F> dcelFace;
+         if (i == boundaryIndex) {
+            dcelFace = faceMap.get(dcel.getBoundaryFace());
+         } else {
+            F face = faceFactory.createFace(faceStart.getOrigin().getVertex(),
+                    faceStart.getTwin().getOrigin().getVertex(), false);
+            dcelFace = new DcelFace<V, E, F>(face);
+            faceMap.put(face, dcelFace);
+         }
+
+         DcelHalfEdge<V, E, F> itr = faceStart;
+         do {
+            itr.setFace(dcelFace);
+            itr = itr.getNext();
+         } while (itr != faceStart);
+         dcelFace.setAdjacent(faceStart);
+      }
+
+      return dcel;
+   }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+/**
+ * A reusable position on a directed edge of a planar embedding, that steps
+ * around the face to the left of the edge without allocating.
+ * @param <V> Vertex type
+ */
+public interface FaceCursor<V> {
+
+   /**
+    * Position the cursor on an edge, which becomes the start of the face walk.
+    * @param source
+    * @param target
+    */
+   void reset(V source, V target);
+
+   V getSource();
+
+   V getTarget();
+
+   /**
+    * Step to the next edge around the face.
+    * @return false if the step returned to the start edge
+    */
+   boolean next();
+
+   /**
+    * Step to the previous edge around the face.
+    * @return false if the step returned to the start edge
+    */
+   boolean prev();
+
+   /**
+    * Move to the opposing edge, which becomes the start of the face walk.
+    */
+   void twin();
+
+   boolean isBoundary();
+}
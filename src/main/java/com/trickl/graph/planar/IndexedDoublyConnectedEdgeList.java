@@ -0,0 +1,1150 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import java.io.Serializable;
+import java.util.*;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.ClassBasedEdgeFactory;
+
+/**
+ * A doubly connected edge list where vertices, half-edges and faces are
+ * integer ids into parallel primitive arrays, rather than individual
+ * DcelVertex, DcelHalfEdge and DcelFace objects.
+ *
+ * The two half-edges of an edge are allocated as a pair, so the twin of
+ * half-edge h is always h ^ 1. The user vertex, edge and face objects are held
+ * in side tables indexed by the same ids. The embedding behaves identically
+ * to DoublyConnectedEdgeList, so the two can be used interchangeably.
+ *
+ * Ids of removed elements are recycled through free lists, so ids are stable
+ * for the lifetime of an element but may be reused afterwards.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class IndexedDoublyConnectedEdgeList<V, E, F>
+        implements PlanarFaceGraph<V, E, F>,
+        UndirectedGraph<V, E>,
+        Serializable {
+
+   public static final int NONE = -1;
+
+   private static final int DEFAULT_CAPACITY = 16;
+
+   private EdgeFactory<V, E> edgeFactory;
+   private FaceFactory<V, F> faceFactory;
+
+   // Vertex table, a free slot has null data and chains through leaving
+   private int[] vertexLeaving;
+   private Object[] vertexData;
+   private int vertexHighWater;
+   private int freeVertex = NONE;
+   private Map<V, Integer> vertexIds;
+
+   // Half-edge table, edge id e owns half-edges 2e and 2e + 1.
+   // A free pair has null data and chains through the next of its first half-edge.
+   private int[] halfEdgeNext;
+   private int[] halfEdgePrev;
+   private int[] halfEdgeOrigin;
+   private int[] halfEdgeFace;
+   private Object[] edgeData;
+   private int edgeHighWater;
+   private int freeEdge = NONE;
+   private Map<E, Integer> edgeIds;
+
+   // Face table, a free slot has null data and chains through adjacent
+   private int[] faceAdjacent;
+   private Object[] faceData;
+   private int faceHighWater;
+   private int freeFace = NONE;
+   private Map<F, Integer> faceIds;
+   private int boundaryFace = NONE;
+
+   private IndexedDoublyConnectedEdgeList() {
+   }
+
+   public IndexedDoublyConnectedEdgeList(PlanarGraph<V, E> graph, Class<? extends F> faceClass) {
+      this(graph, new ClassBasedFaceFactory<V, F>(faceClass));
+   }
+
+   public IndexedDoublyConnectedEdgeList(PlanarGraph<V, E> graph, FaceFactory<V, F> faceFactory) {
+      this(graph.getEdgeFactory(), faceFactory,
+           graph.vertexSet().size(), graph.edgeSet().size());
+      PlanarGraphs.copy(graph, this, null, null);
+   }
+
+   public IndexedDoublyConnectedEdgeList(Class<? extends E> edgeClass, Class<? extends F> faceClass) {
+      this(new ClassBasedEdgeFactory<V, E>(edgeClass), faceClass);
+   }
+
+   public IndexedDoublyConnectedEdgeList(EdgeFactory<V, E> edgeFactory, Class<? extends F> faceClass) {
+      this(edgeFactory, new ClassBasedFaceFactory<V, F>(faceClass));
+   }
+
+   public IndexedDoublyConnectedEdgeList(EdgeFactory<V, E> edgeFactory, FaceFactory<V, F> faceFactory) {
+      this(edgeFactory, faceFactory, DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Create an empty graph with storage presized for the expected number of
+    * vertices and edges, avoiding any reallocation while it is populated.
+    * @param edgeFactory
+    * @param faceFactory
+    * @param vertexCapacity The expected number of vertices
+    * @param edgeCapacity The expected number of (undirected) edges
+    */
+   public IndexedDoublyConnectedEdgeList(EdgeFactory<V, E> edgeFactory,
+           FaceFactory<V, F> faceFactory,
+           int vertexCapacity,
+           int edgeCapacity) {
+      this.edgeFactory = edgeFactory;
+      this.faceFactory = faceFactory;
+
+      vertexCapacity = Math.max(vertexCapacity, 1);
+      edgeCapacity = Math.max(edgeCapacity, 1);
+      // Euler's formula bounds the faces of a planar graph by E - V + 2
+      int faceCapacity = Math.max(edgeCapacity - vertexCapacity + 2, 1);
+
+      vertexLeaving = new int[vertexCapacity];
+      vertexData = new Object[vertexCapacity];
+      vertexIds = new LinkedHashMap<V, Integer>(vertexCapacity * 4 / 3 + 1);
+
+      halfEdgeNext = new int[edgeCapacity * 2];
+      halfEdgePrev = new int[edgeCapacity * 2];
+      halfEdgeOrigin = new int[edgeCapacity * 2];
+      halfEdgeFace = new int[edgeCapacity * 2];
+      edgeData = new Object[edgeCapacity];
+      edgeIds = new LinkedHashMap<E, Integer>(edgeCapacity * 4 / 3 + 1);
+
+      faceAdjacent = new int[faceCapacity];
+      faceData = new Object[faceCapacity];
+      faceIds = new LinkedHashMap<F, Integer>(faceCapacity * 4 / 3 + 1);
+
+      if (faceFactory != null) {
+         boundaryFace = allocateFace(faceFactory.createFace(null, null, true));
+      }
+   }
+
+   /**
+    * @param halfEdge A half-edge id
+    * @return The id of the opposing half-edge
+    */
+   public static int twin(int halfEdge) {
+      return halfEdge ^ 1;
+   }
+
+   /**
+    * @param halfEdge A half-edge id
+    * @return The id of the undirected edge owning the half-edge
+    */
+   public static int edgeOf(int halfEdge) {
+      return halfEdge >> 1;
+   }
+
+   public int getNext(int halfEdge) {
+      return halfEdgeNext[halfEdge];
+   }
+
+   public int getOrigin(int halfEdge) {
+      return halfEdgeOrigin[halfEdge];
+   }
+
+   public int getTarget(int halfEdge) {
+      return halfEdgeOrigin[halfEdge ^ 1];
+   }
+
+   public int getFaceId(int halfEdge) {
+      return halfEdgeFace[halfEdge];
+   }
+
+   public int getLeaving(int vertexId) {
+      return vertexLeaving[vertexId];
+   }
+
+   public int getAdjacent(int faceId) {
+      return faceAdjacent[faceId];
+   }
+
+   public int getBoundaryFaceId() {
+      return boundaryFace;
+   }
+
+   public int getVertexId(V vertex) {
+      Integer id = vertexIds.get(vertex);
+      return id == null ? NONE : id;
+   }
+
+   public int getEdgeId(E edge) {
+      Integer id = edgeIds.get(edge);
+      return id == null ? NONE : id;
+   }
+
+   public int getFaceId(F face) {
+      Integer id = faceIds.get(face);
+      return id == null ? NONE : id;
+   }
+
+   public V getVertex(int vertexId) {
+      return (V) vertexData[vertexId];
+   }
+
+   public E getEdge(int edgeId) {
+      return (E) edgeData[edgeId];
+   }
+
+   public F getFace(int faceId) {
+      return (F) faceData[faceId];
+   }
+
+   /**
+    * @return One more than the largest vertex id in use
+    */
+   public int getVertexIdBound() {
+      return vertexHighWater;
+   }
+
+   /**
+    * @return One more than the largest half-edge id in use
+    */
+   public int getHalfEdgeIdBound() {
+      return edgeHighWater * 2;
+   }
+
+   /**
+    * @return One more than the largest face id in use
+    */
+   public int getFaceIdBound() {
+      return faceHighWater;
+   }
+
+   /**
+    * @param halfEdge
+    * @return The previous half-edge around the face
+    */
+   public int getPrev(int halfEdge) {
+      return halfEdgePrev[halfEdge];
+   }
+
+   // Set the next half-edge, keeping the previous links in step
+   private void link(int halfEdge, int next) {
+      halfEdgeNext[halfEdge] = next;
+      halfEdgePrev[next] = halfEdge;
+   }
+
+   /**
+    * Find the half-edge from source to target by a search of the rotation
+    * about the source vertex.
+    * @param sourceId
+    * @param targetId
+    * @return The half-edge id or NONE if the vertices are not adjacent
+    */
+   public int getHalfEdge(int sourceId, int targetId) {
+      int start = vertexLeaving[sourceId];
+      if (start == NONE) {
+         return NONE;
+      }
+      int out = start;
+      do {
+         if (halfEdgeOrigin[out ^ 1] == targetId) {
+            return out;
+         }
+         out = halfEdgeNext[out ^ 1];
+      } while (out != start);
+      return NONE;
+   }
+
+   protected int getHalfEdge(final V source, final V target) {
+      Integer sourceId = vertexIds.get(source);
+      Integer targetId = vertexIds.get(target);
+      if (sourceId == null || targetId == null) {
+         return NONE;
+      }
+
+      return getHalfEdge((int) sourceId, (int) targetId);
+   }
+
+   @Override
+   public EdgeFactory<V, E> getEdgeFactory() {
+      return edgeFactory;
+   }
+
+   @Override
+   public boolean containsEdge(final V source, final V target) {
+      return getHalfEdge(source, target) != NONE;
+   }
+
+   @Override
+   public boolean containsVertex(V vertex) {
+      return vertexIds.containsKey(vertex);
+   }
+
+   @Override
+   public Set<E> edgesOf(V vertex) {
+      Integer vertexId = vertexIds.get(vertex);
+      if (vertexId == null) {
+         return new HashSet<E>();
+      }
+
+      int start = vertexLeaving[vertexId];
+      if (start == NONE) {
+         return new LinkedHashSet<E>();
+      }
+
+      final Set<E> edges = new LinkedHashSet<E>();
+      int out = start;
+      do {
+         E edge = (E) edgeData[out >> 1];
+         if (edge != null) {
+            edges.add(edge);
+         }
+         out = halfEdgeNext[out ^ 1];
+      } while (out != start);
+      return edges;
+   }
+
+   @Override
+   public int degreeOf(V vertex) {
+      Integer vertexId = vertexIds.get(vertex);
+      if (vertexId == null) {
+          throw new GraphArgumentException(this,
+              new NoSuchElementException("Vertex not found."));
+      }
+
+      int start = vertexLeaving[vertexId];
+      if (start == NONE) {
+         return 0;
+      }
+      int degree = 0;
+      int out = start;
+      do {
+         ++degree;
+         out = halfEdgeNext[out ^ 1];
+      } while (out != start);
+      return degree;
+   }
+
+   @Override
+   public Set<E> getAllEdges(V source, V target) {
+      HashSet<E> edges = new HashSet<E>();
+      E edge = getEdge(source, target);
+      if (edge != null) {
+         edges.add(edge);
+      }
+      return edges;
+   }
+
+   @Override
+   public E getEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+      return (E) edgeData[halfEdge >> 1];
+   }
+
+   @Override
+   public boolean containsEdge(E edge) {
+      return edgeIds.containsKey(edge);
+   }
+
+   @Override
+   public Set<E> edgeSet() {
+      return edgeIds.keySet();
+   }
+
+   @Override
+   public Set<V> vertexSet() {
+      return vertexIds.keySet();
+   }
+
+   @Override
+   public Set<F> faceSet() {
+      return faceIds.keySet();
+   }
+
+   @Override
+   public V getEdgeSource(E edge) {
+      Integer edgeId = edgeIds.get(edge);
+      if (edgeId == null) {
+          throw new GraphArgumentException(this,
+          new NoSuchElementException("Edge not found."));
+      }
+      return (V) vertexData[halfEdgeOrigin[edgeId << 1]];
+   }
+
+   @Override
+   public V getEdgeTarget(E edge) {
+      Integer edgeId = edgeIds.get(edge);
+      if (edgeId == null) {
+          throw new GraphArgumentException(this,
+            new NoSuchElementException("Edge not found."));
+      }
+      return (V) vertexData[halfEdgeOrigin[(edgeId << 1) ^ 1]];
+   }
+
+   @Override
+   public double getEdgeWeight(E e) {
+      return 1.0;
+   }
+
+   @Override
+   public DirectedEdge<V> getBoundary() {
+      int adjacent = boundaryFace == NONE ? NONE : faceAdjacent[boundaryFace];
+      if (adjacent == NONE) {
+         // Graph contains zero edges
+         if (vertexIds.isEmpty()) {
+            return new DirectedEdge<V>(null, null);
+         }
+         else {
+            return new DirectedEdge<V>(vertexIds.keySet().iterator().next(), null);
+         }
+      }
+      return new DirectedEdge<V>((V) vertexData[halfEdgeOrigin[adjacent]],
+                                 (V) vertexData[halfEdgeOrigin[adjacent ^ 1]]);
+   }
+
+   private int getBoundaryHalfEdge(V vertex) {
+      Integer vertexId = vertexIds.get(vertex);
+      int start = boundaryFace == NONE ? NONE : faceAdjacent[boundaryFace];
+      if (vertexId != null && start != NONE) {
+         int halfEdge = start;
+         do {
+            if (halfEdgeOrigin[halfEdge] == vertexId) {
+               return halfEdge;
+            }
+            halfEdge = halfEdgeNext[halfEdge];
+         } while (halfEdge != start);
+      }
+
+      throw new GraphArgumentException(this,
+             new NoSuchElementException("Vertex not found on boundary."));
+   }
+
+   public V getNextVertexOnBoundary(V vertex) {
+      int halfEdge = getBoundaryHalfEdge(vertex);
+      return (V) vertexData[halfEdgeOrigin[halfEdge ^ 1]];
+   }
+
+   public V getPrevVertexOnBoundary(V vertex) {
+      int halfEdge = getBoundaryHalfEdge(vertex);
+      return (V) vertexData[halfEdgeOrigin[getPrev(halfEdge)]];
+   }
+
+   @Override
+   public V getNextVertex(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+          throw new GraphArgumentException(this,
+           new NoSuchElementException("Edge not found."));
+      }
+      return (V) vertexData[halfEdgeOrigin[halfEdgeNext[halfEdge] ^ 1]];
+   }
+
+   @Override
+   public V getPrevVertex(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+          throw new GraphArgumentException(this,
+             new NoSuchElementException("Edge not found."));
+      }
+      return (V) vertexData[halfEdgeOrigin[getPrev(halfEdge)]];
+   }
+
+   @Override
+   public boolean isBoundary(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+          throw new GraphArgumentException(this,
+             new NoSuchElementException("Edge not found."));
+      }
+      return halfEdgeFace[halfEdge] == boundaryFace;
+   }
+
+   public boolean isVertexBoundary(V vertex) {
+      Integer vertexId = vertexIds.get(vertex);
+      if (vertexId == null) {
+          throw new GraphArgumentException(this,
+             new NoSuchElementException("Vertex not found."));
+      }
+
+      int start = vertexLeaving[vertexId];
+      if (start == NONE) {
+         return false;
+      }
+      int out = start;
+      do {
+         if (halfEdgeFace[out] == boundaryFace) {
+            return true;
+         }
+         out = halfEdgeNext[out ^ 1];
+      } while (out != start);
+      return false;
+   }
+
+   @Override
+   public F getFace(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+      return (F) faceData[halfEdgeFace[halfEdge]];
+   }
+
+   @Override
+   public E addEdge(V source, V target) {
+      return addEdge(source, target, (V) null, (V) null);
+   }
+
+   @Override
+   public boolean addEdge(V source, V target, E edge) {
+      return addEdge(source, target, null, null, edge);
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex) {
+      E edge = edgeFactory.createEdge(sourceVertex, targetVertex);
+      addEdge(sourceVertex, targetVertex, beforeVertex, afterVertex, edge);
+      return edge;
+   }
+
+   /**
+    * An an edge to the DCEL.
+    * Note that the DCEL is undirected, so this will add two half-edges and
+    * attempt to do so in a way that leaves the DCEL in a safe-traversable state.
+    * @param sourceVertex
+    * @param targetVertex
+    * @param beforeVertex
+    * @param afterVertex
+    * @param e
+    * @return
+    */
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex, E e) {
+
+      if (containsEdge(sourceVertex, targetVertex)) {
+         return false;
+      }
+
+      if (edgeIds.containsKey(e)) {
+          throw new GraphArgumentException(this,
+                  new IllegalArgumentException("Cannot redefine an existing edge as " + e.toString()));
+      }
+
+      addVertex(sourceVertex);
+      addVertex(targetVertex);
+
+      int source = vertexIds.get(sourceVertex);
+      int target = vertexIds.get(targetVertex);
+      int beforeEdge = NONE;
+      if (beforeVertex != null) {
+         Integer before = vertexIds.get(beforeVertex);
+         if (before != null) {
+            beforeEdge = getHalfEdge((int) before, source);
+         }
+         if (beforeEdge == NONE) {
+             throw new GraphArgumentException(this,
+             new NoSuchElementException("Before ("
+                                             + beforeVertex.toString()
+                                             + ") to ("
+                                             + sourceVertex.toString()
+                                             + ") source edge not found"));
+         }
+      }
+
+      int afterEdge = NONE;
+      if (afterVertex != null) {
+         Integer after = vertexIds.get(afterVertex);
+         if (after != null) {
+            afterEdge = getHalfEdge(target, (int) after);
+         }
+         if (afterEdge == NONE) {
+            throw new GraphArgumentException(this,
+                    new NoSuchElementException("Target ("
+                                             + targetVertex.toString()
+                                             + ") to ("
+                                             + afterVertex.toString()
+                                             + ") after edge not found"));
+         }
+
+         if (beforeEdge != NONE
+          && halfEdgeFace[beforeEdge] != halfEdgeFace[afterEdge]) {
+            throw new GraphArgumentException(this,
+                    new NoSuchElementException("Before ("
+                                             + beforeVertex.toString()
+                                             + ") and ("
+                                             + afterVertex.toString()
+                                             + ") after edges must share a face"));
+         }
+      }
+
+      addHalfEdges(source, target, beforeEdge, afterEdge, e);
+
+      return true;
+   }
+
+   // beforeEdge -> newEdge -> afterEdge
+   private int addHalfEdges(int source, int target, int beforeEdge, int afterEdge, E e) {
+
+      if (vertexLeaving[source] != NONE
+          && beforeEdge == NONE) {
+         // Source has edges, set the before edge
+         beforeEdge = vertexLeaving[source] ^ 1;
+      }
+
+      if (vertexLeaving[target] != NONE
+          && afterEdge == NONE) {
+         // Target has edges, set the after edge
+         if (beforeEdge == NONE) {
+            afterEdge = vertexLeaving[target];
+         }
+         else {
+            int start = vertexLeaving[target];
+            int out = start;
+            do {
+               if (halfEdgeFace[out] == halfEdgeFace[beforeEdge]) {
+                  afterEdge = out;
+                  break;
+               }
+               out = halfEdgeNext[out ^ 1];
+            } while (out != start);
+
+            if (afterEdge == NONE) {
+               // Must maintain planarity
+                throw new NoSuchElementException("Target, source and before must share a face.");
+            }
+         }
+      }
+
+      // Check if a closed face is formed by the addition of this edge
+      // i.e. is after edge already connected to before edge?
+      boolean closesFace = false;
+      if (afterEdge != NONE) {
+         int halfEdge = afterEdge;
+         do {
+            if (halfEdge == beforeEdge) {
+               closesFace = true;
+               break;
+            }
+            halfEdge = halfEdgeNext[halfEdge];
+         } while (halfEdge != afterEdge);
+      }
+      F createdFace = null;
+      if (closesFace) {
+         createdFace = faceFactory.createFace((V) vertexData[source],
+                 (V) vertexData[target],
+                 false);
+      }
+
+      /* Everything seems okay, we should be able to create this edge */
+      int createdEdge = allocateEdge(e);
+      int createdTwin = createdEdge ^ 1;
+
+      // Find the predecessor of the after edge before any links are changed
+      int afterPrevEdge = afterEdge == NONE ? NONE : halfEdgePrev[afterEdge];
+
+      // Set the edge next pointers
+      if (beforeEdge == NONE) {
+         link(createdTwin, createdEdge);
+      } else {
+         link(createdTwin, halfEdgeNext[beforeEdge]);
+         link(beforeEdge, createdEdge);
+      }
+
+      if (afterEdge == NONE) {
+         link(createdEdge, createdTwin);
+      } else {
+         link(createdEdge, afterEdge);
+         link(afterPrevEdge, createdTwin);
+      }
+
+      // Set the edge faces
+      if (beforeEdge == NONE && afterEdge == NONE) {
+         halfEdgeFace[createdEdge] = boundaryFace;
+         halfEdgeFace[createdTwin] = boundaryFace;
+         faceAdjacent[boundaryFace] = createdTwin;
+      } else if (beforeEdge == NONE) {
+         int face = halfEdgeFace[afterEdge];
+         halfEdgeFace[createdEdge] = face;
+         halfEdgeFace[createdTwin] = face;
+         faceAdjacent[face] = createdTwin;
+      } else if (afterEdge == NONE) {
+         int face = halfEdgeFace[beforeEdge];
+         halfEdgeFace[createdEdge] = face;
+         halfEdgeFace[createdTwin] = face;
+         faceAdjacent[face] = createdTwin;
+      } else {
+         int twinFace = halfEdgeFace[halfEdgeNext[createdEdge]];
+         halfEdgeFace[createdTwin] = twinFace;
+         faceAdjacent[twinFace] = createdTwin;
+         if (closesFace) {
+            // By convention, the before -> edge -> after all belong to the new face
+            // if one is formed
+            int face = allocateFace(createdFace);
+            int halfEdge = createdEdge;
+            do {
+               halfEdgeFace[halfEdge] = face;
+               faceAdjacent[face] = halfEdge;
+               halfEdge = halfEdgeNext[halfEdge];
+            } while (halfEdge != createdEdge);
+         }
+         else {
+            int face = halfEdgeFace[halfEdgeNext[createdTwin]];
+            halfEdgeFace[createdEdge] = face;
+            faceAdjacent[face] = createdEdge;
+         }
+      }
+
+      // The vertices leaving edges point to the most recently created edge.
+      // This is the behaviour we want when for when we don't specify the
+      // before edge.
+      halfEdgeOrigin[createdEdge] = source;
+      vertexLeaving[source] = createdEdge;
+      halfEdgeOrigin[createdTwin] = target;
+      vertexLeaving[target] = createdTwin;
+
+      return createdEdge;
+   }
+
+   @Override
+   public boolean addVertex(V vertex) {
+      if (!vertexIds.containsKey(vertex)) {
+         allocateVertex(vertex);
+         return true;
+      }
+      return false;
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends E> edges) {
+      boolean changed = false;
+      for (E edge : edges) {
+         changed |= removeEdge(edge);
+      }
+      return changed;
+   }
+
+   @Override
+   public Set<E> removeAllEdges(V source, V target) {
+      Set<E> edges = getAllEdges(source, target);
+      removeAllEdges(edges);
+      return edges;
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends V> vertices) {
+      boolean changed = false;
+      for (V vertex : vertices) {
+         changed |= removeVertex(vertex);
+      }
+      return changed;
+   }
+
+   @Override
+   public E removeEdge(V source, V target) {
+      E edge = getEdge(source, target);
+      if (edge != null) {
+         removeEdge(edge);
+      }
+
+      return edge;
+   }
+
+   @Override
+   public boolean removeEdge(E edge) {
+      Integer edgeId = edgeIds.get(edge);
+      if (edgeId == null) {
+         return false;
+      }
+
+      int halfEdge = edgeId << 1;
+      int source = halfEdgeOrigin[halfEdge];
+      int target = halfEdgeOrigin[halfEdge ^ 1];
+      int face = halfEdgeFace[halfEdge];
+      int opposingFace = halfEdgeFace[halfEdge ^ 1];
+
+      if (face == boundaryFace) {
+         // Maintain the same boundary face
+         removeHalfEdges(halfEdge ^ 1);
+      }
+      else {
+         removeHalfEdges(halfEdge);
+      }
+      edgeIds.remove(edge);
+      releaseEdge(edgeId);
+
+      // Remove any disconnected vertices
+      if (vertexLeaving[source] == NONE) {
+         releaseVertex(source);
+      }
+      if (target != source && vertexLeaving[target] == NONE) {
+         releaseVertex(target);
+      }
+
+      // Remove any disconnected faces
+      if (faceAdjacent[face] == NONE
+          && face != boundaryFace) {
+         releaseFace(face);
+      }
+
+      if (opposingFace != face
+         && faceAdjacent[opposingFace] == NONE
+         && opposingFace != boundaryFace) {
+         releaseFace(opposingFace);
+      }
+
+      return true;
+   }
+
+   private void removeHalfEdges(int halfEdge) {
+      int twin = halfEdge ^ 1;
+
+      // Check if this edge separates two distinct faces
+      if (halfEdgeFace[halfEdge] != halfEdgeFace[twin]) {
+         // Remove the redundant face, merging the faces
+         int removedFace = halfEdgeFace[halfEdge];
+         int mergedFace = halfEdgeFace[twin];
+         if (removedFace == boundaryFace) {
+            boundaryFace = mergedFace;
+         }
+         faceAdjacent[removedFace] = NONE;
+
+         int itr = halfEdge;
+         do {
+            // Repoint edges to the conjoined face
+            halfEdgeFace[itr] = mergedFace;
+            faceAdjacent[mergedFace] = itr;
+            itr = halfEdgeNext[itr];
+         } while (itr != halfEdge);
+      } else if (faceAdjacent[halfEdgeFace[halfEdge]] == halfEdge) {
+         // Hanging edge, ensure the face no longer references the removed edge
+         faceAdjacent[halfEdgeFace[halfEdge]] = halfEdgeNext[halfEdgeNext[halfEdge]];
+      }
+
+      // Reassign faces and vertices if necessary so they don't reference the deleted edge
+      if (faceAdjacent[halfEdgeFace[twin]] == twin) {
+         // Note we set to next->next in case next = twin.
+         faceAdjacent[halfEdgeFace[twin]] = halfEdgeNext[halfEdgeNext[twin]];
+      }
+
+      int origin = halfEdgeOrigin[halfEdge];
+      int twinOrigin = halfEdgeOrigin[twin];
+      if (vertexLeaving[twinOrigin] == twin) {
+         vertexLeaving[twinOrigin] = halfEdgeNext[halfEdge];
+      }
+      if (vertexLeaving[origin] == halfEdge) {
+         vertexLeaving[origin] = halfEdgeNext[twin];
+      }
+
+      // Handle disconnected vertices and faces
+      if (vertexLeaving[twinOrigin] == twin) {
+         vertexLeaving[twinOrigin] = NONE;
+      }
+      if (vertexLeaving[origin] == halfEdge) {
+         vertexLeaving[origin] = NONE;
+      }
+
+      if (faceAdjacent[halfEdgeFace[halfEdge]] == halfEdge) {
+         faceAdjacent[halfEdgeFace[halfEdge]] = NONE;
+      }
+      if (faceAdjacent[halfEdgeFace[twin]] == twin) {
+         faceAdjacent[halfEdgeFace[twin]] = NONE;
+      }
+
+      // Reassign previous edges
+      link(halfEdgePrev[halfEdge], halfEdgeNext[twin]);
+      link(halfEdgePrev[twin], halfEdgeNext[halfEdge]);
+   }
+
+   @Override
+   public boolean removeVertex(V vertex) {
+      Integer vertexId = vertexIds.get(vertex);
+      if (vertexId == null) {
+         return false;
+      }
+
+      // Get a copy of the edges as the iterator will be invalidated
+      for (E edge : edgesOf(vertex)) {
+         removeEdge(edge);
+      }
+
+      if (vertexIds.containsKey(vertex)) {
+         releaseVertex(vertexId);
+      }
+
+      return true;
+   }
+
+   @Override
+   public void setBoundary(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new NoSuchElementException("Edge not found.");
+      }
+
+      boundaryFace = halfEdgeFace[halfEdge];
+   }
+
+   @Override
+   public DirectedEdge<V> getAdjacentEdge(F face) {
+      Integer faceId = faceIds.get(face);
+      if (faceId == null) {
+         throw new NoSuchElementException("Face not found.");
+      }
+
+      int adjacent = faceAdjacent[faceId];
+      V source = (V) vertexData[halfEdgeOrigin[adjacent]];
+      V target = (V) vertexData[halfEdgeOrigin[adjacent ^ 1]];
+
+      return new DirectedEdge<V>(source, target);
+   }
+
+   @Override
+   public boolean replaceFace(F oldFace, F newFace) {
+      Integer faceId = faceIds.remove(oldFace);
+      if (faceId == null) {
+         return false;
+      }
+      faceIds.put(newFace, faceId);
+      faceData[faceId] = newFace;
+
+      return true;
+   }
+
+   public void setFaceFactory(FaceFactory<V, F> faceFactory) {
+      this.faceFactory = faceFactory;
+   }
+
+   @Override
+   public FaceFactory<V, F> getFaceFactory() {
+      return faceFactory;
+   }
+
+   public F getBoundaryFace() {
+      return boundaryFace == NONE ? null : (F) faceData[boundaryFace];
+   }
+
+   /**
+    * @return A cursor for walking the faces of this graph without allocation
+    */
+   public FaceCursor<V> faceCursor() {
+      return new IndexedFaceCursor();
+   }
+
+   /**
+    * @return A cursor for walking the edges about a vertex without allocation
+    */
+   public RotationCursor<V> rotationCursor() {
+      return new IndexedRotationCursor();
+   }
+
+   private int getExistingHalfEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+            new NoSuchElementException("Edge not found."));
+      }
+      return halfEdge;
+   }
+
+   private class IndexedFaceCursor implements FaceCursor<V> {
+
+      private int start = NONE;
+      private int current = NONE;
+
+      @Override
+      public void reset(V source, V target) {
+         start = getExistingHalfEdge(source, target);
+         current = start;
+      }
+
+      @Override
+      public V getSource() {
+         return (V) vertexData[halfEdgeOrigin[current]];
+      }
+
+      @Override
+      public V getTarget() {
+         return (V) vertexData[halfEdgeOrigin[current ^ 1]];
+      }
+
+      @Override
+      public boolean next() {
+         current = halfEdgeNext[current];
+         return current != start;
+      }
+
+      @Override
+      public boolean prev() {
+         current = getPrev(current);
+         return current != start;
+      }
+
+      @Override
+      public void twin() {
+         current ^= 1;
+         start = current;
+      }
+
+      @Override
+      public boolean isBoundary() {
+         return halfEdgeFace[current] == boundaryFace;
+      }
+   }
+
+   private class IndexedRotationCursor implements RotationCursor<V> {
+
+      private int start = NONE;
+      private int current = NONE;
+
+      @Override
+      public boolean reset(V vertex) {
+         Integer vertexId = vertexIds.get(vertex);
+         if (vertexId == null) {
+            throw new GraphArgumentException(IndexedDoublyConnectedEdgeList.this,
+               new NoSuchElementException("Vertex not found."));
+         }
+         start = vertexLeaving[vertexId];
+         current = start;
+         return start != NONE;
+      }
+
+      @Override
+      public void reset(V vertex, V target) {
+         start = getExistingHalfEdge(vertex, target);
+         current = start;
+      }
+
+      @Override
+      public V getSource() {
+         return (V) vertexData[halfEdgeOrigin[current]];
+      }
+
+      @Override
+      public V getTarget() {
+         return (V) vertexData[halfEdgeOrigin[current ^ 1]];
+      }
+
+      @Override
+      public boolean next() {
+         current = halfEdgeNext[current ^ 1];
+         return current != start;
+      }
+
+      @Override
+      public boolean prev() {
+         current = getPrev(current) ^ 1;
+         return current != start;
+      }
+   }
+
+   private int allocateVertex(V vertex) {
+      int id;
+      if (freeVertex != NONE) {
+         id = freeVertex;
+         freeVertex = vertexLeaving[id];
+      } else {
+         if (vertexHighWater == vertexData.length) {
+            int capacity = vertexData.length * 2;
+            vertexLeaving = Arrays.copyOf(vertexLeaving, capacity);
+            vertexData = Arrays.copyOf(vertexData, capacity);
+         }
+         id = vertexHighWater++;
+      }
+      vertexLeaving[id] = NONE;
+      vertexData[id] = vertex;
+      vertexIds.put(vertex, id);
+      return id;
+   }
+
+   private void releaseVertex(int id) {
+      vertexIds.remove((V) vertexData[id]);
+      vertexData[id] = null;
+      vertexLeaving[id] = freeVertex;
+      freeVertex = id;
+   }
+
+   private int allocateEdge(E edge) {
+      int id;
+      if (freeEdge != NONE) {
+         id = freeEdge;
+         freeEdge = halfEdgeNext[id << 1];
+      } else {
+         if (edgeHighWater == edgeData.length) {
+            int capacity = edgeData.length * 2;
+            halfEdgeNext = Arrays.copyOf(halfEdgeNext, capacity * 2);
+            halfEdgePrev = Arrays.copyOf(halfEdgePrev, capacity * 2);
+            halfEdgeOrigin = Arrays.copyOf(halfEdgeOrigin, capacity * 2);
+            halfEdgeFace = Arrays.copyOf(halfEdgeFace, capacity * 2);
+            edgeData = Arrays.copyOf(edgeData, capacity);
+         }
+         id = edgeHighWater++;
+      }
+      edgeData[id] = edge;
+      edgeIds.put(edge, id);
+      return id << 1;
+   }
+
+   private void releaseEdge(int id) {
+      int halfEdge = id << 1;
+      edgeData[id] = null;
+      halfEdgeOrigin[halfEdge] = NONE;
+      halfEdgeOrigin[halfEdge ^ 1] = NONE;
+      halfEdgeFace[halfEdge] = NONE;
+      halfEdgeFace[halfEdge ^ 1] = NONE;
+      halfEdgeNext[halfEdge ^ 1] = NONE;
+      halfEdgePrev[halfEdge] = NONE;
+      halfEdgePrev[halfEdge ^ 1] = NONE;
+      halfEdgeNext[halfEdge] = freeEdge;
+      freeEdge = id;
+   }
+
+   private int allocateFace(F face) {
+      int id;
+      if (freeFace != NONE) {
+         id = freeFace;
+         freeFace = faceAdjacent[id];
+      } else {
+         if (faceHighWater == faceData.length) {
+            int capacity = faceData.length * 2;
+            faceAdjacent = Arrays.copyOf(faceAdjacent, capacity);
+            faceData = Arrays.copyOf(faceData, capacity);
+         }
+         id = faceHighWater++;
+      }
+      faceAdjacent[id] = NONE;
+      faceData[id] = face;
+      if (face != null) {
+         faceIds.put(face, id);
+      }
+      return id;
+   }
+
+   private void releaseFace(int id) {
+      faceIds.remove((F) faceData[id]);
+      faceData[id] = null;
+      faceAdjacent[id] = freeFace;
+      freeFace = id;
+   }
+}
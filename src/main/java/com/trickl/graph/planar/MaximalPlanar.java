@@ -21,9 +21,9 @@
 package com.trickl.graph.planar;
 
 import com.trickl.graph.edges.UndirectedEdge;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -41,7 +41,8 @@ public class MaximalPlanar<V, E> {
       }
             
       private final Map<V, Detail<V>> vertexDetails;      
-      private final LinkedList<V> verticesOnFace;
+      private final ArrayList<V> verticesOnFace;
+      private final RotationCursor<V> rotation;
       private int timestamp = 0;
       private final PlanarGraph<V, E> graph;
       private final boolean addEdges;
@@ -53,12 +54,13 @@ public class MaximalPlanar<V, E> {
          this.addEdges = addEdges;
          this.checkInteriorOnly = checkInteriorOnly;
          this.vertexDetails = new HashMap<>();
-         this.verticesOnFace = new LinkedList<>();
+         this.verticesOnFace = new ArrayList<>();
+         this.rotation = PlanarGraphs.rotationCursor(graph);
          this.missingEdges = new HashSet<>();
 
          graph.vertexSet().stream().forEach((vertex) -> {
              Detail<V> detail = new Detail<>();
-             detail.degreeSize = graph.edgesOf(vertex).size();
+             detail.degreeSize = com.trickl.graph.Graphs.degreeOf(graph, vertex);
              vertexDetails.put(vertex, detail);
           });
       }
@@ -66,8 +68,8 @@ public class MaximalPlanar<V, E> {
       @Override
       public void nextVertex(V vertex) {
          if (!verticesOnFace.isEmpty() &&
-                (verticesOnFace.getFirst().equals(vertex) ||
-                 verticesOnFace.getLast().equals(vertex))) return;
+                (verticesOnFace.get(0).equals(vertex) ||
+                 verticesOnFace.get(verticesOnFace.size() - 1).equals(vertex))) return;
 
          verticesOnFace.add(vertex);
       }
@@ -102,12 +104,10 @@ public class MaximalPlanar<V, E> {
          Collections.rotate(verticesOnFace, -verticesOnFace.indexOf(minDegreeVertex));
 
          // Mark all of the min degree vertex's neighbours
-         for (E edge : graph.edgesOf(minDegreeVertex)) {
-            V vertex = graph.getEdgeSource(edge).equals(minDegreeVertex) ?
-                          graph.getEdgeTarget(edge) :
-                          graph.getEdgeSource(edge);
-
-            vertexDetails.get(vertex).marked = timestamp;
+         if (rotation.reset(minDegreeVertex)) {
+            do {
+               vertexDetails.get(rotation.getTarget()).marked = timestamp;
+            } while (rotation.next());
          }
 
          // The iterator manipulations on the next two lines are safe because
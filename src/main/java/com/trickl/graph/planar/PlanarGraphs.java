@@ -23,6 +23,8 @@ package com.trickl.graph.planar;
 import com.trickl.graph.CopyEdgeFactory;
 import com.trickl.graph.CopyVertexFactory;
 import com.trickl.graph.EdgeVisitor;
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.ParallelBreadthFirstSearch;
 import com.trickl.graph.edges.DirectedEdge;
 import com.vividsolutions.jts.algorithm.Angle;
 import com.vividsolutions.jts.geom.Coordinate;
@@ -45,25 +47,18 @@ public final class PlanarGraphs {
    }
 
    static public <V, E> void boundaryHops(PlanarGraph<V, E> graph, Map<V, Integer> hops) {
-      Set<E> boundary = getBoundaryEdges(graph);
-      boundary.stream().map((edge) -> {
-          hops.put(graph.getEdgeSource(edge), 0);
-           return edge;
-       }).forEach((edge) -> {
-           hops.put(graph.getEdgeTarget(edge), 0);
-       });
-
-      Queue<V> vertexQueue = new LinkedList<>();
-      vertexQueue.addAll(hops.keySet());
-
-      while (!vertexQueue.isEmpty()) {
-         V vertex = vertexQueue.poll();
-         getConnectedVertices(graph, vertex).stream().filter((neighbour) -> (!hops.containsKey(neighbour))).map((neighbour) -> {
-             hops.put(neighbour, hops.get(vertex) + 1);
-              return neighbour;
-          }).forEach((neighbour) -> {
-              vertexQueue.add(neighbour);
-          });
+      Set<V> sources = new LinkedHashSet<>();
+      getBoundaryEdges(graph).forEach((edge) -> {
+         sources.add(graph.getEdgeSource(edge));
+         sources.add(graph.getEdgeTarget(edge));
+      });
+
+      ParallelBreadthFirstSearch<V, E> breadthFirstSearch = new ParallelBreadthFirstSearch<>(graph);
+      int[] hopCounts = breadthFirstSearch.getHopCounts(sources);
+      for (int i = 0; i < hopCounts.length; ++i) {
+         if (hopCounts[i] >= 0) {
+            hops.put(breadthFirstSearch.getGraph().getVertex(i), hopCounts[i]);
+         }
       }
    }
 
@@ -228,6 +223,162 @@ public final class PlanarGraphs {
         PlanarGraphs.triangulateFace(graph, boundary.get(0), boundary.get(1), addEdgeVisitor);
     }
 
+   /**
+    * A reusable cursor for walking the faces of a graph. Doubly connected edge
+    * lists supply their own, which step without allocation or lookups.
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @return A face cursor
+    */
+   static public <V, E> FaceCursor<V> faceCursor(PlanarGraph<V, E> graph) {
+      if (graph instanceof DoublyConnectedEdgeList) {
+         return ((DoublyConnectedEdgeList<V, E, ?>) graph).faceCursor();
+      }
+      else if (graph instanceof IndexedDoublyConnectedEdgeList) {
+         return ((IndexedDoublyConnectedEdgeList<V, E, ?>) graph).faceCursor();
+      }
+      return new EmbeddingFaceCursor<>(graph);
+   }
+
+   /**
+    * A reusable cursor for walking the edges about a vertex. Doubly connected
+    * edge lists supply their own, which step without allocation or lookups.
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @return A rotation cursor
+    */
+   static public <V, E> RotationCursor<V> rotationCursor(PlanarGraph<V, E> graph) {
+      if (graph instanceof DoublyConnectedEdgeList) {
+         return ((DoublyConnectedEdgeList<V, E, ?>) graph).rotationCursor();
+      }
+      else if (graph instanceof IndexedDoublyConnectedEdgeList) {
+         return ((IndexedDoublyConnectedEdgeList<V, E, ?>) graph).rotationCursor();
+      }
+      return new EmbeddingRotationCursor<>(graph);
+   }
+
+   private static class EmbeddingFaceCursor<V, E> implements FaceCursor<V> {
+
+      private final PlanarGraph<V, E> graph;
+      private V startSource;
+      private V startTarget;
+      private V source;
+      private V target;
+
+      EmbeddingFaceCursor(PlanarGraph<V, E> graph) {
+         this.graph = graph;
+      }
+
+      @Override
+      public void reset(V source, V target) {
+         if (!graph.containsEdge(source, target)) {
+            throw new GraphArgumentException(graph,
+               new NoSuchElementException("Edge not found."));
+         }
+         this.startSource = source;
+         this.startTarget = target;
+         this.source = source;
+         this.target = target;
+      }
+
+      @Override
+      public V getSource() {
+         return source;
+      }
+
+      @Override
+      public V getTarget() {
+         return target;
+      }
+
+      @Override
+      public boolean next() {
+         V nextTarget = graph.getNextVertex(source, target);
+         source = target;
+         target = nextTarget;
+         return !isAtStart();
+      }
+
+      @Override
+      public boolean prev() {
+         V prevSource = graph.getPrevVertex(source, target);
+         target = source;
+         source = prevSource;
+         return !isAtStart();
+      }
+
+      @Override
+      public void twin() {
+         reset(target, source);
+      }
+
+      @Override
+      public boolean isBoundary() {
+         return graph.isBoundary(source, target);
+      }
+
+      private boolean isAtStart() {
+         return source.equals(startSource) && target.equals(startTarget);
+      }
+   }
+
+   private static class EmbeddingRotationCursor<V, E> implements RotationCursor<V> {
+
+      private final PlanarGraph<V, E> graph;
+      private V source;
+      private V startTarget;
+      private V target;
+
+      EmbeddingRotationCursor(PlanarGraph<V, E> graph) {
+         this.graph = graph;
+      }
+
+      @Override
+      public boolean reset(V vertex) {
+         Iterator<E> edges = graph.edgesOf(vertex).iterator();
+         if (!edges.hasNext()) {
+            return false;
+         }
+         reset(vertex, Graphs.getOppositeVertex(graph, edges.next(), vertex));
+         return true;
+      }
+
+      @Override
+      public void reset(V vertex, V target) {
+         if (!graph.containsEdge(vertex, target)) {
+            throw new GraphArgumentException(graph,
+               new NoSuchElementException("Edge not found."));
+         }
+         this.source = vertex;
+         this.startTarget = target;
+         this.target = target;
+      }
+
+      @Override
+      public V getSource() {
+         return source;
+      }
+
+      @Override
+      public V getTarget() {
+         return target;
+      }
+
+      @Override
+      public boolean next() {
+         target = graph.getNextVertex(target, source);
+         return !target.equals(startTarget);
+      }
+
+      @Override
+      public boolean prev() {
+         target = graph.getPrevVertex(source, target);
+         return !target.equals(startTarget);
+      }
+   }
+
    static public <V, E> List<V> getConnectedVertices(PlanarGraph<V, E> graph, V vertex) {
       return getConnectedVertices(graph, vertex, null);
    }
@@ -321,6 +472,10 @@ public final class PlanarGraphs {
    }
 
    static public <V, E> boolean isVertexBoundary(PlanarGraph<V, E> graph, V vertex) {
+       if (graph instanceof DoublyConnectedEdgeList && graph.containsVertex(vertex)) {
+          // Answered from the cached boundary count of the vertex
+          return ((DoublyConnectedEdgeList<V, E, ?>) graph).isVertexBoundary(vertex);
+       }
        if (graph.edgesOf(vertex).stream().anyMatch((edge) -> (isEdgeBoundary(graph, edge)))) {
            return true;
        }
@@ -503,8 +658,7 @@ public final class PlanarGraphs {
    static public <V> int getNearestInterceptingLineSegment(LineSegment halfLine, List<V> boundaryVertices, PlanarLayout<V> layout) {
       
       // Check each segment in the boundary for intersection with the
-      // bisector            
-      // TODO: O(boundary size), can we do this more efficiently?
+      // bisector. This is O(boundary size), use a BoundarySegmentIndex for repeated queries.
       double minDistance = Double.POSITIVE_INFINITY;
       int segmentIndex = -1;
       for (int itr = 0; itr < boundaryVertices.size(); ++itr) {
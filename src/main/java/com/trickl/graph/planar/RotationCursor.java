@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+/**
+ * A reusable position on an edge leaving a vertex of a planar embedding, that
+ * steps around the vertex without allocating. The forward direction matches
+ * the order of edgesOf.
+ * @param <V> Vertex type
+ */
+public interface RotationCursor<V> {
+
+   /**
+    * Position the cursor on the first edge leaving a vertex.
+    * @param vertex
+    * @return false if the vertex has no edges
+    */
+   boolean reset(V vertex);
+
+   /**
+    * Position the cursor on the edge from a vertex to the target,
+    * which becomes the start of the rotation.
+    * @param vertex
+    * @param target
+    */
+   void reset(V vertex, V target);
+
+   V getSource();
+
+   V getTarget();
+
+   /**
+    * Step to the next edge leaving the vertex.
+    * @return false if the step returned to the start edge
+    */
+   boolean next();
+
+   /**
+    * Step to the previous edge leaving the vertex.
+    * @return false if the step returned to the start edge
+    */
+   boolean prev();
+}
@@ -20,9 +20,9 @@
  */
 package com.trickl.graph.planar;
 
+import com.trickl.graph.CompressedSparseRowGraph;
 import com.trickl.graph.Labeller;
 import java.util.*;
-import org.jgrapht.Graphs;
 
 /**
  * A simple six-color planar graph vertex labeller detailed in: TWO LINEAR-TIME
@@ -37,7 +37,14 @@ public class SixColorVertexLabeller<V, E> implements Labeller<V> {
    private Map<V, Integer> vertexLabels = new HashMap<V, Integer>();
    
    public SixColorVertexLabeller(PlanarGraph<V, E> graph) {
-      generateLabels(graph);
+      generateLabels(new CompressedSparseRowGraph<V, E>(graph));
+   }
+
+   /**
+    * @param snapshot A snapshot of a planar graph
+    */
+   public SixColorVertexLabeller(CompressedSparseRowGraph<V, E> snapshot) {
+      generateLabels(snapshot);
    }
 
    @Override
@@ -55,29 +62,21 @@ public class SixColorVertexLabeller<V, E> implements Labeller<V> {
       return labelVertices.get(label);
    }
 
-   private void generateLabels(PlanarGraph<V, E> graph) {      
+   private void generateLabels(CompressedSparseRowGraph<V, E> snapshot) {
+      int n = snapshot.getVertexCount();
+      int[] offsets = snapshot.getOffsets();
+      int[] targets = snapshot.getTargets();
+
       // Step 1. [Establish degree lists.] For each j where 0- j - n - 1, form a doubly
       // linked list of all vertices of G of degree j.
-      Set<V> vertices = graph.vertexSet();
-      Map<V, List<V>> adjacencyList = new HashMap<V, List<V>>();
-            
-      Set[] degreeLists = new Set[vertices.size()];
-      for (V vertex : vertices) {
-         // Setup the degree list structure
-         int degree = graph.edgesOf(vertex).size();
-         if (degreeLists[degree] == null) {
-            for (int j = degree; j >= 0 && degreeLists[j] == null; j--) {
-               degreeLists[j] = new HashSet<V>();
-            }
-         }
-         degreeLists[degree].add(vertex);
-
-         // Setup the adjacency list structure
-         adjacencyList.put(vertex, new LinkedList<V>());
-         for (E edge : graph.edgesOf(vertex)) {
-            V adjacent = Graphs.getOppositeVertex(graph, edge, vertex);
-            adjacencyList.get(vertex).add(adjacent);
-         }
+      int[] degrees = new int[n];
+      int[] degreeListHeads = new int[offsets[n] + 1];
+      int[] nextInList = new int[n];
+      int[] prevInList = new int[n];
+      Arrays.fill(degreeListHeads, -1);
+      for (int v = 0; v < n; ++v) {
+         degrees[v] = snapshot.getDegree(v);
+         addToDegreeList(v, degrees, degreeListHeads, nextInList, prevInList);
       }
 
       // Step 2. [Label vertices smallest degree last.] For i = n, n - 1, n*- 1,. . . , 1
@@ -85,42 +84,45 @@ public class SixColorVertexLabeller<V, E> implements Labeller<V> {
       // as vertex v(i). Delete v(i) from the j degree list. For each vertex v’ that
       // was adjacent to v(i) in G and remains in some degree list, say j', delete
       // v’ from the j' degree list and insert v’ in the j' - 1 degree list.
-      Stack<V> colorOrder = new Stack<V>();
-      for (int i = 0; i < vertices.size(); ++i) {
-         // Find non-vacuous degree list of smallest degree
-         int j = 0;
-         while (j < vertices.size() - i && degreeLists[j].isEmpty()) {
+      boolean[] removed = new boolean[n];
+      int[] colorOrder = new int[n];
+      int j = 0;
+      for (int i = n - 1; i >= 0; --i) {
+         // Removing a vertex lowers the degree of others by at most one
+         j = Math.max(0, j - 1);
+         while (degreeListHeads[j] < 0) {
             ++j;
          }
 
-         Set<V> degreeList = degreeLists[j];
-         V vertex = degreeList.iterator().next();
-         // Remove the first vertex and update structures
-         degreeList.remove(vertex);
-         Set<V> adjacencies = new HashSet<V>(adjacencyList.get(vertex));
-         for (V adjacent : adjacencies) {
-            int adjacentDegree = adjacencyList.get(adjacent).size();
-            degreeLists[adjacentDegree].remove(adjacent);
-            degreeLists[adjacentDegree - 1].add(adjacent);
-            adjacencyList.get(vertex).remove(adjacent);
-            adjacencyList.get(adjacent).remove(vertex);
+         int vertex = degreeListHeads[j];
+         removeFromDegreeList(vertex, degrees, degreeListHeads, nextInList, prevInList);
+         removed[vertex] = true;
+         for (int k = offsets[vertex]; k < offsets[vertex + 1]; ++k) {
+            int adjacent = targets[k];
+            if (!removed[adjacent]) {
+               removeFromDegreeList(adjacent, degrees, degreeListHeads, nextInList, prevInList);
+               --degrees[adjacent];
+               addToDegreeList(adjacent, degrees, degreeListHeads, nextInList, prevInList);
+            }
          }
 
          // Label from last to first
-         colorOrder.push(vertex);
+         colorOrder[i] = vertex;
       }
 
       // Step 3. [Color vertices.] For i = 1,2,. . . , n, assign vertex v(i) the smallest color
       // value (which must be some integer between one and six) not occuring on
       // the vertices adjacent to v(i) that have already been colored.
-      for (V vertex : colorOrder) {
+      int[] labels = new int[n];
+      Arrays.fill(labels, -1);
+      for (int vertex : colorOrder) {
          // Use a mask to 'turn off' adjacent colors
          int labelMask = 63; // 0b111111
-         for (E edge : graph.edgesOf(vertex)) {
-            V adjacent = Graphs.getOppositeVertex(graph, edge, vertex);
-            if (vertexLabels.containsKey(adjacent)) {
+         for (int k = offsets[vertex]; k < offsets[vertex + 1]; ++k) {
+            int adjacentLabel = labels[targets[k]];
+            if (adjacentLabel >= 0) {
                // Switch off the adjacent label 
-               labelMask &= 63 - (1 << vertexLabels.get(adjacent));
+               labelMask &= 63 - (1 << adjacentLabel);
             }
          }
          int label = 0;
@@ -129,12 +131,37 @@ public class SixColorVertexLabeller<V, E> implements Labeller<V> {
          }
 
          // Update the label structures
-         vertexLabels.put(vertex, label);
+         labels[vertex] = label;
+         V v = snapshot.getVertex(vertex);
+         vertexLabels.put(v, label);
 
          if (!labelVertices.containsKey(label)) {
             labelVertices.put(label, new HashSet<V>());
          }
-         labelVertices.get(label).add(vertex);
+         labelVertices.get(label).add(v);
+      }
+   }
+
+   private static void addToDegreeList(int vertex, int[] degrees, int[] degreeListHeads,
+                                       int[] nextInList, int[] prevInList) {
+      int head = degreeListHeads[degrees[vertex]];
+      nextInList[vertex] = head;
+      prevInList[vertex] = -1;
+      if (head >= 0) {
+         prevInList[head] = vertex;
+      }
+      degreeListHeads[degrees[vertex]] = vertex;
+   }
+
+   private static void removeFromDegreeList(int vertex, int[] degrees, int[] degreeListHeads,
+                                            int[] nextInList, int[] prevInList) {
+      if (prevInList[vertex] >= 0) {
+         nextInList[prevInList[vertex]] = nextInList[vertex];
+      } else {
+         degreeListHeads[degrees[vertex]] = nextInList[vertex];
+      }
+      if (nextInList[vertex] >= 0) {
+         prevInList[nextInList[vertex]] = prevInList[vertex];
       }
    }
 }
\ No newline at end of file
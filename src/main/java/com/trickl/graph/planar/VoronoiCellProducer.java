@@ -0,0 +1,205 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jgrapht.Graphs;
+
+/**
+ * Produces the Voronoi cell of each site of a Delaunay triangulation as a polygon,
+ * one site at a time, without building the dual graph. Interior cells are formed
+ * from the circumcentres of the triangles around the site, while cells of sites on
+ * the hull are the intersection of the half planes nearer the site than each
+ * neighbour. Cells are clipped to the boundary, if given, otherwise cells of hull
+ * sites are unbounded and are not produced. A cell clipped by a concave boundary may
+ * be split into several polygons.
+ *
+ * The triangulation is only read, so cells may be produced in parallel.
+ * @param <V> Delaunay vertex type
+ * @param <E> Delaunay edge type
+ */
+public class VoronoiCellProducer<V, E> {
+
+   private final PlanarGraph<V, E> delaunay;
+   private final PlanarLayout<V> layout;
+   private final Polygon boundary;
+   private final PreparedGeometry preparedBoundary;
+   private final GeometryFactory geometryFactory;
+
+   public VoronoiCellProducer(PlanarGraph<V, E> delaunay, PlanarLayout<V> layout, LinearRing boundary) {
+      this(delaunay, layout, boundary, new GeometryFactory());
+   }
+
+   public VoronoiCellProducer(PlanarGraph<V, E> delaunay, PlanarLayout<V> layout, LinearRing boundary,
+           GeometryFactory geometryFactory) {
+      this.delaunay = delaunay;
+      this.layout = layout;
+      this.geometryFactory = geometryFactory;
+      this.boundary = boundary == null ? null : geometryFactory.createPolygon(boundary, null);
+      this.preparedBoundary = boundary == null ? null : PreparedGeometryFactory.prepare(this.boundary);
+   }
+
+   /**
+    * Pass the cell of each site to the consumer in turn
+    * @param consumer
+    */
+   public void forEachCell(BiConsumer<? super V, ? super Polygon> consumer) {
+      for (V site : delaunay.vertexSet()) {
+         for (Polygon cell : getCell(site)) {
+            consumer.accept(site, cell);
+         }
+      }
+   }
+
+   /**
+    * @return A stream of the sites and their cells, computed as the stream is consumed
+    */
+   public Stream<Map.Entry<V, Polygon>> stream() {
+      return cells(false);
+   }
+
+   public Stream<Map.Entry<V, Polygon>> parallelStream() {
+      return cells(true);
+   }
+
+   private Stream<Map.Entry<V, Polygon>> cells(boolean parallel) {
+      Object[] sites = delaunay.vertexSet().toArray();
+      return StreamSupport.stream(Spliterators.spliterator(sites, Spliterator.DISTINCT | Spliterator.NONNULL), parallel)
+              .flatMap(site -> getCell((V) site).stream()
+                      .map(cell -> new AbstractMap.SimpleImmutableEntry<>((V) site, cell)));
+   }
+
+   /**
+    * @param site
+    * @return The polygons making up the cell of the site, empty if it lies
+    * outside the boundary or is unbounded
+    */
+   public List<Polygon> getCell(V site) {
+      Coordinate siteLocation = layout.getCoordinate(site);
+      Set<E> edges = delaunay.edgesOf(site);
+      int degree = edges.size();
+      List<V> neighbours = new ArrayList<V>(degree);
+      boolean isHull = false;
+      if (degree > 0) {
+         // Rotate around the site, through the face on the left of each edge
+         V neighbour = Graphs.getOppositeVertex(delaunay, edges.iterator().next(), site);
+         for (int i = 0; i < degree; ++i) {
+            neighbours.add(neighbour);
+            isHull |= delaunay.isBoundary(site, neighbour);
+            neighbour = delaunay.getPrevVertex(site, neighbour);
+         }
+      }
+
+      Polygon cell;
+      if (!isHull && degree > 0) {
+         Coordinate[] shell = new Coordinate[degree + 1];
+         for (int i = 0; i < degree; ++i) {
+            shell[i] = getCircumcentre(siteLocation, layout.getCoordinate(neighbours.get(i)),
+                    layout.getCoordinate(neighbours.get((i + 1) % degree)));
+         }
+         shell[degree] = shell[0];
+         cell = geometryFactory.createPolygon(shell);
+      } else if (boundary != null) {
+         cell = getHalfPlaneIntersection(siteLocation, neighbours);
+      } else {
+         return Collections.emptyList();
+      }
+
+      return clip(cell);
+   }
+
+   private List<Polygon> clip(Polygon cell) {
+      if (cell == null || cell.isEmpty()) {
+         return Collections.emptyList();
+      } else if (boundary == null || preparedBoundary.containsProperly(cell)) {
+         return Collections.singletonList(cell);
+      }
+
+      Geometry clipped = boundary.intersection(cell);
+      List<Polygon> polygons = new ArrayList<Polygon>(clipped.getNumGeometries());
+      for (int i = 0; i < clipped.getNumGeometries(); ++i) {
+         Geometry part = clipped.getGeometryN(i);
+         if (part instanceof Polygon && !part.isEmpty()) {
+            polygons.add((Polygon) part);
+         }
+      }
+      return polygons;
+   }
+
+   // Clip the envelope of the boundary and site to the side of each bisector nearer the site
+   private Polygon getHalfPlaneIntersection(Coordinate site, List<V> neighbours) {
+      Envelope envelope = new Envelope(boundary.getEnvelopeInternal());
+      envelope.expandToInclude(site);
+      envelope.expandBy(Math.max(envelope.getWidth(), envelope.getHeight()) * 0.1 + 1);
+      List<Coordinate> polygon = new ArrayList<Coordinate>(Arrays.asList(
+              new Coordinate(envelope.getMinX(), envelope.getMinY()),
+              new Coordinate(envelope.getMaxX(), envelope.getMinY()),
+              new Coordinate(envelope.getMaxX(), envelope.getMaxY()),
+              new Coordinate(envelope.getMinX(), envelope.getMaxY())));
+
+      for (V neighbour : neighbours) {
+         Coordinate other = layout.getCoordinate(neighbour);
+         double nx = other.x - site.x;
+         double ny = other.y - site.y;
+         if (nx == 0 && ny == 0) {
+            continue;
+         }
+         // Points p with (p - midpoint).n <= 0 are nearer the site
+         double offset = nx * (site.x + other.x) / 2 + ny * (site.y + other.y) / 2;
+         List<Coordinate> clipped = new ArrayList<Coordinate>(polygon.size() + 1);
+         for (int i = 0; i < polygon.size(); ++i) {
+            Coordinate current = polygon.get(i);
+            Coordinate next = polygon.get((i + 1) % polygon.size());
+            double currentSide = nx * current.x + ny * current.y - offset;
+            double nextSide = nx * next.x + ny * next.y - offset;
+            if (currentSide <= 0) {
+               clipped.add(current);
+            }
+            if ((currentSide < 0 && nextSide > 0) || (currentSide > 0 && nextSide < 0)) {
+               double t = currentSide / (currentSide - nextSide);
+               clipped.add(new Coordinate(current.x + t * (next.x - current.x),
+                       current.y + t * (next.y - current.y)));
+            }
+         }
+         polygon = clipped;
+         if (polygon.size() < 3) {
+            return null;
+         }
+      }
+
+      polygon.add(polygon.get(0));
+      return geometryFactory.createPolygon(polygon.toArray(new Coordinate[polygon.size()]));
+   }
+
+   // The vertices are ordered before computing the circumcentre, so that neighbouring
+   // cells share exactly the same corner
+   private static Coordinate getCircumcentre(Coordinate a, Coordinate b, Coordinate c) {
+      Coordinate[] vertices = new Coordinate[]{a, b, c};
+      Arrays.sort(vertices);
+      return Triangle.circumcentre(vertices[0], vertices[1], vertices[2]);
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import cern.jet.random.engine.RandomEngine;
+import com.trickl.graph.planar.PlanarLayout;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import java.util.*;
+
+/**
+ * A biased randomized insertion order (BRIO), after Amenta, Choi and Rote, "Incremental
+ * Constructions con BRIO". Each site is independently assigned to a round, with each round
+ * roughly twice the size of the one before, so the expected complexity of randomized
+ * incremental construction is retained. Within a round sites are sorted along a Hilbert
+ * curve, so consecutive sites are close together and point location walks stay short.
+ * @param <V> Vertex type
+ */
+public class BiasedRandomizedInsertionOrder<V> {
+
+   private static final int HILBERT_ORDER = 16;
+   private final RandomEngine randomEngine;
+
+   public BiasedRandomizedInsertionOrder(RandomEngine randomEngine) {
+      this.randomEngine = randomEngine;
+   }
+
+   public List<V> sort(Collection<V> vertices, PlanarLayout<V> layout) {
+      List<V> sites = new ArrayList<V>(vertices);
+      Envelope bounds = new Envelope();
+      for (V vertex : sites) {
+         bounds.expandToInclude(layout.getCoordinate(vertex));
+      }
+
+      // Assign each site to a round, the final round holding about half of them
+      int roundCount = 1;
+      while ((1 << roundCount) < sites.size() && roundCount < 30) {
+         ++roundCount;
+      }
+      int[] rounds = new int[sites.size()];
+      int[] roundSizes = new int[roundCount];
+      for (int i = 0; i < sites.size(); ++i) {
+         int round = roundCount - 1;
+         while (round > 0 && randomEngine.nextDouble() < 0.5) {
+            --round;
+         }
+         rounds[i] = round;
+         roundSizes[round]++;
+      }
+
+      long[][] keys = new long[roundCount][];
+      for (int round = 0; round < roundCount; ++round) {
+         keys[round] = new long[roundSizes[round]];
+         roundSizes[round] = 0;
+      }
+
+      int scale = (1 << HILBERT_ORDER) - 1;
+      double width = bounds.getWidth() > 0 ? bounds.getWidth() : 1;
+      double height = bounds.getHeight() > 0 ? bounds.getHeight() : 1;
+      for (int i = 0; i < sites.size(); ++i) {
+         Coordinate site = layout.getCoordinate(sites.get(i));
+         int x = (int) (scale * (site.x - bounds.getMinX()) / width);
+         int y = (int) (scale * (site.y - bounds.getMinY()) / height);
+         keys[rounds[i]][roundSizes[rounds[i]]++] = (getHilbertIndex(x, y) << 31) | i;
+      }
+
+      List<V> ordered = new ArrayList<V>(sites.size());
+      for (int round = 0; round < roundCount; ++round) {
+         Arrays.sort(keys[round]);
+         for (long key : keys[round]) {
+            ordered.add(sites.get((int) (key & Integer.MAX_VALUE)));
+         }
+      }
+      return ordered;
+   }
+
+   /**
+    * @return The distance along a Hilbert curve filling a square grid of side 2^16
+    */
+   static long getHilbertIndex(int x, int y) {
+      int n = 1 << HILBERT_ORDER;
+      long index = 0;
+      for (int s = n / 2; s > 0; s /= 2) {
+         int rx = (x & s) > 0 ? 1 : 0;
+         int ry = (y & s) > 0 ? 1 : 0;
+         index += (long) s * s * ((3 * rx) ^ ry);
+
+         // Rotate the quadrant
+         if (ry == 0) {
+            if (rx == 1) {
+               x = n - 1 - x;
+               y = n - 1 - y;
+            }
+            int swap = x;
+            x = y;
+            y = swap;
+         }
+      }
+      return index;
+   }
+}
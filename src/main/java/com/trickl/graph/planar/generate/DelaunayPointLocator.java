@@ -0,0 +1,64 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Chooses where the point location walk of an incremental Delaunay
+ * triangulation begins. The closer the starting vertex is to the new site, the
+ * shorter the walk.
+ * @param <V> Vertex type
+ */
+public interface DelaunayPointLocator<V> {
+
+   /**
+    * Prepare for a new triangulation.
+    * @param bounds The bounds of all sites to be inserted
+    * @param siteCount The number of sites to be inserted
+    */
+   void initialize(Envelope bounds, int siteCount);
+
+   /**
+    * @param site
+    * @return A vertex of the triangulation near the site, or null to begin
+    * the walk from the boundary
+    */
+   V getNearbyVertex(Coordinate site);
+
+   /**
+    * Notification that a vertex has been inserted in the triangulation.
+    * @param vertex
+    * @param site
+    */
+   void vertexInserted(V vertex, Coordinate site);
+
+   /**
+    * Notification that a vertex has been removed from the triangulation.
+    * @param vertex
+    * @param site
+    * @param neighbour The nearest former neighbour of the vertex that remains
+    * in the triangulation, which may be used in its place, or null if there is none
+    * @param neighbourSite The site of the neighbour
+    */
+   void vertexRemoved(V vertex, Coordinate site, V neighbour, Coordinate neighbourSite);
+}
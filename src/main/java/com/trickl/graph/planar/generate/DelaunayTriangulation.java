@@ -0,0 +1,489 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.planar.PlanarGraphs;
+import com.trickl.graph.planar.PlanarLayout;
+import com.trickl.graph.planar.RotationCursor;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.LineSegment;
+import java.util.*;
+import org.jgrapht.VertexFactory;
+
+/**
+* A Delaunay triangulation maintained within a planar graph, as sites are inserted, removed and moved.
+* All sites must lie within the bounds given on construction, which are contained in a bounding triangle.
+* The three bounding vertices remain in the graph, but are treated as if they are infinitely far away,
+* so the edges between sites are exactly the Delaunay triangulation of the sites.
+* Each operation only modifies the star of the site, after a walk to locate it.
+* @author tgee
+*/
+public class DelaunayTriangulation<V, E> implements PlanarLayout<V> {
+
+   private final PlanarGraph<V, E> graph;
+   private final Map<V, Coordinate> vertexToCoordinate = new HashMap<V, Coordinate>();
+   private final DelaunayPointLocator<V> pointLocator;
+   private final List<V> boundingVertices;
+   private final List<DirectedEdge<V>> boundaryEdges;
+   private final RotationCursor<V> rotationCursor;
+
+   public DelaunayTriangulation(PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory, Envelope bounds) {
+      this(graph, vertexFactory, bounds, 0, new LastVertexPointLocator<V>());
+   }
+
+   /**
+    * @param graph An empty graph to hold the triangulation
+    * @param vertexFactory Used to create the bounding vertices
+    * @param bounds The bounds of all sites
+    * @param siteCount The expected number of sites, used to size the point locator
+    * @param pointLocator Chooses where each point location walk begins
+    */
+   public DelaunayTriangulation(PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory,
+           Envelope bounds, int siteCount, DelaunayPointLocator<V> pointLocator) {
+      this.graph = graph;
+      this.pointLocator = pointLocator;
+
+      // Ensure the bounding triangle always has non-zero width and height
+      double size = Math.max(bounds.getWidth(), bounds.getHeight()) == 0 ? 1 : Math.max(bounds.getWidth(), bounds.getHeight());
+      double triangleHalfWidth = 1.51 * (bounds.getWidth() == 0 ? size : bounds.getWidth());
+      double triangleHalfHeight = 1.01 * (bounds.getHeight() == 0 ? size : bounds.getHeight());
+
+      V a = vertexFactory.createVertex();
+      graph.addVertex(a);
+      vertexToCoordinate.put(a, new Coordinate(bounds.centre().x - triangleHalfWidth, bounds.getMaxY() - triangleHalfHeight));
+
+      V b = vertexFactory.createVertex();
+      graph.addVertex(b);
+      vertexToCoordinate.put(b, new Coordinate(bounds.centre().x + triangleHalfWidth, bounds.getMaxY() - triangleHalfHeight));
+
+      V c = vertexFactory.createVertex();
+      graph.addVertex(c);
+      vertexToCoordinate.put(c, new Coordinate(bounds.centre().x, bounds.getMaxY() + triangleHalfHeight));
+
+      // The boundary face is defined anticlockwise, which is the convention for this algorithm
+      graph.addEdge(a, b);
+      graph.addEdge(b, c, a, null);
+      graph.addEdge(c, a, b, null);
+
+      boundingVertices = Collections.unmodifiableList(Arrays.asList(a, b, c));
+      boundaryEdges = new ArrayList<DirectedEdge<V>>(3);
+      boundaryEdges.add(new DirectedEdge<V>(a, b));
+      boundaryEdges.add(new DirectedEdge<V>(b, c));
+      boundaryEdges.add(new DirectedEdge<V>(c, a));
+      rotationCursor = PlanarGraphs.rotationCursor(graph);
+      pointLocator.initialize(bounds, siteCount);
+   }
+
+   public PlanarGraph<V, E> getGraph() {
+      return graph;
+   }
+
+   /**
+    * @return The vertices of the bounding triangle, which are not sites.
+    */
+   public List<V> getBoundingVertices() {
+      return boundingVertices;
+   }
+
+   @Override
+   public Coordinate getCoordinate(V vertex) {
+      return vertexToCoordinate.get(vertex);
+   }
+
+   /**
+    * Add a site to the triangulation.
+    * @param vertex The vertex for the site, which must not already be a site
+    * @param site The location of the site
+    * @return false if there is already a site at this location, in which case the vertex is not added
+    */
+   public boolean insertSite(V vertex, Coordinate site) {
+      return insertSite(vertex, site, pointLocator.getNearbyVertex(site));
+   }
+
+   /**
+    * Remove a site, and retriangulate the hole left by its star.
+    * @param vertex The vertex of the site
+    */
+   public void removeSite(V vertex) {
+      Coordinate site = vertexToCoordinate.get(vertex);
+      if (site == null || boundingVertices.contains(vertex)) {
+         throw new IllegalArgumentException("Vertex " + vertex + " is not a site.");
+      }
+
+      // The hole is the anticlockwise polygon of neighbours
+      List<V> polygon = new ArrayList<V>();
+      rotationCursor.reset(vertex);
+      V first = rotationCursor.getTarget();
+      V neighbour = first;
+      // The nearest neighbouring site is the best replacement start vertex
+      V nearest = null;
+      do {
+         polygon.add(neighbour);
+         if (!boundingVertices.contains(neighbour) && (nearest == null
+                 || site.distance(vertexToCoordinate.get(neighbour)) < site.distance(vertexToCoordinate.get(nearest)))) {
+            nearest = neighbour;
+         }
+         neighbour = graph.getNextVertex(vertex, neighbour);
+      } while (!neighbour.equals(first));
+
+      graph.removeVertex(vertex);
+      vertexToCoordinate.remove(vertex);
+      pointLocator.vertexRemoved(vertex, site, nearest, nearest == null ? null : vertexToCoordinate.get(nearest));
+
+      retriangulate(polygon);
+   }
+
+   /**
+    * Move a site, which is removed and reinserted starting the search from its former neighbours.
+    * @param vertex The vertex of the site
+    * @param site The new location of the site
+    * @return false if there is already another site at the new location, in which case the site is not moved
+    */
+   public boolean moveSite(V vertex, Coordinate site) {
+      Coordinate previous = vertexToCoordinate.get(vertex);
+      if (previous == null || boundingVertices.contains(vertex)) {
+         throw new IllegalArgumentException("Vertex " + vertex + " is not a site.");
+      }
+      validateInsideBoundary(site);
+
+      rotationCursor.reset(vertex);
+      V neighbour = rotationCursor.getTarget();
+      removeSite(vertex);
+      if (!insertSite(vertex, site, neighbour)) {
+         insertSite(vertex, previous, neighbour);
+         return false;
+      }
+      return true;
+   }
+
+   private boolean insertSite(V vertex, Coordinate p, V nearbyVertex) {
+      if (vertexToCoordinate.containsKey(vertex)) {
+         throw new IllegalArgumentException("Vertex " + vertex + " is already in the triangulation.");
+      }
+
+      // Start the search from a vertex near the site, if one is known
+      DirectedEdge<V> start;
+      if (nearbyVertex != null && graph.containsVertex(nearbyVertex) && rotationCursor.reset(nearbyVertex)) {
+         start = new DirectedEdge<V>(nearbyVertex, rotationCursor.getTarget());
+      } else {
+         start = graph.getBoundary().getTwin();
+      }
+
+      // Locate the edge that this site is next to
+      DirectedEdge<V> face = locateInsideBoundary(p, start);
+
+      V first = face.getSource();
+      V second = face.getTarget();
+      V third = graph.getNextVertex(face.getSource(), face.getTarget());
+
+      // Degenerate cases
+      if (p.equals(vertexToCoordinate.get(first))
+              || p.equals(vertexToCoordinate.get(second))
+              || p.equals(vertexToCoordinate.get(third))) {
+         // Point is already in the structure
+         return false;
+      }
+
+      // Connect the new point to the DCEL
+      graph.addVertex(vertex);
+      vertexToCoordinate.put(vertex, p);
+
+      insertVertexInsideFace(face, vertex);
+      pointLocator.vertexInserted(vertex, p);
+
+      // Flip edges as required to maintain the Delaunay property
+      enforceDelaunayCondition(first, second);
+      enforceDelaunayCondition(second, third);
+      enforceDelaunayCondition(third, first);
+      return true;
+   }
+
+   private void validateInsideBoundary(Coordinate x) {
+      // Validate that the supplied point is inside the bounding triangle, otherwise we may not terminate
+      for (DirectedEdge<V> boundaryEdge : boundaryEdges) {
+         if (isRightOf(x, boundaryEdge)) {
+            throw new IllegalArgumentException("Search Coordinate must be inside or on boundary.");
+         }
+      }
+   }
+
+   // See https://www.cl.cam.ac.uk/techreports/UCAM-CL-TR-728.pdf
+   private DirectedEdge<V> locateInsideBoundary(Coordinate x, DirectedEdge<V> start) {
+      validateInsideBoundary(x);
+
+      // Loop until p is left of every edge in the triangle
+      int iterations = 0;
+      int maxIterations = graph.edgeSet().size();
+      DirectedEdge<V> edge = start;
+            
+      if (isRightOf(x, edge)) {
+         edge = edge.getTwin();
+      } 
+      
+      while (true) {        
+         if (iterations++ > maxIterations) {
+            // The walk cannot cycle with exact predicates, but fall back to an exhaustive search regardless
+            return locateByScan(x);
+         }
+         
+         V origVertex = edge.getSource();
+         V destVertex = edge.getTarget();
+         Coordinate origCoord = vertexToCoordinate.get(origVertex);
+         Coordinate destCoord = vertexToCoordinate.get(destVertex);
+         
+         // Keep p to the left of our edge walk
+         if (x.equals2D(origCoord) || x.equals2D(destCoord)) {
+            break;
+         }
+         else {
+             int whichOp = 0;
+             
+             V nextVertex = graph.getPrevVertex(origVertex, destVertex);
+            DirectedEdge<V> next = new DirectedEdge<>(origVertex, nextVertex);
+            if (!isRightOf(x, next)) {
+              whichOp += 1;
+            }
+            
+            DirectedEdge<V> prev = new DirectedEdge<>(nextVertex, destVertex);
+            if (!isRightOf(x, prev)) {
+                whichOp += 2;
+            }
+            
+            if (whichOp == 0) break;
+            else if (whichOp == 1) edge = next;
+            else if (whichOp == 2) edge = prev;
+            else {
+                if (distance(x, next) < distance(x, prev)) {
+                    edge = next;
+                }
+                else {
+                    edge = prev;
+                }
+            }             
+         }
+      }
+
+      return edge;
+   }
+
+   private DirectedEdge<V> locateByScan(Coordinate x) {
+      for (E e : graph.edgeSet()) {
+         V source = graph.getEdgeSource(e);
+         V target = graph.getEdgeTarget(e);
+         for (DirectedEdge<V> edge : Arrays.asList(new DirectedEdge<V>(source, target), new DirectedEdge<V>(target, source))) {
+            if (graph.isBoundary(edge.getSource(), edge.getTarget())) {
+               continue;
+            }
+            V third = graph.getNextVertex(edge.getSource(), edge.getTarget());
+            if (!isRightOf(x, edge)
+                    && !isRightOf(x, new DirectedEdge<V>(edge.getTarget(), third))
+                    && !isRightOf(x, new DirectedEdge<V>(third, edge.getSource()))) {
+               return edge;
+            }
+         }
+      }
+      throw new IllegalArgumentException("Search Coordinate must be inside or on boundary.");
+   }
+   
+   private boolean isRightOf(Coordinate x, DirectedEdge<V> edge) {
+      return isRightOf(x, edge.getSource(), edge.getTarget());
+   }
+
+   private boolean isRightOf(Coordinate x, V source, V target) {
+      return RobustPredicates.orient2d(vertexToCoordinate.get(source), vertexToCoordinate.get(target), x) < 0;
+   }
+   
+   private double distance(Coordinate x, DirectedEdge<V> edge) {       
+      Coordinate source = vertexToCoordinate.get(edge.getSource());
+      Coordinate target = vertexToCoordinate.get(edge.getTarget());
+      
+      LineSegment line = new LineSegment(source, target);
+      return line.distance(x);
+   }
+
+   private void insertVertexInsideFace(DirectedEdge<V> face, V vertex) {            
+      V current = face.getSource();
+      V next = face.getTarget();
+      
+      if (graph.isBoundary(current, next)) {
+          throw new IllegalArgumentException("Cannot insert vertex into the boundary face");
+      }
+
+      do {
+         V nextNext = graph.getNextVertex(current, next);
+         graph.addEdge(next, vertex, current, null);
+
+         current = next;
+         next = nextNext;
+      } while (!current.equals(face.getSource()));
+   }
+
+   private void enforceDelaunayCondition(V source, V target) {
+      // Check that the delaunay condition holds      
+      V targetNext = graph.getNextVertex(source, target);
+      V sourceNext = graph.getNextVertex(target, source);
+
+      // Boundary vertices are treated as if they are infinitely far away
+      // so they never break the circumcircle condition
+      if (isWithinCircumcircle(source, target, targetNext, sourceNext)) {
+         // Flip edges to enforce empty circumcircle condition
+         flipTransform(source, target);
+
+         // Check previous edges
+         enforceDelaunayCondition(source, sourceNext);
+         enforceDelaunayCondition(sourceNext, target);
+      }
+   }
+
+   // Check if fourth point is within the circumcircle defined by the first three
+   private boolean isWithinCircumcircle(V first, V second, V third, V fourth) {
+      // Treat the boundary as if infinitely far away
+      Coordinate p = vertexToCoordinate.get(fourth);
+      if (boundingVertices.contains(first)) {
+         return isRightOf(p, third, second);
+      } else if (boundingVertices.contains(second)) {
+         return isRightOf(p, first, third);
+      } else if (boundingVertices.contains(third)) {
+         return isRightOf(p, second, first);
+      } else if (boundingVertices.contains(fourth)) {
+         return false;
+      }
+
+      Coordinate a = vertexToCoordinate.get(first);
+      Coordinate b = vertexToCoordinate.get(second);
+      Coordinate c = vertexToCoordinate.get(third);
+      return RobustPredicates.incircle(a, b, c, p) > 0;
+   }
+
+   private void flipTransform(V source, V target) {
+      V targetNext = graph.getNextVertex(source, target);
+      V sourceNext = graph.getNextVertex(target, source);
+
+      graph.removeEdge(source, target);
+      graph.addEdge(sourceNext, targetNext, source, source);
+   }
+
+   // Clip ears from the anticlockwise polygon, preferring those with an empty circumcircle
+   private void retriangulate(List<V> polygon) {
+      List<DirectedEdge<V>> addedEdges = new ArrayList<DirectedEdge<V>>();
+      boolean delaunay = true;
+      while (polygon.size() > 3) {
+         int ear = -1;
+         for (int i = 0; i < polygon.size() && ear < 0; ++i) {
+            if (isDelaunayEar(polygon, i)) {
+               ear = i;
+            }
+         }
+         if (ear < 0) {
+            // Only possible when the bounds are inconsistent with the geometry
+            delaunay = false;
+            for (int i = 0; i < polygon.size() && ear < 0; ++i) {
+               if (isEar(polygon, i)) {
+                  ear = i;
+               }
+            }
+         }
+
+         V prev = polygon.get((ear + polygon.size() - 1) % polygon.size());
+         V current = polygon.get(ear);
+         V next = polygon.get((ear + 1) % polygon.size());
+         graph.addEdge(next, prev, current, current);
+         addedEdges.add(new DirectedEdge<V>(next, prev));
+         polygon.remove(ear);
+      }
+
+      if (!delaunay) {
+         for (DirectedEdge<V> edge : addedEdges) {
+            legalize(edge);
+         }
+      }
+   }
+
+   private boolean isEar(List<V> polygon, int index) {
+      int size = polygon.size();
+      V prev = polygon.get((index + size - 1) % size);
+      V current = polygon.get(index);
+      V next = polygon.get((index + 1) % size);
+      Coordinate prevCoord = vertexToCoordinate.get(prev);
+      Coordinate currentCoord = vertexToCoordinate.get(current);
+      Coordinate nextCoord = vertexToCoordinate.get(next);
+      if (RobustPredicates.orient2d(prevCoord, currentCoord, nextCoord) <= 0) {
+         return false;
+      }
+
+      for (V other : polygon) {
+         if (other != prev && other != current && other != next) {
+            Coordinate otherCoord = vertexToCoordinate.get(other);
+            if (RobustPredicates.orient2d(prevCoord, currentCoord, otherCoord) >= 0
+                    && RobustPredicates.orient2d(currentCoord, nextCoord, otherCoord) >= 0
+                    && RobustPredicates.orient2d(nextCoord, prevCoord, otherCoord) >= 0) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   private boolean isDelaunayEar(List<V> polygon, int index) {
+      if (!isEar(polygon, index)) {
+         return false;
+      }
+
+      int size = polygon.size();
+      V prev = polygon.get((index + size - 1) % size);
+      V current = polygon.get(index);
+      V next = polygon.get((index + 1) % size);
+      for (V other : polygon) {
+         if (other != prev && other != current && other != next
+                 && isWithinCircumcircle(prev, current, next, other)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private void legalize(DirectedEdge<V> initial) {
+      Deque<DirectedEdge<V>> edges = new ArrayDeque<DirectedEdge<V>>();
+      edges.push(initial);
+      while (!edges.isEmpty()) {
+         DirectedEdge<V> edge = edges.pop();
+         V source = edge.getSource();
+         V target = edge.getTarget();
+         if (!graph.containsEdge(source, target)
+                 || (boundingVertices.contains(source) && boundingVertices.contains(target))) {
+            continue;
+         }
+
+         V targetNext = graph.getNextVertex(source, target);
+         V sourceNext = graph.getNextVertex(target, source);
+         if (isWithinCircumcircle(source, target, targetNext, sourceNext)) {
+            flipTransform(source, target);
+            edges.push(new DirectedEdge<V>(source, sourceNext));
+            edges.push(new DirectedEdge<V>(sourceNext, target));
+            edges.push(new DirectedEdge<V>(target, targetNext));
+            edges.push(new DirectedEdge<V>(targetNext, source));
+         }
+      }
+   }
+}
@@ -21,14 +21,16 @@
 package com.trickl.graph.planar.generate;
 
 import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.planar.BoundarySegmentIndex;
 import com.trickl.graph.planar.PlanarGraph;
 import com.trickl.graph.planar.PlanarGraphs;
 import com.trickl.graph.planar.PlanarLayout;
-import com.vividsolutions.jts.algorithm.Angle;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
 import com.vividsolutions.jts.geom.*;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.stream.IntStream;
 import org.jgrapht.VertexFactory;
 
 /*
@@ -49,8 +51,13 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
 
       static int maxid;
       int id;
+      // Heap order priority, keeping the beach line tree balanced as a treap
+      int priority;
       Node<V> right;
       Node<V> left;
+      // The arcs either side of the break
+      Arc<V> leftArc;
+      Arc<V> rightArc;
       // Twin the the break in the opposite direction caused by the same two sites
       BreakPoint<V> twin;
       // The next break which is clockwise from the same source
@@ -110,16 +117,63 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
    };
 
-   // The binary tree status class for storing the beach line         
+   // The binary tree status class for storing the beach line, balanced as a treap
+   // on the break points so that searches, insertions and deletions are O(log n)
+   // expected, whatever the order of the sites.
    static class BeachLineTree<V> {
 
       // Head node
       BreakPoint<V> head;
+      private final Random random = new Random(0);
 
       BeachLineTree() {
          head = new BreakPoint<V>(null, null);
       }
 
+      /**
+       * Replace a node with a new break point, then rotate the break point up to
+       * restore the heap order. A vacant child of the break point is filled with
+       * the replaced node.
+       */
+      void insert(Node<V> original, BreakPoint<V> brk) {
+         replace(original, brk);
+         if (brk.left == null) {
+            brk.left = original;
+            original.parent = brk;
+         } else if (brk.right == null) {
+            brk.right = original;
+            original.parent = brk;
+         }
+
+         brk.priority = random.nextInt();
+         while (brk.parent != head && brk.parent.priority < brk.priority) {
+            rotateUp(brk);
+         }
+      }
+
+      private void rotateUp(BreakPoint<V> brk) {
+         BreakPoint<V> parent = brk.parent;
+         BreakPoint<V> grandparent = parent.parent;
+         if (parent.left == brk) {
+            parent.left = brk.right;
+            parent.left.parent = parent;
+            brk.right = parent;
+         } else {
+            parent.right = brk.left;
+            parent.right.parent = parent;
+            brk.left = parent;
+         }
+         parent.parent = brk;
+
+         if (grandparent.left == parent) {
+            grandparent.left = brk;
+         } else {
+            grandparent.right = brk;
+         }
+         brk.parent = grandparent;
+      }
+
+      // Splicing out the parent of a leaf preserves the heap order, so no rotations are needed
       static <V> void delete(Arc<V> arc) {
          Node<V> replacementNode;
          if (arc.parent.left == arc) {
@@ -142,6 +196,9 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
 
       Arc<V> getLeftArc(final Node<V> start) {
+         if (start instanceof BreakPoint && start != head) {
+            return ((BreakPoint<V>) start).leftArc;
+         }
          Node<V> node = start;
          if (node instanceof Arc) {
             if (node.parent.right == node) {
@@ -169,6 +226,9 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
 
       Arc<V> getRightArc(final Node<V> start) {
+         if (start instanceof BreakPoint && start != head) {
+            return ((BreakPoint<V>) start).rightArc;
+         }
          Node<V> node = start;
          if (node instanceof Arc) {
             if (node.parent.left == node) {
@@ -225,10 +285,10 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
 
       List<BreakPoint<V>> getInorderBreaks() {
-         List<BreakPoint<V>> breaks = new LinkedList<BreakPoint<V>>();
+         List<BreakPoint<V>> breaks = new ArrayList<BreakPoint<V>>();
 
          // Get an inorder traversal of the BeachLineTree
-         Stack<BreakPoint<V>> breakStack = new Stack<BreakPoint<V>>();
+         Deque<BreakPoint<V>> breakStack = new ArrayDeque<BreakPoint<V>>();
          Node<V> current = head.left;
          boolean done = false;
          while (!done) {
@@ -252,56 +312,142 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
    }
 
-   static interface SweepEvent {
+   static class CircleEvent<V> {
 
-      double getPosition();
+      // The arc that will be removed by the circle event, null if cancelled
+      Arc<V> arc;
+      Coordinate vertexLocation;
+      Coordinate eventLocation;
+      // Position in the event heap, or -1 if not queued
+      int heapIndex = -1;
+
+      CircleEvent(Arc<V> node, Coordinate vertexLocation, Coordinate eventLocation) {
+         this.arc = node;
+         this.vertexLocation = vertexLocation;
+         this.eventLocation = eventLocation;
+      }
+
+      boolean isCancelled() {
+         return arc == null;
+      }
    }
 
-   static class SweepEventComparator implements Comparator<SweepEvent> {
+   // The event queue. Site events are known in advance, so are sorted into an array,
+   // while circle events are kept in an indexed binary heap on the primitive sweep
+   // position, so false alarms can be deleted in O(log n) rather than left in the queue.
+   static class SweepEventQueue<V> {
 
-      PrecisionModel precisionModel;
+      private final PrecisionModel precisionModel;
+      private final Coordinate[] sites;
+      private int nextSite;
+      // Only ever holds CircleEvent<V>, as a generic array cannot be created
+      private Object[] circleEvents;
+      private double[] circleEventPositions;
+      private int circleEventCount;
 
-      SweepEventComparator(PrecisionModel precisionModel) {
+      SweepEventQueue(Collection<Coordinate> sites, PrecisionModel precisionModel) {
          this.precisionModel = precisionModel;
+         this.sites = sites.toArray(new Coordinate[sites.size()]);
+         Arrays.sort(this.sites, (lhs, rhs) -> Double.compare(
+                 precisionModel.makePrecise(lhs.x), precisionModel.makePrecise(rhs.x)));
+         int capacity = Math.max(16, sites.size());
+         circleEvents = new Object[capacity];
+         circleEventPositions = new double[capacity];
       }
 
-      @Override
-      public int compare(SweepEvent lhs, SweepEvent rhs) {
-         return new Double(precisionModel.makePrecise(lhs.getPosition())).compareTo(
-                 new Double(precisionModel.makePrecise(rhs.getPosition())));
+      boolean isEmpty() {
+         return nextSite == sites.length && circleEventCount == 0;
       }
-   }
 
-   static class SiteEvent implements SweepEvent {
+      boolean isSiteEventNext() {
+         return nextSite < sites.length && (circleEventCount == 0
+                 || precisionModel.makePrecise(sites[nextSite].x) <= circleEventPositions[0]);
+      }
 
-      Coordinate site;
+      Coordinate pollSiteEvent() {
+         return sites[nextSite++];
+      }
 
-      SiteEvent(Coordinate site) {
-         this.site = site;
+      CircleEvent<V> pollCircleEvent() {
+         CircleEvent<V> event = (CircleEvent<V>) circleEvents[0];
+         removeAt(0);
+         return event;
       }
 
-      @Override
-      public double getPosition() {
-         return site.x;
+      void add(CircleEvent<V> event) {
+         if (circleEventCount == circleEvents.length) {
+            circleEvents = Arrays.copyOf(circleEvents, circleEventCount * 2);
+            circleEventPositions = Arrays.copyOf(circleEventPositions, circleEventCount * 2);
+         }
+         int index = circleEventCount++;
+         circleEvents[index] = event;
+         circleEventPositions[index] = precisionModel.makePrecise(event.eventLocation.x);
+         event.heapIndex = index;
+         siftUp(index);
       }
-   }
 
-   static class CircleEvent<V> implements SweepEvent {
+      void cancel(CircleEvent<V> event) {
+         if (event.heapIndex >= 0) {
+            removeAt(event.heapIndex);
+         }
+         if (event.arc != null && event.arc.circleEvent == event) {
+            event.arc.circleEvent = null;
+         }
+         event.arc = null;
+      }
 
-      // The arc that will be removed by the circle event
-      Arc<V> arc;
-      Coordinate vertexLocation;
-      Coordinate eventLocation;
+      private void removeAt(int index) {
+         CircleEvent<?> removed = (CircleEvent<?>) circleEvents[index];
+         int last = --circleEventCount;
+         if (index != last) {
+            circleEvents[index] = circleEvents[last];
+            circleEventPositions[index] = circleEventPositions[last];
+            ((CircleEvent<?>) circleEvents[index]).heapIndex = index;
+            siftDown(index);
+            siftUp(index);
+         }
+         circleEvents[last] = null;
+         removed.heapIndex = -1;
+      }
 
-      CircleEvent(Arc<V> node, Coordinate vertexLocation, Coordinate eventLocation) {
-         this.arc = node;
-         this.vertexLocation = vertexLocation;
-         this.eventLocation = eventLocation;
+      private void siftUp(int index) {
+         while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (circleEventPositions[parent] <= circleEventPositions[index]) {
+               break;
+            }
+            swap(parent, index);
+            index = parent;
+         }
       }
 
-      @Override
-      public double getPosition() {
-         return eventLocation.x;
+      private void siftDown(int index) {
+         while (true) {
+            int child = 2 * index + 1;
+            if (child >= circleEventCount) {
+               break;
+            }
+            if (child + 1 < circleEventCount
+                    && circleEventPositions[child + 1] < circleEventPositions[child]) {
+               ++child;
+            }
+            if (circleEventPositions[index] <= circleEventPositions[child]) {
+               break;
+            }
+            swap(index, child);
+            index = child;
+         }
+      }
+
+      private void swap(int i, int j) {
+         Object event = circleEvents[i];
+         circleEvents[i] = circleEvents[j];
+         circleEvents[j] = event;
+         double position = circleEventPositions[i];
+         circleEventPositions[i] = circleEventPositions[j];
+         circleEventPositions[j] = position;
+         ((CircleEvent<?>) circleEvents[i]).heapIndex = i;
+         ((CircleEvent<?>) circleEvents[j]).heapIndex = j;
       }
    }
    private Collection<Coordinate> sites = new ArrayList<Coordinate>();
@@ -310,6 +456,7 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
    private Map<DirectedEdge<V>, Coordinate> faceToCoordinate = new HashMap<DirectedEdge<V>, Coordinate>();
    // Boundary of calculation
    private LinearRing boundary;
+   private IndexedPointInAreaLocator boundaryLocator;
    private GeometryFactory geometryFactory = new GeometryFactory();
    
    public FortuneVoronoiGraphGenerator(Set<V> vertices, PlanarLayout<V> layout, LinearRing boundary) {      
@@ -340,11 +487,13 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       List<V> boundaryVertices = new ArrayList<V>(boundary == null ? 0
               : boundary.getCoordinates().length);
 
+      boundaryLocator = null;
       if (boundary != null) {
           if (CGAlgorithms.signedArea(boundary.getCoordinates()) < 0)
             {
                throw new IllegalArgumentException("Boundary must be defined clockwise");
             } 
+          boundaryLocator = new IndexedPointInAreaLocator(geometryFactory.createPolygon(boundary, null));
           
          // Note that in a linear ring, end element equals start element
          for (int i = 0; i < boundary.getCoordinates().length - 1; ++i) {
@@ -359,10 +508,7 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       // Initialize with an empty beach tree line and just site events
       BeachLineTree<V> beachLineTree = new BeachLineTree<V>();
       if (!sites.isEmpty()) {
-         Queue<SweepEvent> eventQueue = new PriorityQueue<SweepEvent>(sites.size() * 2, new SweepEventComparator(geometryFactory.getPrecisionModel()));
-         for (Coordinate site : sites) {
-            eventQueue.add(new SiteEvent(site));
-         }
+         SweepEventQueue<V> eventQueue = new SweepEventQueue<V>(sites, geometryFactory.getPrecisionModel());
 
          while (!eventQueue.isEmpty()) {
             //printBeachLineTree(beachLineTree.head.left, System.out);
@@ -381,12 +527,11 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
    /**
     * Process the next event in the event queue
     */
-   private void processEventQueue(Queue<SweepEvent> eventQueue, BeachLineTree<V> beachLineTree, PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory) {
-      SweepEvent event = eventQueue.poll();
-      if (event instanceof SiteEvent) {
-         handleSiteEvent((SiteEvent) event, eventQueue, beachLineTree);
+   private void processEventQueue(SweepEventQueue<V> eventQueue, BeachLineTree<V> beachLineTree, PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory) {
+      if (eventQueue.isSiteEventNext()) {
+         handleSiteEvent(eventQueue.pollSiteEvent(), eventQueue, beachLineTree);
       } else {
-         handleCircleEvent((CircleEvent) event, eventQueue, beachLineTree, graph, vertexFactory);
+         handleCircleEvent(eventQueue.pollCircleEvent(), eventQueue, beachLineTree, graph, vertexFactory);
       }
    }
 
@@ -399,50 +544,74 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       // Connect these to the boundary, if specified      
       //printBeachLineTree(beachLineTree.head.left, System.out);
       if (boundary != null) {
-         for (BreakPoint<V> brk : beachLineTree.getInorderBreaks()) {
-            V sourceVertex = brk.sourceVertex;
-            V beforeVertex = brk.prevVertex;
-            Coordinate sourceSite = vertexToCoordinate.get(sourceVertex);
+         List<BreakPoint<V>> breaks = beachLineTree.getInorderBreaks();
 
+         // Find the half lines to clip against the boundary
+         List<LineSegment> halfLines = new ArrayList<LineSegment>(breaks.size());
+         for (BreakPoint<V> brk : breaks) {
             Arc<V> leftArc = beachLineTree.getLeftArc(brk);
             Arc<V> rightArc = beachLineTree.getRightArc(brk);
 
-            if (sourceVertex == null) {
+            if (brk.sourceVertex == null) {
                if (brk.twin != null) {
                   // The midline between two sites, terminated at both ends by the boundary
                   Coordinate midSite = new Coordinate((leftArc.site.x + rightArc.site.x) / 2.,
                           (leftArc.site.y + rightArc.site.y) / 2.);
-
-                  // Create a vertex at each boundary interception
-                  V firstBoundaryVertex = createVertexAtBoundaryInterception(new LineSegment(midSite,
+                  halfLines.add(new LineSegment(midSite,
                           new Coordinate(midSite.x + rightArc.site.y - leftArc.site.y,
-                          midSite.y + leftArc.site.x - rightArc.site.x)),
-                          boundaryVertices,
-                          vertexFactory,
-                          this);
-
-                  V secondBoundaryVertex = createVertexAtBoundaryInterception(new LineSegment(midSite,
+                          midSite.y + leftArc.site.x - rightArc.site.x)));
+                  halfLines.add(new LineSegment(midSite,
                           new Coordinate(midSite.x + leftArc.site.y - rightArc.site.y,
-                          midSite.y + rightArc.site.x - leftArc.site.x)),
-                          boundaryVertices,
-                          vertexFactory,
-                          this);
+                          midSite.y + rightArc.site.x - leftArc.site.x)));
+
+                  // Prevent the twin from causing a duplicate edge
+                  brk.twin.twin = null;
+               }
+            } else {
+               Coordinate sourceSite = vertexToCoordinate.get(brk.sourceVertex);
+               halfLines.add(new LineSegment(sourceSite,
+                       new Coordinate(sourceSite.x + leftArc.site.y - rightArc.site.y,
+                       sourceSite.y + rightArc.site.x - leftArc.site.x)));
+            }
+         }
+
+         // Clip the half lines against the boundary in parallel
+         BoundarySegmentIndex<V> boundaryIndex = new BoundarySegmentIndex<V>(boundaryVertices, this);
+         int[] segmentIndices = new int[halfLines.size()];
+         Coordinate[] intersections = new Coordinate[halfLines.size()];
+         IntStream.range(0, halfLines.size()).parallel().forEach(i -> {
+            LineSegment halfLine = halfLines.get(i);
+            segmentIndices[i] = boundaryIndex.getNearestInterceptingLineSegment(halfLine);
+            if (segmentIndices[i] >= 0) {
+               intersections[i] = boundaryIndex.getLineSegment(segmentIndices[i]).lineIntersection(halfLine);
+            }
+         });
+
+         // Create the boundary vertices and edges
+         int halfLineIndex = 0;
+         for (BreakPoint<V> brk : breaks) {
+            V sourceVertex = brk.sourceVertex;
+            V beforeVertex = brk.prevVertex;
+
+            if (sourceVertex == null) {
+               if (brk.twin != null) {
+                  // Create a vertex at each boundary interception
+                  V firstBoundaryVertex = createVertexAtBoundaryInterception(segmentIndices[halfLineIndex],
+                          intersections[halfLineIndex], boundaryIndex, vertexFactory);
+                  ++halfLineIndex;
+                  V secondBoundaryVertex = createVertexAtBoundaryInterception(segmentIndices[halfLineIndex],
+                          intersections[halfLineIndex], boundaryIndex, vertexFactory);
+                  ++halfLineIndex;
 
                   // Create the edge 
                   E edge = graph.getEdgeFactory().createEdge(firstBoundaryVertex, secondBoundaryVertex);
                   graph.addEdge(firstBoundaryVertex, secondBoundaryVertex, null, null, edge);
-
-                  // Prevent the twin from causing a duplicate edge
-                  brk.twin.twin = null;
                   brk.twin = null;
                }
             } else {
-               V boundaryVertex = createVertexAtBoundaryInterception(new LineSegment(sourceSite,
-                       new Coordinate(sourceSite.x + leftArc.site.y - rightArc.site.y,
-                       sourceSite.y + rightArc.site.x - leftArc.site.x)),
-                       boundaryVertices,
-                       vertexFactory,
-                       this);
+               V boundaryVertex = createVertexAtBoundaryInterception(segmentIndices[halfLineIndex],
+                       intersections[halfLineIndex], boundaryIndex, vertexFactory);
+               ++halfLineIndex;
                if (boundaryVertex != null) {
                   // Create the new edge to this boundary intercept
                   E edge = graph.getEdgeFactory().createEdge(sourceVertex, boundaryVertex);
@@ -451,6 +620,7 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
             }
          }
 
+         boundaryVertices = boundaryIndex.getBoundaryVertices();
          Collections.reverse(boundaryVertices);
          for (int prevItr = 0; prevItr < boundaryVertices.size(); ++prevItr) {
             int itr = (prevItr + 1) % boundaryVertices.size();
@@ -472,8 +642,7 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       }
    }
 
-   private void handleSiteEvent(SiteEvent siteEvent, Queue<SweepEvent> eventQueue, BeachLineTree<V> beachLineTree) {
-      Coordinate site = siteEvent.site;
+   private void handleSiteEvent(Coordinate site, SweepEventQueue<V> eventQueue, BeachLineTree<V> beachLineTree) {
 
       if (beachLineTree.head.left == null) {
          Arc<V> firstArc = new Arc<V>(site);
@@ -483,11 +652,9 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
          // Search for the arc to the left of this site
          Arc<V> intersectArc = findIntersectionArc(site, beachLineTree.head.left, beachLineTree);
 
-         // If this arc has a circle event, it is a false alarm, mark it as invalid              
-         // by setting it's owning arc to null. This avoids the O(n) time required to find
-         // it and delete it in the queue. When it is eventually encountered, it will be discarded.
+         // If this arc has a circle event, it is a false alarm
          if (intersectArc.circleEvent != null) {
-            intersectArc.circleEvent.arc = null;
+            eventQueue.cancel(intersectArc.circleEvent);
          }
 
          // Get the arcs left and right, these are required for circle event checking
@@ -498,13 +665,26 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
          Arc<V> rightIntersectArc = new Arc<V>(intersectArc.site);
 
          // Replace the intersected arc with the three new arcs and two break points
+         BreakPoint<V> leftBreak = new BreakPoint<V>(
+                 leftIntersectArc,
+                 rightIntersectArc);
+         beachLineTree.insert(intersectArc, leftBreak);
+
          BreakPoint<V> rightBreak = new BreakPoint<V>(
                  newArc,
-                 rightIntersectArc);
+                 null);
+         beachLineTree.insert(rightIntersectArc, rightBreak);
 
-         BreakPoint<V> leftBreak = new BreakPoint<V>(
-                 leftIntersectArc,
-                 rightBreak);
+         leftBreak.leftArc = leftIntersectArc;
+         leftBreak.rightArc = newArc;
+         rightBreak.leftArc = newArc;
+         rightBreak.rightArc = rightIntersectArc;
+         if (intersectArc.leftBreak != null) {
+            intersectArc.leftBreak.rightArc = leftIntersectArc;
+         }
+         if (intersectArc.rightBreak != null) {
+            intersectArc.rightBreak.leftArc = rightIntersectArc;
+         }
 
          leftIntersectArc.leftBreak = intersectArc.leftBreak;
          leftIntersectArc.rightBreak = leftBreak;
@@ -515,17 +695,15 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
          rightBreak.twin = leftBreak;
          leftBreak.twin = rightBreak;
 
-         BeachLineTree.replace(intersectArc, leftBreak);
-
          // Check the two triples of consecutive arcs for converging break lines         
          checkForCircleEvent(leftArc, leftIntersectArc, newArc, eventQueue);
          checkForCircleEvent(newArc, rightIntersectArc, rightArc, eventQueue);
       }
    }
 
-   private void handleCircleEvent(CircleEvent circleEvent, Queue<SweepEvent> eventQueue, BeachLineTree<V> beachLineTree, PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory) {
+   private void handleCircleEvent(CircleEvent<V> circleEvent, SweepEventQueue<V> eventQueue, BeachLineTree<V> beachLineTree, PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory) {
 
-      // The circle event may have been marked as a false alarm
+      // False alarms are deleted from the queue when cancelled
       if (circleEvent.arc != null) {
          // Remove the circle events for the two neightbouring arcs         
          Arc<V> leftArc = beachLineTree.getLeftArc(circleEvent.arc);
@@ -533,10 +711,9 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
          BreakPoint<V> leftBreak = circleEvent.arc.leftBreak;
          BreakPoint<V> rightBreak = circleEvent.arc.rightBreak;
   
-         for (Arc arc : new Arc[]{leftArc, rightArc}) {
+         for (Arc<V> arc : Arrays.asList(leftArc, rightArc)) {
             if (arc.circleEvent != null) {
-               arc.circleEvent.arc = null;
-               arc.circleEvent = null;
+               eventQueue.cancel(arc.circleEvent);
             }
          }
 
@@ -586,6 +763,8 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
          //newBreak.leftSite = leftArc.site;
          newBreak.twin = null;
          newBreak.sourcePrev = rightBreakTwin;
+         newBreak.leftArc = leftArc;
+         newBreak.rightArc = rightArc;
 
          if (leftBreakTwin != null) {
             leftBreakTwin.sourcePrev = newBreak;
@@ -607,15 +786,13 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
    private void checkForCircleEvent(final Arc<V> topArc,
            final Arc<V> middleArc,
            final Arc<V> bottomArc,
-           Queue<SweepEvent> eventQueue) {
+           SweepEventQueue<V> eventQueue) {
       if (bottomArc != null && middleArc != null && topArc != null) {
          // Check for intersection of the *half-line* bisectors
-         if (Angle.getTurn(Angle.angle(bottomArc.site, middleArc.site),
-                 Angle.angle(middleArc.site, topArc.site))
-                 == Angle.CLOCKWISE) {
+         if (RobustPredicates.orient2d(bottomArc.site, middleArc.site, topArc.site) < 0) {
             Coordinate circumcenter = Triangle.circumcentre(bottomArc.site, middleArc.site, topArc.site);
 
-            if (boundary == null || CGAlgorithms.isPointInRing(circumcenter, boundary.getCoordinates())) {
+            if (boundaryLocator == null || boundaryLocator.locate(circumcenter) != Location.EXTERIOR) {
                CircleEvent<V> event = new CircleEvent<V>(middleArc, circumcenter,
                        new Coordinate(circumcenter.x + Math.sqrt(Math.pow(bottomArc.site.x - circumcenter.x, 2) + Math.pow(bottomArc.site.y - circumcenter.y, 2)), circumcenter.y));
 
@@ -627,7 +804,7 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
    }
 
    // Find the arc that intersects the line y = x0 with the directrix x
-   // O(log n)
+   // O(log n) expected
    private Arc<V> findIntersectionArc(final Coordinate site, final Node<V> start, final BeachLineTree<V> beachLineTree) {
       Node<V> node = start;
       while (node instanceof BreakPoint) {
@@ -665,22 +842,14 @@ public class FortuneVoronoiGraphGenerator<V, E> implements PlanarGraphGenerator<
       return (Arc<V>) node;
    }
 
-   private V createVertexAtBoundaryInterception(LineSegment halfLine, List<V> boundaryVertices, VertexFactory<V> vertexFactory, PlanarLayout<V> layout) {
+   private V createVertexAtBoundaryInterception(int segmentIndex, Coordinate intersection, BoundarySegmentIndex<V> boundaryIndex, VertexFactory<V> vertexFactory) {
       V boundaryVertex = null;
-      int segmentIndex = PlanarGraphs.getNearestInterceptingLineSegment(halfLine, boundaryVertices, layout);
       if (segmentIndex >= 0) {
-         int nextItr = (segmentIndex + 1) % boundaryVertices.size();
-         LineSegment boundarySegment = PlanarGraphs.getLineSegment(segmentIndex, boundaryVertices, layout);
-         Coordinate intersection = boundarySegment.lineIntersection(halfLine);
-
-         if (intersection.equals(boundarySegment.p0)) {
-            boundaryVertex = boundaryVertices.get(segmentIndex);
-         } else if (intersection.equals(boundarySegment.p1)) {
-            boundaryVertex = boundaryVertices.get(nextItr);
-         } else {
+         boundaryVertex = boundaryIndex.getVertex(segmentIndex, intersection);
+         if (boundaryVertex == null) {
             boundaryVertex = vertexFactory.createVertex();
             vertexToCoordinate.put(boundaryVertex, intersection);
-            boundaryVertices.add(nextItr, boundaryVertex);
+            boundaryIndex.addVertex(segmentIndex, boundaryVertex, intersection);
          }
       }
 
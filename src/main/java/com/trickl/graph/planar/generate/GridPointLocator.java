@@ -0,0 +1,140 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * A jump-and-walk locator, that remembers the last vertex inserted in each cell
+ * of a uniform grid over the bounds. The walk begins from the vertex in the
+ * cell of the site, or failing that the nearest occupied cell. With a randomized
+ * insertion order the expected walk is constant for evenly distributed sites.
+ * @param <V> Vertex type
+ */
+public class GridPointLocator<V> implements DelaunayPointLocator<V> {
+
+   private final double sitesPerCell;
+   private Object[] cells;
+   private int columns;
+   private int rows;
+   private double minX;
+   private double minY;
+   private double cellWidth;
+   private double cellHeight;
+   private int occupiedCells;
+
+   public GridPointLocator() {
+      this(2);
+   }
+
+   /**
+    * @param sitesPerCell The average number of sites per cell once all sites are
+    * inserted
+    */
+   public GridPointLocator(double sitesPerCell) {
+      if (sitesPerCell <= 0) {
+         throw new IllegalArgumentException("Sites per cell must be positive.");
+      }
+      this.sitesPerCell = sitesPerCell;
+   }
+
+   @Override
+   public void initialize(Envelope bounds, int siteCount) {
+      int cellsPerSide = Math.max(1, (int) Math.sqrt(siteCount / sitesPerCell));
+      columns = bounds.getWidth() > 0 ? cellsPerSide : 1;
+      rows = bounds.getHeight() > 0 ? cellsPerSide : 1;
+      minX = bounds.getMinX();
+      minY = bounds.getMinY();
+      cellWidth = bounds.getWidth() > 0 ? bounds.getWidth() / columns : 1;
+      cellHeight = bounds.getHeight() > 0 ? bounds.getHeight() / rows : 1;
+      cells = new Object[columns * rows];
+      occupiedCells = 0;
+   }
+
+   @Override
+   public V getNearbyVertex(Coordinate site) {
+      if (occupiedCells == 0) {
+         return null;
+      }
+
+      int column = getColumn(site.x);
+      int row = getRow(site.y);
+      if (cells[row * columns + column] != null) {
+         return (V) cells[row * columns + column];
+      }
+
+      // Search rings of cells of increasing radius
+      int maxRadius = Math.max(columns, rows);
+      for (int radius = 1; radius < maxRadius; ++radius) {
+         for (int i = -radius; i <= radius; ++i) {
+            Object vertex = getCell(column + i, row - radius);
+            if (vertex == null) vertex = getCell(column + i, row + radius);
+            if (vertex == null) vertex = getCell(column - radius, row + i);
+            if (vertex == null) vertex = getCell(column + radius, row + i);
+            if (vertex != null) {
+               return (V) vertex;
+            }
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public void vertexInserted(V vertex, Coordinate site) {
+      int index = getRow(site.y) * columns + getColumn(site.x);
+      if (cells[index] == null) {
+         ++occupiedCells;
+      }
+      cells[index] = vertex;
+   }
+
+   @Override
+   public void vertexRemoved(V vertex, Coordinate site, V neighbour, Coordinate neighbourSite) {
+      int index = getRow(site.y) * columns + getColumn(site.x);
+      if (vertex.equals(cells[index])) {
+         // A cell only ever holds a vertex whose site lies in the cell, so that
+         // removing or moving that vertex later is seen here
+         if (neighbour != null
+                 && getRow(neighbourSite.y) * columns + getColumn(neighbourSite.x) == index) {
+            cells[index] = neighbour;
+         } else {
+            cells[index] = null;
+            --occupiedCells;
+         }
+      }
+   }
+
+   private Object getCell(int column, int row) {
+      if (column < 0 || column >= columns || row < 0 || row >= rows) {
+         return null;
+      }
+      return cells[row * columns + column];
+   }
+
+   private int getColumn(double x) {
+      return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellWidth)));
+   }
+
+   private int getRow(double y) {
+      return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellHeight)));
+   }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Begins each walk from the last inserted vertex. This is efficient when
+ * consecutive sites are close together, but with randomized insertion order
+ * the expected walk is O(n^1/2).
+ * @param <V> Vertex type
+ */
+public class LastVertexPointLocator<V> implements DelaunayPointLocator<V> {
+
+   private V lastVertex;
+
+   @Override
+   public void initialize(Envelope bounds, int siteCount) {
+      lastVertex = null;
+   }
+
+   @Override
+   public V getNearbyVertex(Coordinate site) {
+      return lastVertex;
+   }
+
+   @Override
+   public void vertexInserted(V vertex, Coordinate site) {
+      lastVertex = vertex;
+   }
+
+   @Override
+   public void vertexRemoved(V vertex, Coordinate site, V neighbour, Coordinate neighbourSite) {
+      if (vertex.equals(lastVertex)) {
+         lastVertex = neighbour;
+      }
+   }
+}
@@ -0,0 +1,505 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.planar.PlanarLayout;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import org.jgrapht.VertexFactory;
+
+/**
+* A divide and conquer delaunay generator, following Guibas and Stolfi, "Primitives for the
+* Manipulation of General Subdivisions and the Computation of Voronoi Diagrams".
+* Sites are sorted and split at the median x coordinate, the halves are triangulated as
+* tasks on a ForkJoinPool and the results joined by the Guibas-Stolfi merge step.
+* The triangulation is held in int indexed half edges, and is only added to the target graph,
+* on the calling thread, once it is complete.
+* @author tgee
+*/
+public class ParallelDelaunayGraphGenerator<V, E> implements PlanarGraphGenerator<V, E, V>, PlanarLayout<V> {
+
+   private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+   private int sequentialThreshold = 1 << 13;
+   private final List<V> vertices;
+   private final Map<V, Integer> vertexToIndex;
+   private final double[] siteCoordinates;
+
+   // Sites sorted by x then y, with duplicates removed
+   private int[] sortedSites;
+   private double[] x;
+   private double[] y;
+
+   // Half edges 2k and 2k + 1 form edge k, origin rings are doubly linked
+   private int[] origin;
+   private int[] onext;
+   private int[] oprev;
+
+   // The edges of a triangulated range of sorted sites, with a list of its unused edge slots
+   private static class Subdivision {
+      // Anticlockwise hull edge leaving the leftmost site
+      private int leftEdge;
+      // Clockwise hull edge leaving the rightmost site
+      private int rightEdge;
+      private int freeHead = -1;
+      private int freeTail = -1;
+   }
+
+   public ParallelDelaunayGraphGenerator(Set<V> vertices, PlanarLayout<V> layout) {
+      this.vertices = new ArrayList<V>(vertices);
+      this.vertexToIndex = new HashMap<V, Integer>();
+      this.siteCoordinates = new double[2 * vertices.size()];
+      for (V vertex : this.vertices) {
+         addIndex(vertex, layout.getCoordinate(vertex));
+      }
+   }
+
+   public ParallelDelaunayGraphGenerator(Collection<Coordinate> sites, VertexFactory<V> vertexFactory) {
+      this.vertices = new ArrayList<V>(sites.size());
+      this.vertexToIndex = new HashMap<V, Integer>();
+      this.siteCoordinates = new double[2 * sites.size()];
+      for (Coordinate site : sites) {
+         V vertex = vertexFactory.createVertex();
+         vertices.add(vertex);
+         addIndex(vertex, site);
+      }
+   }
+
+   private void addIndex(V vertex, Coordinate site) {
+      int index = vertexToIndex.size();
+      vertexToIndex.put(vertex, index);
+      siteCoordinates[2 * index] = site.x;
+      siteCoordinates[2 * index + 1] = site.y;
+   }
+
+   @Override
+   public void generateGraph(PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory,
+           java.util.Map<java.lang.String, V> resultMap) {
+
+      if (vertices.isEmpty()) {
+         return;
+      }
+
+      sortSites();
+      int siteCount = sortedSites.length;
+      for (int i = 0; i < siteCount; ++i) {
+         graph.addVertex(vertices.get(sortedSites[i]));
+      }
+
+      if (siteCount >= 2) {
+         origin = new int[6 * siteCount];
+         onext = new int[6 * siteCount];
+         oprev = new int[6 * siteCount];
+         Arrays.fill(origin, -1);
+         forkJoinPool.invoke(new TriangulateTask(0, siteCount));
+         emitGraph(graph);
+      }
+
+      sortedSites = null;
+      x = null;
+      y = null;
+      origin = null;
+      onext = null;
+      oprev = null;
+   }
+
+   @Override
+   public Coordinate getCoordinate(V vertex) {
+      Integer index = vertexToIndex.get(vertex);
+      if (index == null) {
+         return null;
+      }
+      return new Coordinate(siteCoordinates[2 * index], siteCoordinates[2 * index + 1]);
+   }
+
+   private void sortSites() {
+      int[] sites = new int[vertices.size()];
+      for (int i = 0; i < sites.length; ++i) {
+         sites[i] = i;
+      }
+      forkJoinPool.invoke(new SortTask(sites, new int[sites.length], 0, sites.length));
+
+      // Duplicates are ignored
+      int siteCount = 0;
+      for (int i = 0; i < sites.length; ++i) {
+         if (siteCount == 0 || compareSites(sites[siteCount - 1], sites[i]) != 0) {
+            sites[siteCount++] = sites[i];
+         }
+      }
+
+      sortedSites = Arrays.copyOf(sites, siteCount);
+      x = new double[siteCount];
+      y = new double[siteCount];
+      for (int i = 0; i < siteCount; ++i) {
+         x[i] = siteCoordinates[2 * sortedSites[i]];
+         y[i] = siteCoordinates[2 * sortedSites[i] + 1];
+      }
+   }
+
+   private int compareSites(int lhs, int rhs) {
+      int compare = Double.compare(siteCoordinates[2 * lhs], siteCoordinates[2 * rhs]);
+      return compare != 0 ? compare : Double.compare(siteCoordinates[2 * lhs + 1], siteCoordinates[2 * rhs + 1]);
+   }
+
+   private class SortTask extends RecursiveAction {
+
+      private final int[] sites;
+      private final int[] buffer;
+      private final int lo;
+      private final int hi;
+
+      SortTask(int[] sites, int[] buffer, int lo, int hi) {
+         this.sites = sites;
+         this.buffer = buffer;
+         this.lo = lo;
+         this.hi = hi;
+      }
+
+      @Override
+      protected void compute() {
+         if (hi - lo <= 32) {
+            for (int i = lo + 1; i < hi; ++i) {
+               int site = sites[i];
+               int j = i - 1;
+               for (; j >= lo && compareSites(sites[j], site) > 0; --j) {
+                  sites[j + 1] = sites[j];
+               }
+               sites[j + 1] = site;
+            }
+            return;
+         }
+
+         int mid = (lo + hi) >>> 1;
+         SortTask left = new SortTask(sites, buffer, lo, mid);
+         SortTask right = new SortTask(sites, buffer, mid, hi);
+         if (hi - lo > sequentialThreshold) {
+            invokeAll(left, right);
+         } else {
+            left.compute();
+            right.compute();
+         }
+
+         int i = lo, j = mid, k = lo;
+         while (i < mid && j < hi) {
+            buffer[k++] = compareSites(sites[j], sites[i]) < 0 ? sites[j++] : sites[i++];
+         }
+         while (i < mid) {
+            buffer[k++] = sites[i++];
+         }
+         while (j < hi) {
+            buffer[k++] = sites[j++];
+         }
+         System.arraycopy(buffer, lo, sites, lo, hi - lo);
+      }
+   }
+
+   private class TriangulateTask extends RecursiveTask<Subdivision> {
+
+      private final int lo;
+      private final int hi;
+
+      TriangulateTask(int lo, int hi) {
+         this.lo = lo;
+         this.hi = hi;
+      }
+
+      @Override
+      protected Subdivision compute() {
+         if (hi - lo <= Math.max(3, sequentialThreshold)) {
+            return triangulate(lo, hi);
+         }
+
+         int mid = (lo + hi) >>> 1;
+         TriangulateTask left = new TriangulateTask(lo, mid);
+         left.fork();
+         Subdivision right = new TriangulateTask(mid, hi).compute();
+         return merge(left.join(), right);
+      }
+   }
+
+   // Each range of m sites owns the edge slots [3 lo, 3 hi), enough for any planar graph on m sites
+   private Subdivision triangulate(int lo, int hi) {
+      int siteCount = hi - lo;
+      if (siteCount > 3) {
+         int mid = (lo + hi) >>> 1;
+         return merge(triangulate(lo, mid), triangulate(mid, hi));
+      }
+
+      Subdivision subdivision = new Subdivision();
+      for (int edge = 3 * hi - 1; edge >= 3 * lo; --edge) {
+         free(subdivision, edge);
+      }
+
+      if (siteCount == 2) {
+         int a = makeEdge(subdivision, lo, lo + 1);
+         subdivision.leftEdge = a;
+         subdivision.rightEdge = a ^ 1;
+      } else {
+         int a = makeEdge(subdivision, lo, lo + 1);
+         int b = makeEdge(subdivision, lo + 1, lo + 2);
+         splice(a ^ 1, b);
+
+         if (isCounterClockwise(lo, lo + 1, lo + 2)) {
+            connect(subdivision, b, a);
+            subdivision.leftEdge = a;
+            subdivision.rightEdge = b ^ 1;
+         } else if (isCounterClockwise(lo, lo + 2, lo + 1)) {
+            int c = connect(subdivision, b, a);
+            subdivision.leftEdge = c ^ 1;
+            subdivision.rightEdge = c;
+         } else {
+            // Collinear
+            subdivision.leftEdge = a;
+            subdivision.rightEdge = b ^ 1;
+         }
+      }
+
+      return subdivision;
+   }
+
+   private Subdivision merge(Subdivision left, Subdivision right) {
+      Subdivision merged = new Subdivision();
+      merged.freeHead = left.freeHead;
+      merged.freeTail = left.freeTail;
+      if (right.freeHead >= 0) {
+         if (merged.freeHead < 0) {
+            merged.freeHead = right.freeHead;
+         } else {
+            onext[2 * merged.freeTail] = right.freeHead;
+         }
+         merged.freeTail = right.freeTail;
+      }
+
+      int ldo = left.leftEdge;
+      int ldi = left.rightEdge;
+      int rdi = right.leftEdge;
+      int rdo = right.rightEdge;
+
+      // Find the lower common tangent of the two hulls
+      while (true) {
+         if (isLeftOf(origin[rdi], ldi)) {
+            ldi = lnext(ldi);
+         } else if (isRightOf(origin[ldi], rdi)) {
+            rdi = rprev(rdi);
+         } else {
+            break;
+         }
+      }
+
+      int basel = connect(merged, rdi ^ 1, ldi);
+      if (origin[ldi] == origin[ldo]) {
+         ldo = basel ^ 1;
+      }
+      if (origin[rdi] == origin[rdo]) {
+         rdo = basel;
+      }
+
+      // Zip the two triangulations together from the bottom up
+      while (true) {
+         int lcand = onext[basel ^ 1];
+         if (isValid(lcand, basel)) {
+            while (isInCircle(dest(basel), origin[basel], dest(lcand), dest(onext[lcand]))) {
+               int next = onext[lcand];
+               deleteEdge(merged, lcand);
+               lcand = next;
+            }
+         }
+
+         int rcand = oprev[basel];
+         if (isValid(rcand, basel)) {
+            while (isInCircle(dest(basel), origin[basel], dest(rcand), dest(oprev[rcand]))) {
+               int next = oprev[rcand];
+               deleteEdge(merged, rcand);
+               rcand = next;
+            }
+         }
+
+         boolean lcandValid = isValid(lcand, basel);
+         boolean rcandValid = isValid(rcand, basel);
+         if (!lcandValid && !rcandValid) {
+            break;
+         }
+
+         if (!lcandValid || (rcandValid
+                 && isInCircle(dest(lcand), origin[lcand], origin[rcand], dest(rcand)))) {
+            basel = connect(merged, rcand, basel ^ 1);
+         } else {
+            basel = connect(merged, basel ^ 1, lcand ^ 1);
+         }
+      }
+
+      merged.leftEdge = ldo;
+      merged.rightEdge = rdo;
+      return merged;
+   }
+
+   private int dest(int halfEdge) {
+      return origin[halfEdge ^ 1];
+   }
+
+   private int lnext(int halfEdge) {
+      return oprev[halfEdge ^ 1];
+   }
+
+   private int rprev(int halfEdge) {
+      return onext[halfEdge ^ 1];
+   }
+
+   private int makeEdge(Subdivision subdivision, int source, int target) {
+      int edge = subdivision.freeHead;
+      if (edge < 0) {
+         throw new IllegalStateException("No free edges in subdivision.");
+      }
+      subdivision.freeHead = onext[2 * edge];
+      if (subdivision.freeHead < 0) {
+         subdivision.freeTail = -1;
+      }
+
+      int halfEdge = 2 * edge;
+      origin[halfEdge] = source;
+      origin[halfEdge + 1] = target;
+      onext[halfEdge] = halfEdge;
+      oprev[halfEdge] = halfEdge;
+      onext[halfEdge + 1] = halfEdge + 1;
+      oprev[halfEdge + 1] = halfEdge + 1;
+      return halfEdge;
+   }
+
+   private void free(Subdivision subdivision, int edge) {
+      origin[2 * edge] = -1;
+      origin[2 * edge + 1] = -1;
+      onext[2 * edge] = subdivision.freeHead;
+      subdivision.freeHead = edge;
+      if (subdivision.freeTail < 0) {
+         subdivision.freeTail = edge;
+      }
+   }
+
+   private void splice(int a, int b) {
+      int alpha = onext[a];
+      int beta = onext[b];
+      onext[a] = beta;
+      onext[b] = alpha;
+      oprev[beta] = a;
+      oprev[alpha] = b;
+   }
+
+   // Add an edge from the destination of a to the origin of b
+   private int connect(Subdivision subdivision, int a, int b) {
+      int halfEdge = makeEdge(subdivision, dest(a), origin[b]);
+      splice(halfEdge, lnext(a));
+      splice(halfEdge ^ 1, b);
+      return halfEdge;
+   }
+
+   private void deleteEdge(Subdivision subdivision, int halfEdge) {
+      splice(halfEdge, oprev[halfEdge]);
+      splice(halfEdge ^ 1, oprev[halfEdge ^ 1]);
+      free(subdivision, halfEdge >> 1);
+   }
+
+   private boolean isValid(int halfEdge, int basel) {
+      return isRightOf(dest(halfEdge), basel);
+   }
+
+   private boolean isRightOf(int site, int halfEdge) {
+      return isCounterClockwise(site, dest(halfEdge), origin[halfEdge]);
+   }
+
+   private boolean isLeftOf(int site, int halfEdge) {
+      return isCounterClockwise(site, origin[halfEdge], dest(halfEdge));
+   }
+
+   private boolean isCounterClockwise(int a, int b, int c) {
+      return RobustPredicates.orient2d(x[a], y[a], x[b], y[b], x[c], y[c]) > 0;
+   }
+
+   private boolean isInCircle(int a, int b, int c, int d) {
+      return RobustPredicates.incircle(x[a], y[a], x[b], y[b], x[c], y[c], x[d], y[d]) > 0;
+   }
+
+   private void emitGraph(PlanarGraph<V, E> graph) {
+      new TriangulationEmitter<V, E>() {
+         @Override
+         int getHalfEdgeCount() {
+            return origin.length;
+         }
+
+         @Override
+         int getOrigin(int halfEdge) {
+            return origin[halfEdge];
+         }
+
+         @Override
+         int getTwin(int halfEdge) {
+            return halfEdge ^ 1;
+         }
+
+         @Override
+         int getNext(int halfEdge) {
+            return lnext(halfEdge);
+         }
+
+         @Override
+         int getClockwise(int halfEdge) {
+            return oprev[halfEdge];
+         }
+
+         @Override
+         int getAnticlockwise(int halfEdge) {
+            return onext[halfEdge];
+         }
+
+         @Override
+         boolean isTriangle(int halfEdge) {
+            // The hull is also a cycle, but clockwise
+            int second = lnext(halfEdge);
+            int third = lnext(second);
+            return lnext(third) == halfEdge
+                    && isCounterClockwise(origin[halfEdge], origin[second], origin[third]);
+         }
+
+         @Override
+         V getVertex(int origin) {
+            return vertices.get(sortedSites[origin]);
+         }
+      }.emit(graph);
+   }
+
+   public ForkJoinPool getForkJoinPool() {
+      return forkJoinPool;
+   }
+
+   public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+   }
+
+   public int getSequentialThreshold() {
+      return sequentialThreshold;
+   }
+
+   public void setSequentialThreshold(int sequentialThreshold) {
+      this.sequentialThreshold = sequentialThreshold;
+   }
+}
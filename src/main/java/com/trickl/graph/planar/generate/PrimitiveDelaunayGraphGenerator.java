@@ -0,0 +1,462 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.planar.PlanarLayout;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.util.*;
+import org.jgrapht.VertexFactory;
+
+/**
+* A delaunay generator producing the same triangulation as the DelaunayGraphGenerator, but
+* working on primitive coordinates and an int indexed half edge structure internally.
+* Sites are inserted in random order into a bounding triangle, located by a walk started from
+* a grid of recently created triangles, and the Delaunay property is restored by edge flips.
+* The vertices and edges are only added to the target graph once the triangulation is complete.
+* @author tgee
+*/
+public class PrimitiveDelaunayGraphGenerator<V, E> implements PlanarGraphGenerator<V, E, V>, PlanarLayout<V> {
+
+   private RandomEngine randomEngine = new MersenneTwister();
+   private final List<V> vertices;
+   private final Map<V, Integer> vertexToIndex;
+   
+   // Site coordinates stored as x0, y0, x1, y1..., the bounding triangle follows the sites
+   private double[] coordinates;
+   private final int siteCount;
+
+   // Three half edges per triangle, the next half edge is implicit
+   private int[] halfEdgeOrigin;
+   private int[] halfEdgeTwin;
+   private int triangleCount;
+   private int[] flipStack;
+   private int walkSeed;
+
+   // Coarse grid of recently created triangles, used to start the point location
+   private int[] gridTriangles;
+   private int gridSize;
+   private double gridMinX;
+   private double gridMinY;
+   private double gridCellWidth;
+   private double gridCellHeight;
+   private int lastTriangle;
+
+   public PrimitiveDelaunayGraphGenerator(Set<V> vertices, PlanarLayout<V> layout) {
+      this.vertices = new ArrayList<V>(vertices);
+      this.vertexToIndex = new HashMap<V, Integer>();
+      this.siteCount = vertices.size();
+      this.coordinates = new double[2 * (siteCount + 3)];
+      for (V vertex : this.vertices) {
+         addIndex(vertex, layout.getCoordinate(vertex));
+      }
+   }
+
+   public PrimitiveDelaunayGraphGenerator(Collection<Coordinate> sites, VertexFactory<V> vertexFactory) {
+      this.vertices = new ArrayList<V>(sites.size());
+      this.vertexToIndex = new HashMap<V, Integer>();
+      this.siteCount = sites.size();
+      this.coordinates = new double[2 * (siteCount + 3)];
+      for (Coordinate site : sites) {
+         V vertex = vertexFactory.createVertex();
+         vertices.add(vertex);
+         addIndex(vertex, site);
+      }
+   }
+
+   private void addIndex(V vertex, Coordinate site) {
+      int index = vertexToIndex.size();
+      vertexToIndex.put(vertex, index);
+      coordinates[2 * index] = site.x;
+      coordinates[2 * index + 1] = site.y;
+   }
+
+   @Override
+   public void generateGraph(PlanarGraph<V, E> graph, VertexFactory<V> vertexFactory,
+           java.util.Map<java.lang.String, V> resultMap) {
+
+      if (siteCount == 0) {
+         return;
+      }
+
+      int maxTriangles = 2 * (siteCount + 3);
+      halfEdgeOrigin = new int[3 * maxTriangles];
+      halfEdgeTwin = new int[3 * maxTriangles];
+      flipStack = new int[64];
+      triangleCount = 0;
+      walkSeed = 1;
+
+      // First contain all points in a boundary
+      createBounds();
+
+      boolean[] inserted = new boolean[siteCount];
+      for (int site : getShuffledSites()) {
+         inserted[site] = addSite(site);
+      }
+
+      emitGraph(graph, inserted);
+
+      halfEdgeOrigin = null;
+      halfEdgeTwin = null;
+      flipStack = null;
+      gridTriangles = null;
+   }
+
+   @Override
+   public Coordinate getCoordinate(V vertex) {
+      Integer index = vertexToIndex.get(vertex);
+      if (index == null) {
+         return null;
+      }
+      return new Coordinate(coordinates[2 * index], coordinates[2 * index + 1]);
+   }
+
+   private int[] getShuffledSites() {
+      int[] sites = new int[siteCount];
+      for (int i = 0; i < siteCount; ++i) {
+         sites[i] = i;
+      }
+      for (int i = siteCount - 1; i > 0; --i) {
+         int j = Math.min(i, (int) (randomEngine.nextDouble() * (i + 1)));
+         int swap = sites[i];
+         sites[i] = sites[j];
+         sites[j] = swap;
+      }
+      return sites;
+   }
+
+   private void createBounds() {
+      double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < siteCount; ++i) {
+         minX = Math.min(minX, coordinates[2 * i]);
+         maxX = Math.max(maxX, coordinates[2 * i]);
+         minY = Math.min(minY, coordinates[2 * i + 1]);
+         maxY = Math.max(maxY, coordinates[2 * i + 1]);
+      }
+
+      // Ensure the bounding triangle always has non-zero width and height
+      double width = maxX - minX;
+      double height = maxY - minY;
+      double size = Math.max(width, height) == 0 ? 1 : Math.max(width, height);
+      double triangleHalfWidth = 1.51 * (width == 0 ? size : width);
+      double triangleHalfHeight = 1.01 * (height == 0 ? size : height);
+      double centreX = (minX + maxX) / 2;
+
+      int a = siteCount, b = siteCount + 1, c = siteCount + 2;
+      coordinates[2 * a] = centreX - triangleHalfWidth;
+      coordinates[2 * a + 1] = maxY - triangleHalfHeight;
+      coordinates[2 * b] = centreX + triangleHalfWidth;
+      coordinates[2 * b + 1] = maxY - triangleHalfHeight;
+      coordinates[2 * c] = centreX;
+      coordinates[2 * c + 1] = maxY + triangleHalfHeight;
+
+      // The bounding triangle is defined anticlockwise
+      int triangle = createTriangle(a, b, c);
+      link(3 * triangle, -1);
+      link(3 * triangle + 1, -1);
+      link(3 * triangle + 2, -1);
+      lastTriangle = triangle;
+
+      gridSize = Math.max(1, (int) Math.sqrt(siteCount / 2.0));
+      gridMinX = minX;
+      gridMinY = minY;
+      gridCellWidth = width == 0 ? 1 : width / gridSize;
+      gridCellHeight = height == 0 ? 1 : height / gridSize;
+      gridTriangles = new int[gridSize * gridSize];
+      Arrays.fill(gridTriangles, -1);
+   }
+
+   private int createTriangle(int a, int b, int c) {
+      int triangle = triangleCount++;
+      halfEdgeOrigin[3 * triangle] = a;
+      halfEdgeOrigin[3 * triangle + 1] = b;
+      halfEdgeOrigin[3 * triangle + 2] = c;
+      return triangle;
+   }
+
+   private void link(int halfEdge, int twin) {
+      halfEdgeTwin[halfEdge] = twin;
+      if (twin >= 0) {
+         halfEdgeTwin[twin] = halfEdge;
+      }
+   }
+
+   static private int next(int halfEdge) {
+      return halfEdge % 3 == 2 ? halfEdge - 2 : halfEdge + 1;
+   }
+
+   static private int prev(int halfEdge) {
+      return halfEdge % 3 == 0 ? halfEdge + 2 : halfEdge - 1;
+   }
+
+   private int getGridCell(double x, double y) {
+      int column = Math.min(gridSize - 1, Math.max(0, (int) ((x - gridMinX) / gridCellWidth)));
+      int row = Math.min(gridSize - 1, Math.max(0, (int) ((y - gridMinY) / gridCellHeight)));
+      return row * gridSize + column;
+   }
+
+   private int getNearbyTriangle(int cell) {
+      int column = cell % gridSize;
+      int row = cell / gridSize;
+
+      // Search rings of cells of increasing radius
+      for (int radius = 1; radius < gridSize; ++radius) {
+         for (int i = -radius; i <= radius; ++i) {
+            int triangle = getGridTriangle(column + i, row - radius);
+            if (triangle < 0) triangle = getGridTriangle(column + i, row + radius);
+            if (triangle < 0) triangle = getGridTriangle(column - radius, row + i);
+            if (triangle < 0) triangle = getGridTriangle(column + radius, row + i);
+            if (triangle >= 0) {
+               return triangle;
+            }
+         }
+      }
+      return lastTriangle;
+   }
+
+   private int getGridTriangle(int column, int row) {
+      if (column < 0 || row < 0 || column >= gridSize || row >= gridSize) {
+         return -1;
+      }
+      return gridTriangles[row * gridSize + column];
+   }
+
+   private boolean addSite(int site) {
+      double x = coordinates[2 * site];
+      double y = coordinates[2 * site + 1];
+      int cell = getGridCell(x, y);
+      int start = gridTriangles[cell] >= 0 ? gridTriangles[cell] : getNearbyTriangle(cell);
+
+      int triangle = locate(x, y, start);
+      int ab = 3 * triangle;
+      int bc = ab + 1;
+      int ca = ab + 2;
+      int a = halfEdgeOrigin[ab];
+      int b = halfEdgeOrigin[bc];
+      int c = halfEdgeOrigin[ca];
+
+      // Degenerate cases
+      if (isCoincident(site, a) || isCoincident(site, b) || isCoincident(site, c)) {
+         // Point is already in the structure
+         return false;
+      }
+
+      // Split the triangle (a, b, c) into (a, b, p), (b, c, p) and (c, a, p)
+      int bcTwin = halfEdgeTwin[bc];
+      int caTwin = halfEdgeTwin[ca];
+      halfEdgeOrigin[ca] = site;
+      int second = createTriangle(b, c, site);
+      int third = createTriangle(c, a, site);
+      link(3 * second, bcTwin);
+      link(3 * third, caTwin);
+      link(bc, 3 * second + 2);
+      link(3 * second + 1, 3 * third + 2);
+      link(3 * third + 1, ca);
+
+      gridTriangles[cell] = triangle;
+      lastTriangle = triangle;
+
+      // Flip edges as required to maintain the Delaunay property
+      enforceDelaunayCondition(ab);
+      enforceDelaunayCondition(3 * second);
+      enforceDelaunayCondition(3 * third);
+      return true;
+   }
+
+   private boolean isCoincident(int first, int second) {
+      return coordinates[2 * first] == coordinates[2 * second]
+              && coordinates[2 * first + 1] == coordinates[2 * second + 1];
+   }
+
+   // Visibility walk, starting each triangle from a random edge to avoid cycling
+   private int locate(double x, double y, int start) {
+      int triangle = start;
+      int steps = 0;
+      while (true) {
+         walkSeed ^= walkSeed << 13;
+         walkSeed ^= walkSeed >>> 17;
+         walkSeed ^= walkSeed << 5;
+         int offset = (walkSeed & 0x7fffffff) % 3;
+
+         int crossed = -1;
+         for (int i = 0; i < 3; ++i) {
+            int halfEdge = 3 * triangle + (offset + i) % 3;
+            if (orientation(halfEdgeOrigin[halfEdge], halfEdgeOrigin[next(halfEdge)], x, y) < 0) {
+               crossed = halfEdge;
+               break;
+            }
+         }
+
+         if (crossed < 0) {
+            return triangle;
+         } else if (halfEdgeTwin[crossed] < 0) {
+            throw new IllegalArgumentException("Search Coordinate must be inside or on boundary.");
+         }
+
+         triangle = halfEdgeTwin[crossed] / 3;
+         if (++steps > triangleCount) {
+            // Cannot cycle with exact predicates, but fall back to an exhaustive search regardless
+            return locateByScan(x, y);
+         }
+      }
+   }
+
+   private int locateByScan(double x, double y) {
+      for (int triangle = 0; triangle < triangleCount; ++triangle) {
+         int halfEdge = 3 * triangle;
+         if (orientation(halfEdgeOrigin[halfEdge], halfEdgeOrigin[halfEdge + 1], x, y) >= 0
+                 && orientation(halfEdgeOrigin[halfEdge + 1], halfEdgeOrigin[halfEdge + 2], x, y) >= 0
+                 && orientation(halfEdgeOrigin[halfEdge + 2], halfEdgeOrigin[halfEdge], x, y) >= 0) {
+            return triangle;
+         }
+      }
+      throw new IllegalArgumentException("Search Coordinate must be inside or on boundary.");
+   }
+
+   private void enforceDelaunayCondition(int initial) {
+      int stackSize = 0;
+      flipStack[stackSize++] = initial;
+      while (stackSize > 0) {
+         // The inserted vertex is always opposite the edge under test
+         int halfEdge = flipStack[--stackSize];
+         int twin = halfEdgeTwin[halfEdge];
+         if (twin < 0) {
+            continue;
+         }
+
+         int halfEdgeNext = next(halfEdge);
+         int halfEdgePrev = prev(halfEdge);
+         int twinNext = next(twin);
+         int twinPrev = prev(twin);
+         int source = halfEdgeOrigin[halfEdge];
+         int target = halfEdgeOrigin[halfEdgeNext];
+         int targetNext = halfEdgeOrigin[halfEdgePrev];
+         int sourceNext = halfEdgeOrigin[twinPrev];
+
+         if (isWithinCircumcircle(source, target, targetNext, sourceNext)) {
+            // Flip (source, target) to (targetNext, sourceNext), reusing both triangles
+            int halfEdgePrevTwin = halfEdgeTwin[halfEdgePrev];
+            int twinPrevTwin = halfEdgeTwin[twinPrev];
+            halfEdgeOrigin[halfEdge] = sourceNext;
+            halfEdgeOrigin[twin] = targetNext;
+            link(halfEdge, twinPrevTwin);
+            link(twin, halfEdgePrevTwin);
+            link(halfEdgePrev, twinPrev);
+
+            // Check previous edges
+            if (stackSize + 2 > flipStack.length) {
+               flipStack = Arrays.copyOf(flipStack, 2 * flipStack.length);
+            }
+            flipStack[stackSize++] = halfEdge;
+            flipStack[stackSize++] = twinNext;
+         }
+      }
+   }
+
+   // Check if fourth point is within the circumcircle defined by the first three
+   private boolean isWithinCircumcircle(int first, int second, int third, int fourth) {
+      // Treat the boundary as if infinitely far away
+      double x = coordinates[2 * fourth];
+      double y = coordinates[2 * fourth + 1];
+      if (first >= siteCount) {
+         return orientation(third, second, x, y) < 0;
+      } else if (second >= siteCount) {
+         return orientation(first, third, x, y) < 0;
+      } else if (third >= siteCount) {
+         return orientation(second, first, x, y) < 0;
+      } else if (fourth >= siteCount) {
+         return false;
+      }
+
+      return RobustPredicates.incircle(coordinates[2 * first], coordinates[2 * first + 1],
+              coordinates[2 * second], coordinates[2 * second + 1],
+              coordinates[2 * third], coordinates[2 * third + 1], x, y) > 0;
+   }
+
+   private double orientation(int source, int target, double x, double y) {
+      return RobustPredicates.orient2d(coordinates[2 * source], coordinates[2 * source + 1],
+              coordinates[2 * target], coordinates[2 * target + 1], x, y);
+   }
+
+   private void emitGraph(PlanarGraph<V, E> graph, final boolean[] inserted) {
+      for (int site = 0; site < siteCount; ++site) {
+         if (inserted[site]) {
+            graph.addVertex(vertices.get(site));
+         }
+      }
+
+      new TriangulationEmitter<V, E>() {
+         @Override
+         int getHalfEdgeCount() {
+            return 3 * triangleCount;
+         }
+
+         @Override
+         int getOrigin(int halfEdge) {
+            return halfEdgeOrigin[halfEdge];
+         }
+
+         @Override
+         int getTwin(int halfEdge) {
+            return halfEdgeTwin[halfEdge];
+         }
+
+         @Override
+         int getNext(int halfEdge) {
+            return next(halfEdge);
+         }
+
+         @Override
+         int getClockwise(int halfEdge) {
+            return next(halfEdgeTwin[halfEdge]);
+         }
+
+         @Override
+         int getAnticlockwise(int halfEdge) {
+            return halfEdgeTwin[prev(halfEdge)];
+         }
+
+         @Override
+         boolean isTriangle(int halfEdge) {
+            int triangle = halfEdge / 3;
+            return halfEdgeOrigin[3 * triangle] < siteCount
+                    && halfEdgeOrigin[3 * triangle + 1] < siteCount
+                    && halfEdgeOrigin[3 * triangle + 2] < siteCount;
+         }
+
+         @Override
+         V getVertex(int origin) {
+            return origin < siteCount ? vertices.get(origin) : null;
+         }
+      }.emit(graph);
+   }
+
+   public RandomEngine getRandomEngine() {
+      return randomEngine;
+   }
+
+   public void setRandomEngine(RandomEngine randomEngine) {
+      this.randomEngine = randomEngine;
+   }
+}
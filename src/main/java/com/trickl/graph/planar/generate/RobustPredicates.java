@@ -0,0 +1,301 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * Adaptive precision orientation and incircle predicates, after J. R. Shewchuk,
+ * "Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates".
+ * The determinant is first evaluated in floating point, and only if the result is
+ * within the forward error bound is it recomputed exactly using expansion arithmetic.
+ * The sign of the result is always correct, the magnitude is only approximate.
+ * @author tgee
+ */
+public final class RobustPredicates {
+
+   private static final double EPSILON = Math.ulp(1.0) / 2;
+   private static final double SPLITTER = (1 << 27) + 1;
+   private static final double CCW_ERROR_BOUND = (3.0 + 16.0 * EPSILON) * EPSILON;
+   private static final double ICC_ERROR_BOUND = (10.0 + 96.0 * EPSILON) * EPSILON;
+
+   private RobustPredicates() {
+   }
+
+   /**
+    * @return A positive value if a, b, c are in counterclockwise order, negative if clockwise
+    * and zero if they are collinear.
+    */
+   static public double orient2d(Coordinate a, Coordinate b, Coordinate c) {
+      return orient2d(a.x, a.y, b.x, b.y, c.x, c.y);
+   }
+
+   static public double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+      double detLeft = (ax - cx) * (by - cy);
+      double detRight = (ay - cy) * (bx - cx);
+      double det = detLeft - detRight;
+      double detSum;
+
+      if (detLeft > 0) {
+         if (detRight <= 0) {
+            return det;
+         }
+         detSum = detLeft + detRight;
+      } else if (detLeft < 0) {
+         if (detRight >= 0) {
+            return det;
+         }
+         detSum = -detLeft - detRight;
+      } else {
+         return det;
+      }
+
+      double errorBound = CCW_ERROR_BOUND * detSum;
+      if (det >= errorBound || -det >= errorBound) {
+         return det;
+      }
+
+      return orient2dExact(ax, ay, bx, by, cx, cy);
+   }
+
+   /**
+    * @return A positive value if d lies inside the circle through a, b, c, which must be
+    * in counterclockwise order, negative if outside and zero if the points are cocircular.
+    */
+   static public double incircle(Coordinate a, Coordinate b, Coordinate c, Coordinate d) {
+      return incircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+   }
+
+   static public double incircle(double ax, double ay, double bx, double by,
+           double cx, double cy, double dx, double dy) {
+      double adx = ax - dx;
+      double bdx = bx - dx;
+      double cdx = cx - dx;
+      double ady = ay - dy;
+      double bdy = by - dy;
+      double cdy = cy - dy;
+
+      double bdxcdy = bdx * cdy;
+      double cdxbdy = cdx * bdy;
+      double alift = adx * adx + ady * ady;
+
+      double cdxady = cdx * ady;
+      double adxcdy = adx * cdy;
+      double blift = bdx * bdx + bdy * bdy;
+
+      double adxbdy = adx * bdy;
+      double bdxady = bdx * ady;
+      double clift = cdx * cdx + cdy * cdy;
+
+      double det = alift * (bdxcdy - cdxbdy)
+              + blift * (cdxady - adxcdy)
+              + clift * (adxbdy - bdxady);
+
+      double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+              + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+              + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+      double errorBound = ICC_ERROR_BOUND * permanent;
+      if (det > errorBound || -det > errorBound) {
+         return det;
+      }
+
+      return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+   }
+
+   static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+      double[] ab = twoTwoDiff(ax, by, bx, ay);
+      double[] bc = twoTwoDiff(bx, cy, cx, by);
+      double[] ca = twoTwoDiff(cx, ay, ax, cy);
+      return estimateSign(sum(sum(ab, bc), ca));
+   }
+
+   static double incircleExact(double ax, double ay, double bx, double by,
+           double cx, double cy, double dx, double dy) {
+      double[] ab = twoTwoDiff(ax, by, bx, ay);
+      double[] bc = twoTwoDiff(bx, cy, cx, by);
+      double[] cd = twoTwoDiff(cx, dy, dx, cy);
+      double[] da = twoTwoDiff(dx, ay, ax, dy);
+      double[] ac = twoTwoDiff(ax, cy, cx, ay);
+      double[] bd = twoTwoDiff(bx, dy, dx, by);
+
+      double[] cda = sum(sum(cd, da), ac);
+      double[] dab = sum(sum(da, ab), bd);
+      double[] abc = sum(sum(ab, bc), scale(ac, -1));
+      double[] bcd = sum(sum(bc, cd), scale(bd, -1));
+
+      double[] adet = sum(scale(scale(bcd, ax), ax), scale(scale(bcd, ay), ay));
+      double[] bdet = sum(scale(scale(cda, bx), -bx), scale(scale(cda, by), -by));
+      double[] cdet = sum(scale(scale(dab, cx), cx), scale(scale(dab, cy), cy));
+      double[] ddet = sum(scale(scale(abc, dx), -dx), scale(scale(abc, dy), -dy));
+
+      return estimateSign(sum(sum(adet, bdet), sum(cdet, ddet)));
+   }
+
+   // The most significant component of a nonoverlapping expansion has its sign
+   private static double estimateSign(double[] expansion) {
+      return expansion.length == 0 ? 0 : expansion[expansion.length - 1];
+   }
+
+   // a * b - c * d as a four component expansion
+   private static double[] twoTwoDiff(double a, double b, double c, double d) {
+      double[] left = twoProduct(a, b);
+      double[] right = twoProduct(c, d);
+      right[0] = -right[0];
+      right[1] = -right[1];
+      return sum(left, right);
+   }
+
+   private static double[] twoProduct(double a, double b) {
+      double x = a * b;
+      double c = SPLITTER * a;
+      double aHigh = c - (c - a);
+      double aLow = a - aHigh;
+      c = SPLITTER * b;
+      double bHigh = c - (c - b);
+      double bLow = b - bHigh;
+      double y = aLow * bLow - (((x - aHigh * bHigh) - aLow * bHigh) - aHigh * bLow);
+      return new double[] {y, x};
+   }
+
+   // Sum of two nonoverlapping expansions, with zero components eliminated
+   private static double[] sum(double[] e, double[] f) {
+      double[] h = new double[e.length + f.length];
+      int length = 0;
+      int eIndex = 0;
+      int fIndex = 0;
+      double q;
+      double hh;
+
+      if (e.length == 0 || f.length == 0) {
+         double[] nonEmpty = e.length == 0 ? f : e;
+         return nonEmpty.clone();
+      }
+
+      double enow = e[0];
+      double fnow = f[0];
+      if ((fnow > enow) == (fnow > -enow)) {
+         q = enow;
+         enow = ++eIndex < e.length ? e[eIndex] : 0;
+      } else {
+         q = fnow;
+         fnow = ++fIndex < f.length ? f[fIndex] : 0;
+      }
+
+      if (eIndex < e.length && fIndex < f.length) {
+         double qNew;
+         if ((fnow > enow) == (fnow > -enow)) {
+            qNew = enow + q;
+            hh = q - (qNew - enow);
+            enow = ++eIndex < e.length ? e[eIndex] : 0;
+         } else {
+            qNew = fnow + q;
+            hh = q - (qNew - fnow);
+            fnow = ++fIndex < f.length ? f[fIndex] : 0;
+         }
+         q = qNew;
+         if (hh != 0) {
+            h[length++] = hh;
+         }
+
+         while (eIndex < e.length && fIndex < f.length) {
+            if ((fnow > enow) == (fnow > -enow)) {
+               qNew = q + enow;
+               double bVirtual = qNew - q;
+               hh = (q - (qNew - bVirtual)) + (enow - bVirtual);
+               enow = ++eIndex < e.length ? e[eIndex] : 0;
+            } else {
+               qNew = q + fnow;
+               double bVirtual = qNew - q;
+               hh = (q - (qNew - bVirtual)) + (fnow - bVirtual);
+               fnow = ++fIndex < f.length ? f[fIndex] : 0;
+            }
+            q = qNew;
+            if (hh != 0) {
+               h[length++] = hh;
+            }
+         }
+      }
+
+      while (eIndex < e.length) {
+         double qNew = q + enow;
+         double bVirtual = qNew - q;
+         hh = (q - (qNew - bVirtual)) + (enow - bVirtual);
+         enow = ++eIndex < e.length ? e[eIndex] : 0;
+         q = qNew;
+         if (hh != 0) {
+            h[length++] = hh;
+         }
+      }
+
+      while (fIndex < f.length) {
+         double qNew = q + fnow;
+         double bVirtual = qNew - q;
+         hh = (q - (qNew - bVirtual)) + (fnow - bVirtual);
+         fnow = ++fIndex < f.length ? f[fIndex] : 0;
+         q = qNew;
+         if (hh != 0) {
+            h[length++] = hh;
+         }
+      }
+
+      if (q != 0 || length == 0) {
+         h[length++] = q;
+      }
+
+      return java.util.Arrays.copyOf(h, length);
+   }
+
+   // Product of a nonoverlapping expansion and a double, with zero components eliminated
+   private static double[] scale(double[] e, double b) {
+      double[] h = new double[2 * e.length];
+      int length = 0;
+      if (e.length == 0) {
+         return h;
+      }
+
+      double[] product = twoProduct(e[0], b);
+      double q = product[1];
+      if (product[0] != 0) {
+         h[length++] = product[0];
+      }
+
+      for (int i = 1; i < e.length; ++i) {
+         product = twoProduct(e[i], b);
+         double sum = q + product[0];
+         double bVirtual = sum - q;
+         double hh = (q - (sum - bVirtual)) + (product[0] - bVirtual);
+         if (hh != 0) {
+            h[length++] = hh;
+         }
+         q = product[1] + sum;
+         hh = sum - (q - product[1]);
+         if (hh != 0) {
+            h[length++] = hh;
+         }
+      }
+
+      if (q != 0 || length == 0) {
+         h[length++] = q;
+      }
+
+      return java.util.Arrays.copyOf(h, length);
+   }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.planar.PlanarGraph;
+
+/**
+ * Adds a triangulation held in int indexed half edges to a planar graph. A triangulated
+ * disc is grown outwards from a single triangle, so that every edge is added with a known
+ * position in the rotation of both end points, and closing each face only walks a triangle.
+ * @author tgee
+ */
+abstract class TriangulationEmitter<V, E> {
+
+   /** @return The number of half edge slots, some of which may be unused. */
+   abstract int getHalfEdgeCount();
+
+   /** @return The origin of the half edge, or -1 if the slot is unused. */
+   abstract int getOrigin(int halfEdge);
+
+   /** @return The oppositely directed half edge, or -1 if there is none. */
+   abstract int getTwin(int halfEdge);
+
+   /** @return The following half edge around the face to the left. */
+   abstract int getNext(int halfEdge);
+
+   /** @return The next half edge clockwise around the origin. */
+   abstract int getClockwise(int halfEdge);
+
+   /** @return The next half edge anticlockwise around the origin. */
+   abstract int getAnticlockwise(int halfEdge);
+
+   /** @return True if the face to the left is a triangle to be added to the graph. */
+   abstract boolean isTriangle(int halfEdge);
+
+   /** @return The graph vertex for an origin, or null if it is not part of the graph. */
+   abstract V getVertex(int origin);
+
+   public void emit(PlanarGraph<V, E> graph) {
+      int halfEdgeCount = getHalfEdgeCount();
+      boolean[] emitted = new boolean[halfEdgeCount];
+      boolean[] visited = new boolean[halfEdgeCount];
+      int[] queue = new int[halfEdgeCount];
+      int queueHead = 0, queueTail = 0;
+
+      for (int halfEdge = 0; halfEdge < halfEdgeCount; ++halfEdge) {
+         if (getOrigin(halfEdge) >= 0 && isTriangle(halfEdge)) {
+            int second = getNext(halfEdge);
+            int third = getNext(second);
+            V a = getVertex(getOrigin(halfEdge));
+            V b = getVertex(getOrigin(second));
+            V c = getVertex(getOrigin(third));
+            graph.addEdge(a, b);
+            graph.addEdge(b, c, a, null);
+            graph.addEdge(c, a, b, b);
+            markEmitted(emitted, halfEdge);
+            markEmitted(emitted, second);
+            markEmitted(emitted, third);
+            markVisited(visited, halfEdge);
+            queue[queueTail++] = halfEdge;
+            break;
+         }
+      }
+
+      boolean allowPinch = false;
+      while (queueHead < queueTail) {
+         int first = queue[queueHead++];
+         int halfEdge = first;
+         do {
+            int twin = getTwin(halfEdge);
+            if (twin >= 0 && !visited[twin] && isTriangle(twin)
+                    && emitTriangle(graph, twin, emitted, allowPinch)) {
+               markVisited(visited, twin);
+               queue[queueTail++] = twin;
+            }
+            halfEdge = getNext(halfEdge);
+         } while (halfEdge != first);
+
+         if (queueHead == queueTail && !allowPinch) {
+            // Should not be needed, as any partial shelling of a disc can be extended
+            allowPinch = true;
+            queueHead = 0;
+         }
+      }
+
+      // Degenerate (collinear) sites have edges, but no triangles
+      for (int halfEdge = 0; halfEdge < halfEdgeCount; ++halfEdge) {
+         if (!emitted[halfEdge] && isEdge(halfEdge)) {
+            graph.addEdge(getVertex(getOrigin(halfEdge)), getVertex(getOrigin(getTwin(halfEdge))),
+                    getEmittedNeighbour(halfEdge, false, emitted),
+                    getEmittedNeighbour(getTwin(halfEdge), true, emitted));
+            markEmitted(emitted, halfEdge);
+         }
+      }
+   }
+
+   private boolean isEdge(int halfEdge) {
+      int twin = getTwin(halfEdge);
+      return getOrigin(halfEdge) >= 0 && twin >= 0
+              && getVertex(getOrigin(halfEdge)) != null && getVertex(getOrigin(twin)) != null;
+   }
+
+   private void markEmitted(boolean[] emitted, int halfEdge) {
+      emitted[halfEdge] = true;
+      if (getTwin(halfEdge) >= 0) {
+         emitted[getTwin(halfEdge)] = true;
+      }
+   }
+
+   private void markVisited(boolean[] visited, int halfEdge) {
+      visited[halfEdge] = true;
+      visited[getNext(halfEdge)] = true;
+      visited[getNext(getNext(halfEdge))] = true;
+   }
+
+   // Adds the triangle to the left of the half edge, which must already be in the graph
+   private boolean emitTriangle(PlanarGraph<V, E> graph, int halfEdge, boolean[] emitted, boolean allowPinch) {
+      int targetToThird = getNext(halfEdge);
+      int thirdToSource = getNext(targetToThird);
+      V source = getVertex(getOrigin(halfEdge));
+      V target = getVertex(getOrigin(targetToThird));
+      V third = getVertex(getOrigin(thirdToSource));
+
+      if (!emitted[targetToThird] && !emitted[thirdToSource]) {
+         V after = getEmittedNeighbour(thirdToSource, true, emitted);
+         if (after != null && !allowPinch) {
+            // Would pinch the disc, wait until a neighbouring triangle has been added
+            return false;
+         }
+         graph.addEdge(target, third, source, after);
+         graph.addEdge(third, source, target, target);
+      } else if (emitted[targetToThird] && !emitted[thirdToSource]) {
+         graph.addEdge(third, source, target, target);
+      } else if (!emitted[targetToThird] && emitted[thirdToSource]) {
+         graph.addEdge(target, third, source, source);
+      }
+
+      markEmitted(emitted, targetToThird);
+      markEmitted(emitted, thirdToSource);
+      return true;
+   }
+
+   // The neighbour of the first edge already in the graph, rotating around the origin of the half edge
+   private V getEmittedNeighbour(int halfEdge, boolean clockwise, boolean[] emitted) {
+      int rotation = halfEdge;
+      do {
+         rotation = clockwise ? getClockwise(rotation) : getAnticlockwise(rotation);
+         if (emitted[rotation]) {
+            return getVertex(getOrigin(getTwin(rotation)));
+         }
+      } while (rotation != halfEdge);
+      return null;
+   }
+}
@@ -0,0 +1,313 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.io;
+
+import com.trickl.graph.planar.DcelFace;
+import com.trickl.graph.planar.DcelHalfEdge;
+import com.trickl.graph.planar.DcelVertex;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.FaceFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.EdgeFactory;
+
+/**
+ * A compact binary format for doubly connected edge lists, streamed over NIO
+ * channels.
+ *
+ * The structure is stored as varint indices rather than the string references
+ * of the XML format. Half-edges are stored in twin pairs, so the twin of half-edge
+ * h is h ^ 1 and need not be stored. The layout is:
+ * <pre>
+ * header   magic, version, flags, vertex count, edge count, face count, boundary face
+ * vertices [payload, leaving half-edge + 1]
+ * edges    [(origin, next, face) of each half-edge of the pair, payload]
+ * faces    [adjacent half-edge + 1, payload]
+ * </pre>
+ * Edge and face payloads are optional, if the codec is null they are
+ * recreated with the factories of the graph on reading.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class DoublyConnectedEdgeListBinaryFormat<V, E, F> {
+
+   static final int MAGIC = 0x4443454C;
+   static final int VERSION = 1;
+   private static final int EDGE_PAYLOAD = 1;
+   private static final int FACE_PAYLOAD = 2;
+   private static final int BUFFER_SIZE = 1 << 16;
+
+   private final PayloadCodec<V> vertexCodec;
+   private final EdgePayloadCodec<V, E> edgeCodec;
+   private final PayloadCodec<F> faceCodec;
+
+   public DoublyConnectedEdgeListBinaryFormat(PayloadCodec<V> vertexCodec) {
+      this(vertexCodec, null, null);
+   }
+
+   public DoublyConnectedEdgeListBinaryFormat(PayloadCodec<V> vertexCodec,
+           EdgePayloadCodec<V, E> edgeCodec,
+           PayloadCodec<F> faceCodec) {
+      if (vertexCodec == null) {
+         throw new NullPointerException("A vertex codec is required.");
+      }
+      this.vertexCodec = vertexCodec;
+      this.edgeCodec = edgeCodec;
+      this.faceCodec = faceCodec;
+   }
+
+   /**
+    * Write the graph to the channel. The channel is not closed.
+    * @param dcel
+    * @param channel
+    * @throws IOException
+    */
+   public void write(DoublyConnectedEdgeList<V, E, F> dcel, WritableByteChannel channel) throws IOException {
+      DataOutputStream output = new DataOutputStream(
+              new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+      write(dcel, (DataOutput) output);
+      output.flush();
+   }
+
+   public void write(DoublyConnectedEdgeList<V, E, F> dcel, DataOutput output) throws IOException {
+      Map<DcelVertex<V, E, F>, Integer> vertexIndices = new IdentityHashMap<DcelVertex<V, E, F>, Integer>();
+      for (DcelVertex<V, E, F> dcelVertex : dcel.getVertexMap().values()) {
+         vertexIndices.put(dcelVertex, vertexIndices.size());
+      }
+      Map<DcelHalfEdge<V, E, F>, Integer> halfEdgeIndices = new IdentityHashMap<DcelHalfEdge<V, E, F>, Integer>();
+      for (DcelHalfEdge<V, E, F> halfEdge : dcel.getEdgeMap().values()) {
+         int index = halfEdgeIndices.size();
+         halfEdgeIndices.put(halfEdge, index);
+         halfEdgeIndices.put(halfEdge.getTwin(), index + 1);
+      }
+      Map<DcelFace<V, E, F>, Integer> faceIndices = new IdentityHashMap<DcelFace<V, E, F>, Integer>();
+      int boundaryFaceIndex = -1;
+      for (DcelFace<V, E, F> dcelFace : dcel.getFaceMap().values()) {
+         if (dcelFace.getFace() == dcel.getBoundaryFace()) {
+            boundaryFaceIndex = faceIndices.size();
+         }
+         faceIndices.put(dcelFace, faceIndices.size());
+      }
+
+      output.writeInt(MAGIC);
+      output.writeByte(VERSION);
+      output.writeByte((edgeCodec == null ? 0 : EDGE_PAYLOAD)
+              | (faceCodec == null ? 0 : FACE_PAYLOAD));
+      writeVarInt(output, vertexIndices.size());
+      writeVarInt(output, dcel.getEdgeMap().size());
+      writeVarInt(output, faceIndices.size());
+      writeVarInt(output, boundaryFaceIndex + 1);
+
+      for (DcelVertex<V, E, F> dcelVertex : dcel.getVertexMap().values()) {
+         vertexCodec.write(output, dcelVertex.getVertex());
+         writeOptionalIndex(output, halfEdgeIndices, dcelVertex.getLeaving());
+      }
+
+      for (Map.Entry<E, DcelHalfEdge<V, E, F>> entry : dcel.getEdgeMap().entrySet()) {
+         DcelHalfEdge<V, E, F> halfEdge = entry.getValue();
+         writeHalfEdge(output, halfEdge, vertexIndices, halfEdgeIndices, faceIndices);
+         writeHalfEdge(output, halfEdge.getTwin(), vertexIndices, halfEdgeIndices, faceIndices);
+         if (edgeCodec != null) {
+            edgeCodec.write(output, entry.getKey());
+         }
+      }
+
+      for (DcelFace<V, E, F> dcelFace : dcel.getFaceMap().values()) {
+         writeOptionalIndex(output, halfEdgeIndices, dcelFace.getAdjacent());
+         if (faceCodec != null) {
+            faceCodec.write(output, dcelFace.getFace());
+         }
+      }
+   }
+
+   private void writeHalfEdge(DataOutput output,
+           DcelHalfEdge<V, E, F> halfEdge,
+           Map<DcelVertex<V, E, F>, Integer> vertexIndices,
+           Map<DcelHalfEdge<V, E, F>, Integer> halfEdgeIndices,
+           Map<DcelFace<V, E, F>, Integer> faceIndices) throws IOException {
+      writeVarInt(output, vertexIndices.get(halfEdge.getOrigin()));
+      writeVarInt(output, halfEdgeIndices.get(halfEdge.getNext()));
+      writeVarInt(output, faceIndices.get(halfEdge.getFace()));
+   }
+
+   private static <T> void writeOptionalIndex(DataOutput output, Map<T, Integer> indices, T value) throws IOException {
+      writeVarInt(output, value == null ? 0 : indices.get(value) + 1);
+   }
+
+   /**
+    * Read a graph from the channel. The channel is not closed, but may have
+    * been read beyond the end of the graph.
+    * @param channel
+    * @param edgeFactory The edge factory of the graph, also used to create
+    * edges if there is no edge payload
+    * @param faceFactory The face factory of the graph, also used to create
+    * faces if there is no face payload
+    * @return The graph
+    * @throws IOException
+    */
+   public DoublyConnectedEdgeList<V, E, F> read(ReadableByteChannel channel,
+           EdgeFactory<V, E> edgeFactory,
+           FaceFactory<V, F> faceFactory) throws IOException {
+      DataInputStream input = new DataInputStream(
+              new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+      return read((DataInput) input, edgeFactory, faceFactory);
+   }
+
+   public DoublyConnectedEdgeList<V, E, F> read(DataInput input,
+           EdgeFactory<V, E> edgeFactory,
+           FaceFactory<V, F> faceFactory) throws IOException {
+      if (input.readInt() != MAGIC) {
+         throw new IOException("Not a binary doubly connected edge list.");
+      }
+      int version = input.readUnsignedByte();
+      if (version != VERSION) {
+         throw new IOException("Unsupported version " + version + ".");
+      }
+      int flags = input.readUnsignedByte();
+      boolean hasEdgePayload = (flags & EDGE_PAYLOAD) != 0;
+      boolean hasFacePayload = (flags & FACE_PAYLOAD) != 0;
+      if (hasEdgePayload != (edgeCodec != null) || hasFacePayload != (faceCodec != null)) {
+         throw new IOException("Payloads do not match the codecs of this format.");
+      }
+
+      int vertexCount = readVarInt(input);
+      int edgeCount = readVarInt(input);
+      int faceCount = readVarInt(input);
+      int boundaryFaceIndex = readVarInt(input) - 1;
+
+      DoublyConnectedEdgeList<V, E, F> dcel = new DoublyConnectedEdgeList<V, E, F>(edgeFactory, faceFactory);
+      List<DcelVertex<V, E, F>> vertices = new ArrayList<DcelVertex<V, E, F>>(vertexCount);
+      List<DcelHalfEdge<V, E, F>> halfEdges = new ArrayList<DcelHalfEdge<V, E, F>>(2 * edgeCount);
+      List<DcelFace<V, E, F>> faces = new ArrayList<DcelFace<V, E, F>>(faceCount);
+      for (int i = 0; i < vertexCount; ++i) {
+         vertices.add(new DcelVertex<V, E, F>());
+      }
+      for (int i = 0; i < 2 * edgeCount; ++i) {
+         halfEdges.add(new DcelHalfEdge<V, E, F>());
+      }
+      for (int i = 0; i < faceCount; ++i) {
+         faces.add(new DcelFace<V, E, F>(null, i == boundaryFaceIndex));
+      }
+
+      for (DcelVertex<V, E, F> dcelVertex : vertices) {
+         V vertex = vertexCodec.read(input);
+         dcelVertex.setVertex(vertex);
+         dcelVertex.setLeaving(readOptional(input, halfEdges));
+         dcel.getVertexMap().put(vertex, dcelVertex);
+      }
+
+      for (int i = 0; i < 2 * edgeCount; i += 2) {
+         DcelHalfEdge<V, E, F> halfEdge = halfEdges.get(i);
+         DcelHalfEdge<V, E, F> twin = halfEdges.get(i + 1);
+         halfEdge.setTwin(twin);
+         readHalfEdge(input, halfEdge, vertices, halfEdges, faces);
+         readHalfEdge(input, twin, vertices, halfEdges, faces);
+
+         V source = halfEdge.getOrigin().getVertex();
+         V target = twin.getOrigin().getVertex();
+         E edge = hasEdgePayload
+                 ? edgeCodec.read(input, source, target)
+                 : edgeFactory.createEdge(source, target);
+         halfEdge.setEdge(edge);
+         twin.setEdge(edge);
+         dcel.getEdgeMap().put(edge, halfEdge);
+      }
+
+      F boundaryFace = dcel.getBoundaryFace();
+      dcel.getFaceMap().clear();
+      for (int i = 0; i < faceCount; ++i) {
+         DcelFace<V, E, F> dcelFace = faces.get(i);
+         DcelHalfEdge<V, E, F> adjacent = readOptional(input, halfEdges);
+         dcelFace.setAdjacent(adjacent);
+
+         F face;
+         if (hasFacePayload) {
+            face = faceCodec.read(input);
+         } else if (i == boundaryFaceIndex) {
+            face = boundaryFace;
+         } else {
+            face = faceFactory.createFace(adjacent == null ? null : adjacent.getOrigin().getVertex(),
+                    adjacent == null ? null : adjacent.getTwin().getOrigin().getVertex(), false);
+         }
+         dcelFace.setFace(face);
+         dcel.getFaceMap().put(face, dcelFace);
+         if (i == boundaryFaceIndex) {
+            dcel.setBoundaryFace(face);
+         }
+      }
+
+      return dcel;
+   }
+
+   private void readHalfEdge(DataInput input,
+           DcelHalfEdge<V, E, F> halfEdge,
+           List<DcelVertex<V, E, F>> vertices,
+           List<DcelHalfEdge<V, E, F>> halfEdges,
+           List<DcelFace<V, E, F>> faces) throws IOException {
+      halfEdge.setOrigin(vertices.get(readVarInt(input)));
+      halfEdge.setNext(halfEdges.get(readVarInt(input)));
+      halfEdge.setFace(faces.get(readVarInt(input)));
+   }
+
+   private static <T> T readOptional(DataInput input, List<T> values) throws IOException {
+      int index = readVarInt(input) - 1;
+      return index < 0 ? null : values.get(index);
+   }
+
+   /**
+    * Write an unsigned LEB128 variable length integer.
+    * @param output
+    * @param value
+    * @throws IOException
+    */
+   static public void writeVarInt(DataOutput output, int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+         output.writeByte((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      output.writeByte(value);
+   }
+
+   static public int readVarInt(DataInput input) throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+         int b = input.readUnsignedByte();
+         value |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+      throw new IOException("Malformed variable length integer.");
+   }
+}
@@ -0,0 +1,607 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.io;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.planar.DcelFace;
+import com.trickl.graph.planar.DcelHalfEdge;
+import com.trickl.graph.planar.DcelVertex;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.FaceFactory;
+import com.trickl.graph.planar.PlanarFaceGraph;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * A read-only planar graph backed by a memory-mapped file of int arrays.
+ *
+ * The structure is never copied onto the heap, so many processes can query
+ * one page-cache copy of a large mesh without deserializing it. Vertices,
+ * edges and faces are identified by dense integer ids, in the iteration order
+ * of the vertex, edge and face maps of the graph that was written. The
+ * two half-edges of edge e are 2e and 2e + 1, so the twin of h is h ^ 1.
+ * The file layout, in little-endian ints, is:
+ * <pre>
+ * header   magic, version, vertex count, edge count, face count, boundary face, 0, 0
+ * vertices leaving half-edge
+ * edges    next, prev, origin and face arrays, each of the half-edge count
+ * faces    adjacent half-edge
+ * </pre>
+ * Missing half-edges are stored as -1. Queries only use absolute reads of
+ * the mapping, so one instance may be shared between threads.
+ */
+public class MappedPlanarFaceGraph implements PlanarFaceGraph<Integer, Integer, Integer>,
+        UndirectedGraph<Integer, Integer> {
+
+   public static final int NONE = -1;
+   static final int MAGIC = 0x44434D46;
+   static final int VERSION = 1;
+   private static final int HEADER_INTS = 8;
+   private static final int BUFFER_SIZE = 1 << 16;
+
+   private final int vertexCount;
+   private final int edgeCount;
+   private final int faceCount;
+   private final int boundaryFace;
+   private final IntBuffer vertexLeaving;
+   private final IntBuffer halfEdgeNext;
+   private final IntBuffer halfEdgePrev;
+   private final IntBuffer halfEdgeOrigin;
+   private final IntBuffer halfEdgeFace;
+   private final IntBuffer faceAdjacent;
+
+   /**
+    * Map the graph from a file channel. The mapping remains valid after the
+    * channel is closed.
+    * @param channel
+    * @throws IOException
+    */
+   public MappedPlanarFaceGraph(FileChannel channel) throws IOException {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+         throw new IOException("File is too large for a single mapping.");
+      }
+      if (size < HEADER_INTS * 4) {
+         throw new IOException("Not a mapped planar graph.");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      IntBuffer ints = buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+      if (ints.get(0) != MAGIC) {
+         throw new IOException("Not a mapped planar graph.");
+      }
+      if (ints.get(1) != VERSION) {
+         throw new IOException("Unsupported version " + ints.get(1) + ".");
+      }
+      vertexCount = ints.get(2);
+      edgeCount = ints.get(3);
+      faceCount = ints.get(4);
+      boundaryFace = ints.get(5);
+
+      long expectedInts = HEADER_INTS + (long) vertexCount + 8L * edgeCount + faceCount;
+      if (expectedInts * 4 != size) {
+         throw new IOException("File size does not match the graph header.");
+      }
+      int offset = HEADER_INTS;
+      vertexLeaving = slice(ints, offset, vertexCount);
+      offset += vertexCount;
+      halfEdgeNext = slice(ints, offset, 2 * edgeCount);
+      offset += 2 * edgeCount;
+      halfEdgePrev = slice(ints, offset, 2 * edgeCount);
+      offset += 2 * edgeCount;
+      halfEdgeOrigin = slice(ints, offset, 2 * edgeCount);
+      offset += 2 * edgeCount;
+      halfEdgeFace = slice(ints, offset, 2 * edgeCount);
+      offset += 2 * edgeCount;
+      faceAdjacent = slice(ints, offset, faceCount);
+   }
+
+   static public MappedPlanarFaceGraph open(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         return new MappedPlanarFaceGraph(channel);
+      }
+   }
+
+   private static IntBuffer slice(IntBuffer ints, int offset, int length) {
+      IntBuffer duplicate = ints.duplicate();
+      duplicate.position(offset);
+      duplicate.limit(offset + length);
+      return duplicate.slice();
+   }
+
+   /**
+    * Write a graph in the mapped layout. Ids are assigned in the iteration order
+    * of the vertex, edge and face maps of the graph.
+    * @param <V> Vertex type
+    * @param <E> Edge type
+    * @param <F> Face type
+    * @param dcel
+    * @param channel
+    * @throws IOException
+    */
+   static public <V, E, F> void write(DoublyConnectedEdgeList<V, E, F> dcel, WritableByteChannel channel) throws IOException {
+      Map<DcelVertex<V, E, F>, Integer> vertexIds = new IdentityHashMap<DcelVertex<V, E, F>, Integer>();
+      for (DcelVertex<V, E, F> dcelVertex : dcel.getVertexMap().values()) {
+         vertexIds.put(dcelVertex, vertexIds.size());
+      }
+      Map<DcelHalfEdge<V, E, F>, Integer> halfEdgeIds = new IdentityHashMap<DcelHalfEdge<V, E, F>, Integer>();
+      for (DcelHalfEdge<V, E, F> halfEdge : dcel.getEdgeMap().values()) {
+         int halfEdgeId = halfEdgeIds.size();
+         halfEdgeIds.put(halfEdge, halfEdgeId);
+         halfEdgeIds.put(halfEdge.getTwin(), halfEdgeId + 1);
+      }
+      Map<DcelFace<V, E, F>, Integer> faceIds = new IdentityHashMap<DcelFace<V, E, F>, Integer>();
+      for (DcelFace<V, E, F> dcelFace : dcel.getFaceMap().values()) {
+         faceIds.put(dcelFace, faceIds.size());
+      }
+      DcelFace<V, E, F> boundaryFace = dcel.getFaceMap().get(dcel.getBoundaryFace());
+
+      IntWriter writer = new IntWriter(channel);
+      writer.write(MAGIC);
+      writer.write(VERSION);
+      writer.write(vertexIds.size());
+      writer.write(dcel.getEdgeMap().size());
+      writer.write(faceIds.size());
+      writer.write(boundaryFace == null ? NONE : faceIds.get(boundaryFace));
+      writer.write(0);
+      writer.write(0);
+
+      for (DcelVertex<V, E, F> dcelVertex : dcel.getVertexMap().values()) {
+         writer.write(idOf(halfEdgeIds, dcelVertex.getLeaving()));
+      }
+      for (int field = 0; field < 4; ++field) {
+         for (DcelHalfEdge<V, E, F> halfEdge : dcel.getEdgeMap().values()) {
+            writeHalfEdgeField(writer, field, halfEdge, vertexIds, halfEdgeIds, faceIds);
+            writeHalfEdgeField(writer, field, halfEdge.getTwin(), vertexIds, halfEdgeIds, faceIds);
+         }
+      }
+      for (DcelFace<V, E, F> dcelFace : dcel.getFaceMap().values()) {
+         writer.write(idOf(halfEdgeIds, dcelFace.getAdjacent()));
+      }
+      writer.flush();
+   }
+
+   private static <V, E, F> void writeHalfEdgeField(IntWriter writer,
+           int field,
+           DcelHalfEdge<V, E, F> halfEdge,
+           Map<DcelVertex<V, E, F>, Integer> vertexIds,
+           Map<DcelHalfEdge<V, E, F>, Integer> halfEdgeIds,
+           Map<DcelFace<V, E, F>, Integer> faceIds) throws IOException {
+      switch (field) {
+         case 0:
+            writer.write(idOf(halfEdgeIds, halfEdge.getNext()));
+            break;
+         case 1:
+            writer.write(idOf(halfEdgeIds, halfEdge.getPrev()));
+            break;
+         case 2:
+            writer.write(idOf(vertexIds, halfEdge.getOrigin()));
+            break;
+         default:
+            writer.write(idOf(faceIds, halfEdge.getFace()));
+            break;
+      }
+   }
+
+   private static <T> int idOf(Map<T, Integer> ids, T value) {
+      Integer id = value == null ? null : ids.get(value);
+      return id == null ? NONE : id;
+   }
+
+   private static class IntWriter {
+      private final WritableByteChannel channel;
+      private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+      public IntWriter(WritableByteChannel channel) {
+         this.channel = channel;
+      }
+
+      public void write(int value) throws IOException {
+         if (buffer.remaining() < 4) {
+            flush();
+         }
+         buffer.putInt(value);
+      }
+
+      public void flush() throws IOException {
+         buffer.flip();
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         buffer.clear();
+      }
+   }
+
+   public int getNext(int halfEdge) {
+      return halfEdgeNext.get(halfEdge);
+   }
+
+   public int getPrev(int halfEdge) {
+      return halfEdgePrev.get(halfEdge);
+   }
+
+   public int getOrigin(int halfEdge) {
+      return halfEdgeOrigin.get(halfEdge);
+   }
+
+   public int getTarget(int halfEdge) {
+      return halfEdgeOrigin.get(halfEdge ^ 1);
+   }
+
+   public int getFaceId(int halfEdge) {
+      return halfEdgeFace.get(halfEdge);
+   }
+
+   public int getLeaving(int vertex) {
+      return vertexLeaving.get(vertex);
+   }
+
+   public int getAdjacent(int face) {
+      return faceAdjacent.get(face);
+   }
+
+   public int getBoundaryFace() {
+      return boundaryFace;
+   }
+
+   /**
+    * Find the half-edge from source to target by a search of the rotation
+    * about the source vertex.
+    * @param source
+    * @param target
+    * @return The half-edge id or NONE if the vertices are not adjacent
+    */
+   public int getHalfEdge(int source, int target) {
+      if (!containsVertex(source) || !containsVertex(target)) {
+         return NONE;
+      }
+      int start = vertexLeaving.get(source);
+      if (start == NONE) {
+         return NONE;
+      }
+      int out = start;
+      do {
+         if (halfEdgeOrigin.get(out ^ 1) == target) {
+            return out;
+         }
+         out = halfEdgeNext.get(out ^ 1);
+      } while (out != start);
+      return NONE;
+   }
+
+   private int getExistingHalfEdge(Integer source, Integer target) {
+      int halfEdge = source == null || target == null ? NONE : getHalfEdge((int) source, (int) target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return halfEdge;
+   }
+
+   @Override
+   public Set<Integer> faceSet() {
+      return new IdRange(faceCount);
+   }
+
+   @Override
+   public Integer getFace(Integer source, Integer target) {
+      int halfEdge = source == null || target == null ? NONE : getHalfEdge((int) source, (int) target);
+      return halfEdge == NONE ? null : halfEdgeFace.get(halfEdge);
+   }
+
+   /**
+    * @return null, as faces cannot be added to this graph
+    */
+   @Override
+   public FaceFactory<Integer, Integer> getFaceFactory() {
+      return null;
+   }
+
+   @Override
+   public DirectedEdge<Integer> getAdjacentEdge(Integer face) {
+      if (face == null || face < 0 || face >= faceCount) {
+         throw new NoSuchElementException("Face not found.");
+      }
+      int adjacent = faceAdjacent.get(face);
+      if (adjacent == NONE) {
+         return new DirectedEdge<Integer>(null, null);
+      }
+      return new DirectedEdge<Integer>(halfEdgeOrigin.get(adjacent), halfEdgeOrigin.get(adjacent ^ 1));
+   }
+
+   @Override
+   public boolean replaceFace(Integer oldFace, Integer newFace) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public Integer addEdge(Integer sourceVertex, Integer targetVertex, Integer beforeVertex, Integer afterVertex) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean addEdge(Integer sourceVertex, Integer targetVertex, Integer beforeVertex, Integer afterVertex, Integer e) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public DirectedEdge<Integer> getBoundary() {
+      int adjacent = boundaryFace == NONE ? NONE : faceAdjacent.get(boundaryFace);
+      if (adjacent == NONE) {
+         // Graph contains zero edges
+         return new DirectedEdge<Integer>(vertexCount == 0 ? null : 0, null);
+      }
+      return new DirectedEdge<Integer>(halfEdgeOrigin.get(adjacent), halfEdgeOrigin.get(adjacent ^ 1));
+   }
+
+   @Override
+   public boolean isBoundary(Integer source, Integer target) {
+      return halfEdgeFace.get(getExistingHalfEdge(source, target)) == boundaryFace;
+   }
+
+   public boolean isVertexBoundary(Integer vertex) {
+      if (!containsVertex(vertex)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      int start = vertexLeaving.get(vertex);
+      if (start == NONE) {
+         return false;
+      }
+      int out = start;
+      do {
+         if (halfEdgeFace.get(out) == boundaryFace) {
+            return true;
+         }
+         out = halfEdgeNext.get(out ^ 1);
+      } while (out != start);
+      return false;
+   }
+
+   @Override
+   public void setBoundary(Integer source, Integer target) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public Integer getNextVertex(Integer source, Integer target) {
+      return halfEdgeOrigin.get(halfEdgeNext.get(getExistingHalfEdge(source, target)) ^ 1);
+   }
+
+   @Override
+   public Integer getPrevVertex(Integer source, Integer target) {
+      return halfEdgeOrigin.get(halfEdgePrev.get(getExistingHalfEdge(source, target)));
+   }
+
+   @Override
+   public Set<Integer> getAllEdges(Integer source, Integer target) {
+      Integer edge = getEdge(source, target);
+      return edge == null ? Collections.<Integer>emptySet() : Collections.singleton(edge);
+   }
+
+   @Override
+   public Integer getEdge(Integer source, Integer target) {
+      int halfEdge = source == null || target == null ? NONE : getHalfEdge((int) source, (int) target);
+      return halfEdge == NONE ? null : halfEdge >> 1;
+   }
+
+   /**
+    * @return null, as edges cannot be added to this graph
+    */
+   @Override
+   public EdgeFactory<Integer, Integer> getEdgeFactory() {
+      return null;
+   }
+
+   @Override
+   public Integer addEdge(Integer source, Integer target) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean addEdge(Integer source, Integer target, Integer edge) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean addVertex(Integer vertex) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean containsEdge(Integer source, Integer target) {
+      return getEdge(source, target) != null;
+   }
+
+   @Override
+   public boolean containsEdge(Integer edge) {
+      return edge != null && edge >= 0 && edge < edgeCount;
+   }
+
+   @Override
+   public boolean containsVertex(Integer vertex) {
+      return vertex != null && vertex >= 0 && vertex < vertexCount;
+   }
+
+   @Override
+   public Set<Integer> edgeSet() {
+      return new IdRange(edgeCount);
+   }
+
+   @Override
+   public Set<Integer> edgesOf(Integer vertex) {
+      if (!containsVertex(vertex)) {
+         return new LinkedHashSet<Integer>();
+      }
+      Set<Integer> edges = new LinkedHashSet<Integer>();
+      int start = vertexLeaving.get(vertex);
+      if (start == NONE) {
+         return edges;
+      }
+      int out = start;
+      do {
+         edges.add(out >> 1);
+         out = halfEdgeNext.get(out ^ 1);
+      } while (out != start);
+      return edges;
+   }
+
+   @Override
+   public int degreeOf(Integer vertex) {
+      if (!containsVertex(vertex)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      int start = vertexLeaving.get(vertex);
+      if (start == NONE) {
+         return 0;
+      }
+      int degree = 0;
+      int out = start;
+      do {
+         ++degree;
+         out = halfEdgeNext.get(out ^ 1);
+      } while (out != start);
+      return degree;
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends Integer> edges) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public Set<Integer> removeAllEdges(Integer source, Integer target) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends Integer> vertices) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public Integer removeEdge(Integer source, Integer target) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean removeEdge(Integer edge) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public boolean removeVertex(Integer vertex) {
+      throw new UnsupportedOperationException("Mapped graphs are read-only.");
+   }
+
+   @Override
+   public Set<Integer> vertexSet() {
+      return new IdRange(vertexCount);
+   }
+
+   @Override
+   public Integer getEdgeSource(Integer edge) {
+      if (!containsEdge(edge)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return halfEdgeOrigin.get(edge << 1);
+   }
+
+   @Override
+   public Integer getEdgeTarget(Integer edge) {
+      if (!containsEdge(edge)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return halfEdgeOrigin.get((edge << 1) ^ 1);
+   }
+
+   @Override
+   public double getEdgeWeight(Integer edge) {
+      return 1.0;
+   }
+
+   /**
+    * The ids 0 to size - 1, without storing them.
+    */
+   private static class IdRange extends AbstractSet<Integer> {
+
+      private final int size;
+
+      public IdRange(int size) {
+         this.size = size;
+      }
+
+      @Override
+      public boolean contains(Object value) {
+         return value instanceof Integer && (Integer) value >= 0 && (Integer) value < size;
+      }
+
+      @Override
+      public Iterator<Integer> iterator() {
+         return new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+               return next < size;
+            }
+
+            @Override
+            public Integer next() {
+               if (next >= size) {
+                  throw new NoSuchElementException();
+               }
+               return next++;
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException("Mapped graphs are read-only.");
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return size;
+      }
+   }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.io;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.planar.faces.IdFace;
+import com.trickl.graph.vertices.IdCoordinateVertex;
+import com.trickl.graph.vertices.IdVertex;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codecs for the vertex, edge and face types provided by this library.
+ */
+public final class PayloadCodecs {
+
+   private PayloadCodecs() {
+   }
+
+   static public PayloadCodec<Integer> integers() {
+      return new PayloadCodec<Integer>() {
+         @Override
+         public void write(DataOutput output, Integer value) throws IOException {
+            output.writeInt(value);
+         }
+
+         @Override
+         public Integer read(DataInput input) throws IOException {
+            return input.readInt();
+         }
+      };
+   }
+
+   static public PayloadCodec<IdVertex> idVertices() {
+      return new PayloadCodec<IdVertex>() {
+         @Override
+         public void write(DataOutput output, IdVertex value) throws IOException {
+            output.writeInt(value.getId());
+         }
+
+         @Override
+         public IdVertex read(DataInput input) throws IOException {
+            return new IdVertex(input.readInt());
+         }
+      };
+   }
+
+   /**
+    * Coordinates are stored as doubles, which is lossless for coordinates
+    * that were set from doubles. Missing ordinates are stored as NaN.
+    * @return A codec for coordinate vertices
+    */
+   static public PayloadCodec<IdCoordinateVertex> idCoordinateVertices() {
+      return new PayloadCodec<IdCoordinateVertex>() {
+         @Override
+         public void write(DataOutput output, IdCoordinateVertex value) throws IOException {
+            Coordinate coordinate = value.getCoordinate();
+            output.writeInt(value.getId());
+            output.writeDouble(coordinate.x);
+            output.writeDouble(coordinate.y);
+            output.writeDouble(coordinate.z);
+         }
+
+         @Override
+         public IdCoordinateVertex read(DataInput input) throws IOException {
+            int id = input.readInt();
+            double x = input.readDouble();
+            double y = input.readDouble();
+            double z = input.readDouble();
+            return new IdCoordinateVertex(id, new Coordinate(x, y, z));
+         }
+      };
+   }
+
+   static public <V> EdgePayloadCodec<V, UndirectedIdEdge<V>> undirectedIdEdges() {
+      return new EdgePayloadCodec<V, UndirectedIdEdge<V>>() {
+         @Override
+         public void write(DataOutput output, UndirectedIdEdge<V> edge) throws IOException {
+            output.writeInt(edge.getId());
+         }
+
+         @Override
+         public UndirectedIdEdge<V> read(DataInput input, V source, V target) throws IOException {
+            return new UndirectedIdEdge<V>(input.readInt(), source, target);
+         }
+      };
+   }
+
+   static public PayloadCodec<IdFace> idFaces() {
+      return new PayloadCodec<IdFace>() {
+         @Override
+         public void write(DataOutput output, IdFace value) throws IOException {
+            output.writeInt(value.getId());
+         }
+
+         @Override
+         public IdFace read(DataInput input) throws IOException {
+            return new IdFace(input.readInt());
+         }
+      };
+   }
+}
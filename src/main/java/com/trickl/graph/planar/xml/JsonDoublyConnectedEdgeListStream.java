@@ -0,0 +1,427 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.xml;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import com.trickl.graph.planar.DcelFace;
+import com.trickl.graph.planar.DcelHalfEdge;
+import com.trickl.graph.planar.DcelVertex;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.FaceFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.EdgeFactory;
+
+/**
+ * Writes and reads a doubly connected edge list as a stream of JSON tokens,
+ * in the same document form as the JAXB annotated binding, but without
+ * building the document in memory. The vertices, edges and faces are
+ * written and read through payload codecs, the factories through the
+ * data binding as they are small.
+ *
+ * On reading, the vertex, edge and face arrays must precede the dcel arrays
+ * that reference them, as they do in documents written by either path.
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class JsonDoublyConnectedEdgeListStream<V, E, F> {
+
+   private final JsonPayloadCodec<V> vertexCodec;
+   private final JsonPayloadCodec<E> edgeCodec;
+   private final JsonPayloadCodec<F> faceCodec;
+   private final ObjectMapper mapper = new ObjectMapper();
+
+   public JsonDoublyConnectedEdgeListStream(JsonPayloadCodec<V> vertexCodec,
+           JsonPayloadCodec<E> edgeCodec,
+           JsonPayloadCodec<F> faceCodec) {
+      this.vertexCodec = vertexCodec;
+      this.edgeCodec = edgeCodec;
+      this.faceCodec = faceCodec;
+      AnnotationIntrospector annotationIntrospector
+            = new JaxbAnnotationIntrospector(TypeFactory.defaultInstance());
+      mapper.setAnnotationIntrospector(annotationIntrospector);
+   }
+
+   public void write(DoublyConnectedEdgeList<V, E, F> dcel, OutputStream outputStream) throws IOException {
+      try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+         generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         write(dcel, generator);
+      }
+   }
+
+   public void write(DoublyConnectedEdgeList<V, E, F> dcel, JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+
+      generator.writeArrayFieldStart("vertex");
+      for (V vertex : dcel.getVertexMap().keySet()) {
+         vertexCodec.write(generator, vertex);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("edge");
+      for (E edge : dcel.getEdgeMap().keySet()) {
+         edgeCodec.write(generator, edge);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("face");
+      for (F face : dcel.getFaceMap().keySet()) {
+         faceCodec.write(generator, face);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("dcel-vertex");
+      for (DcelVertex<V, E, F> dcelVertex : dcel.getVertexMap().values()) {
+         generator.writeStartObject();
+         generator.writeStringField("id", dcelVertex.getIdString());
+         if (dcelVertex.getLeaving() != null) {
+            generator.writeStringField("leaving-half-edge-id", dcelVertex.getLeaving().getId());
+         }
+         generator.writeStringField("data-id", vertexCodec.getId(dcelVertex.getVertex()));
+         generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("dcel-half-edge");
+      for (DcelHalfEdge<V, E, F> halfEdge : dcel.getEdgeMap().values()) {
+         writeHalfEdge(generator, halfEdge);
+         writeHalfEdge(generator, halfEdge.getTwin());
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("dcel-face");
+      for (DcelFace<V, E, F> dcelFace : dcel.getFaceMap().values()) {
+         generator.writeStartObject();
+         generator.writeStringField("id", dcelFace.getIdString());
+         if (dcelFace.getAdjacent() != null) {
+            generator.writeStringField("adjacent-edge-id", dcelFace.getAdjacent().getId());
+         }
+         generator.writeStringField("data-id", faceCodec.getId(dcelFace.getFace()));
+         generator.writeBooleanField("is-boundary", dcelFace.isBoundary());
+         generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      DcelFace<V, E, F> boundaryFace = dcel.getFaceMap().get(dcel.getBoundaryFace());
+      if (boundaryFace != null) {
+         generator.writeStringField("dcel-boundary-face-id", boundaryFace.getIdString());
+      }
+      writeFactory(generator, "edge-factory", dcel.getEdgeFactory());
+      writeFactory(generator, "face-factory", dcel.getFaceFactory());
+
+      generator.writeEndObject();
+   }
+
+   private void writeHalfEdge(JsonGenerator generator, DcelHalfEdge<V, E, F> halfEdge) throws IOException {
+      generator.writeStartObject();
+      generator.writeStringField("id", halfEdge.getId());
+      generator.writeStringField("twin-half-edge-id", halfEdge.getTwin().getId());
+      generator.writeStringField("origin-vertex-id", halfEdge.getOrigin().getIdString());
+      generator.writeStringField("next-half-edge-id", halfEdge.getNext().getId());
+      generator.writeStringField("face-id", halfEdge.getFace().getIdString());
+      generator.writeStringField("data-id", edgeCodec.getId(halfEdge.getEdge()));
+      generator.writeEndObject();
+   }
+
+   private void writeFactory(JsonGenerator generator, String name, Object factory) throws IOException {
+      if (factory != null) {
+         generator.writeFieldName(name);
+         try {
+            mapper.writeValue(generator, new XmlAnyWrapperAdapter<Object>().marshal(factory));
+         } catch (IOException ex) {
+            throw ex;
+         } catch (Exception ex) {
+            throw new IOException(ex);
+         }
+      }
+   }
+
+   public DoublyConnectedEdgeList<V, E, F> read(InputStream inputStream) throws IOException {
+      try (JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+         parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+         return read(parser);
+      }
+   }
+
+   public DoublyConnectedEdgeList<V, E, F> read(JsonParser parser) throws IOException {
+      if (parser.getCurrentToken() == null) {
+         parser.nextToken();
+      }
+      expect(parser, JsonToken.START_OBJECT);
+
+      Map<String, Object> payloads = new HashMap<String, Object>();
+      Map<String, DcelVertex<V, E, F>> dcelVertices = new HashMap<String, DcelVertex<V, E, F>>();
+      Map<String, DcelHalfEdge<V, E, F>> dcelHalfEdges = new HashMap<String, DcelHalfEdge<V, E, F>>();
+      Map<String, DcelFace<V, E, F>> dcelFaces = new HashMap<String, DcelFace<V, E, F>>();
+      List<DcelVertex<V, E, F>> vertexOrder = new ArrayList<DcelVertex<V, E, F>>();
+      List<DcelHalfEdge<V, E, F>> halfEdgeOrder = new ArrayList<DcelHalfEdge<V, E, F>>();
+      List<DcelFace<V, E, F>> faceOrder = new ArrayList<DcelFace<V, E, F>>();
+      List<DcelFace<V, E, F>> boundaryFaces = new ArrayList<DcelFace<V, E, F>>();
+      DcelFace<V, E, F> boundaryFace = null;
+      EdgeFactory<V, E> edgeFactory = null;
+      FaceFactory<V, F> faceFactory = null;
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+         String field = parser.getCurrentName();
+         parser.nextToken();
+         switch (field) {
+            case "vertex":
+               readPayloads(parser, vertexCodec, payloads);
+               break;
+            case "edge":
+               readPayloads(parser, edgeCodec, payloads);
+               break;
+            case "face":
+               readPayloads(parser, faceCodec, payloads);
+               break;
+            case "dcel-vertex":
+               expect(parser, JsonToken.START_ARRAY);
+               while (parser.nextToken() == JsonToken.START_OBJECT) {
+                  DcelVertex<V, E, F> dcelVertex = null;
+                  DcelHalfEdge<V, E, F> leaving = null;
+                  V vertex = null;
+                  while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                     String vertexField = parser.getCurrentName();
+                     parser.nextToken();
+                     switch (vertexField) {
+                        case "id":
+                           dcelVertex = getVertex(dcelVertices, parser.getText());
+                           break;
+                        case "leaving-half-edge-id":
+                           leaving = getHalfEdge(dcelHalfEdges, parser.getText());
+                           break;
+                        case "data-id":
+                           vertex = (V) resolve(parser, payloads);
+                           break;
+                        default:
+                           parser.skipChildren();
+                           break;
+                     }
+                  }
+                  if (dcelVertex == null) {
+                     throw new JsonParseException(parser, "Vertex has no id.");
+                  }
+                  dcelVertex.setVertex(vertex);
+                  dcelVertex.setLeaving(leaving);
+                  vertexOrder.add(dcelVertex);
+               }
+               break;
+            case "dcel-half-edge":
+               expect(parser, JsonToken.START_ARRAY);
+               while (parser.nextToken() == JsonToken.START_OBJECT) {
+                  DcelHalfEdge<V, E, F> halfEdge = null;
+                  DcelHalfEdge<V, E, F> twin = null;
+                  DcelVertex<V, E, F> origin = null;
+                  DcelHalfEdge<V, E, F> next = null;
+                  DcelFace<V, E, F> face = null;
+                  E edge = null;
+                  while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                     String halfEdgeField = parser.getCurrentName();
+                     parser.nextToken();
+                     switch (halfEdgeField) {
+                        case "id":
+                           halfEdge = getHalfEdge(dcelHalfEdges, parser.getText());
+                           break;
+                        case "twin-half-edge-id":
+                           twin = getHalfEdge(dcelHalfEdges, parser.getText());
+                           break;
+                        case "origin-vertex-id":
+                           origin = getVertex(dcelVertices, parser.getText());
+                           break;
+                        case "next-half-edge-id":
+                           next = getHalfEdge(dcelHalfEdges, parser.getText());
+                           break;
+                        case "face-id":
+                           face = getFace(dcelFaces, parser.getText());
+                           break;
+                        case "data-id":
+                           edge = (E) resolve(parser, payloads);
+                           break;
+                        default:
+                           parser.skipChildren();
+                           break;
+                     }
+                  }
+                  if (halfEdge == null) {
+                     throw new JsonParseException(parser, "Half-edge has no id.");
+                  }
+                  halfEdge.setTwin(twin);
+                  halfEdge.setOrigin(origin);
+                  halfEdge.setNext(next);
+                  halfEdge.setFace(face);
+                  halfEdge.setEdge(edge);
+                  halfEdgeOrder.add(halfEdge);
+               }
+               break;
+            case "dcel-face":
+               expect(parser, JsonToken.START_ARRAY);
+               while (parser.nextToken() == JsonToken.START_OBJECT) {
+                  DcelFace<V, E, F> dcelFace = null;
+                  DcelHalfEdge<V, E, F> adjacent = null;
+                  F face = null;
+                  boolean isBoundary = false;
+                  while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                     String faceField = parser.getCurrentName();
+                     parser.nextToken();
+                     switch (faceField) {
+                        case "id":
+                           dcelFace = getFace(dcelFaces, parser.getText());
+                           break;
+                        case "adjacent-edge-id":
+                           adjacent = getHalfEdge(dcelHalfEdges, parser.getText());
+                           break;
+                        case "data-id":
+                           face = (F) resolve(parser, payloads);
+                           break;
+                        case "is-boundary":
+                           isBoundary = parser.getBooleanValue();
+                           break;
+                        default:
+                           parser.skipChildren();
+                           break;
+                     }
+                  }
+                  if (dcelFace == null) {
+                     throw new JsonParseException(parser, "Face has no id.");
+                  }
+                  dcelFace.setFace(face);
+                  dcelFace.setAdjacent(adjacent);
+                  if (isBoundary) {
+                     boundaryFaces.add(dcelFace);
+                  }
+                  faceOrder.add(dcelFace);
+               }
+               break;
+            case "dcel-boundary-face-id":
+               boundaryFace = getFace(dcelFaces, parser.getText());
+               break;
+            case "edge-factory":
+               edgeFactory = (EdgeFactory<V, E>) readFactory(parser);
+               break;
+            case "face-factory":
+               faceFactory = (FaceFactory<V, F>) readFactory(parser);
+               break;
+            default:
+               parser.skipChildren();
+               break;
+         }
+      }
+      expect(parser, JsonToken.END_OBJECT);
+
+      // Boundary flags are applied once the faces are complete, as setting
+      // the flag walks the face
+      for (DcelFace<V, E, F> dcelFace : boundaryFaces) {
+         dcelFace.setBoundary(true);
+      }
+
+      DoublyConnectedEdgeList<V, E, F> dcel = new DoublyConnectedEdgeList<V, E, F>(edgeFactory, faceFactory);
+      for (DcelVertex<V, E, F> dcelVertex : vertexOrder) {
+         dcel.getVertexMap().put(dcelVertex.getVertex(), dcelVertex);
+      }
+      for (DcelHalfEdge<V, E, F> halfEdge : halfEdgeOrder) {
+         if (!dcel.getEdgeMap().containsKey(halfEdge.getEdge())) {
+            dcel.getEdgeMap().put(halfEdge.getEdge(), halfEdge);
+         }
+      }
+      dcel.getFaceMap().clear();
+      for (DcelFace<V, E, F> dcelFace : faceOrder) {
+         dcel.getFaceMap().put(dcelFace.getFace(), dcelFace);
+      }
+      if (boundaryFace != null) {
+         dcel.setBoundaryFace(boundaryFace.getFace());
+      }
+
+      return dcel;
+   }
+
+   private static <T> void readPayloads(JsonParser parser, JsonPayloadCodec<T> codec, Map<String, Object> payloads) throws IOException {
+      expect(parser, JsonToken.START_ARRAY);
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+         T value = codec.read(parser, payloads);
+         payloads.put(codec.getId(value), value);
+      }
+   }
+
+   private Object readFactory(JsonParser parser) throws IOException {
+      try {
+         return new XmlAnyWrapperAdapter<Object>().unmarshal(mapper.readValue(parser, XmlAnyWrapper.class));
+      } catch (IOException ex) {
+         throw ex;
+      } catch (Exception ex) {
+         throw new IOException(ex);
+      }
+   }
+
+   private static void expect(JsonParser parser, JsonToken token) throws IOException {
+      if (parser.getCurrentToken() != token) {
+         throw new JsonParseException(parser, "Expected " + token + " but found " + parser.getCurrentToken());
+      }
+   }
+
+   private static Object resolve(JsonParser parser, Map<String, Object> payloads) throws IOException {
+      Object value = payloads.get(parser.getText());
+      if (value == null) {
+         throw new JsonParseException(parser, "Unknown id " + parser.getText());
+      }
+      return value;
+   }
+
+   private DcelVertex<V, E, F> getVertex(Map<String, DcelVertex<V, E, F>> dcelVertices, String id) {
+      DcelVertex<V, E, F> dcelVertex = dcelVertices.get(id);
+      if (dcelVertex == null) {
+         dcelVertex = new DcelVertex<V, E, F>();
+         dcelVertices.put(id, dcelVertex);
+      }
+      return dcelVertex;
+   }
+
+   private DcelHalfEdge<V, E, F> getHalfEdge(Map<String, DcelHalfEdge<V, E, F>> dcelHalfEdges, String id) {
+      DcelHalfEdge<V, E, F> halfEdge = dcelHalfEdges.get(id);
+      if (halfEdge == null) {
+         halfEdge = new DcelHalfEdge<V, E, F>();
+         dcelHalfEdges.put(id, halfEdge);
+      }
+      return halfEdge;
+   }
+
+   private DcelFace<V, E, F> getFace(Map<String, DcelFace<V, E, F>> dcelFaces, String id) {
+      DcelFace<V, E, F> dcelFace = dcelFaces.get(id);
+      if (dcelFace == null) {
+         dcelFace = new DcelFace<V, E, F>();
+         dcelFaces.put(id, dcelFace);
+      }
+      return dcelFace;
+   }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.xml;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes and reads a vertex, edge or face as a JSON object, token by token.
+ * @param <T> The payload type
+ */
+public interface JsonPayloadCodec<T> {
+
+   /**
+    * @param value
+    * @return The document id of the value, as referenced by data-id
+    */
+   String getId(T value);
+
+   void write(JsonGenerator generator, T value) throws IOException;
+
+   /**
+    * Read a value, the parser is positioned on the START_OBJECT token and
+    * must be left on the matching END_OBJECT token.
+    * @param parser
+    * @param payloads The values read so far, by document id
+    * @return The value
+    * @throws IOException
+    */
+   T read(JsonParser parser, Map<String, Object> payloads) throws IOException;
+}
@@ -0,0 +1,238 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.xml;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.planar.faces.IdFace;
+import com.trickl.graph.vertices.IdCoordinateVertex;
+import com.trickl.graph.vertices.IdVertex;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Codecs for the vertex, edge and face types provided by this library, in
+ * the same form as their JAXB annotated JSON.
+ */
+public final class JsonPayloadCodecs {
+
+   private static final String ID_VERTEX_PREFIX = new IdVertex(0).getIdStringPrefix();
+   private static final String COORDINATE_VERTEX_PREFIX = new IdCoordinateVertex(0).getIdStringPrefix();
+   private static final String ID_EDGE_PREFIX = new UndirectedIdEdge<Object>(0, null, null).getIdStringPrefix();
+   private static final String ID_FACE_PREFIX = new IdFace(0).getIdStringPrefix();
+
+   private JsonPayloadCodecs() {
+   }
+
+   static public JsonPayloadCodec<IdVertex> idVertices() {
+      return new JsonPayloadCodec<IdVertex>() {
+         @Override
+         public String getId(IdVertex value) {
+            return value.getIdString();
+         }
+
+         @Override
+         public void write(JsonGenerator generator, IdVertex value) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", value.getIdString());
+            generator.writeEndObject();
+         }
+
+         @Override
+         public IdVertex read(JsonParser parser, Map<String, Object> payloads) throws IOException {
+            Integer id = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+               String field = parser.getCurrentName();
+               parser.nextToken();
+               if ("id".equals(field)) {
+                  id = parseId(parser, ID_VERTEX_PREFIX);
+               } else {
+                  parser.skipChildren();
+               }
+            }
+            return new IdVertex(id);
+         }
+      };
+   }
+
+   /**
+    * Reads and writes the coordinates as JSON numbers, without the
+    * intermediate tree of the data binding.
+    * @return A codec for coordinate vertices
+    */
+   static public JsonPayloadCodec<IdCoordinateVertex> idCoordinateVertices() {
+      return new JsonPayloadCodec<IdCoordinateVertex>() {
+         @Override
+         public String getId(IdCoordinateVertex value) {
+            return value.getIdString();
+         }
+
+         @Override
+         public void write(JsonGenerator generator, IdCoordinateVertex value) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", value.getIdString());
+            writeOrdinate(generator, "x", value.getX());
+            writeOrdinate(generator, "y", value.getY());
+            writeOrdinate(generator, "z", value.getZ());
+            generator.writeEndObject();
+         }
+
+         @Override
+         public IdCoordinateVertex read(JsonParser parser, Map<String, Object> payloads) throws IOException {
+            Integer id = null;
+            BigDecimal x = null;
+            BigDecimal y = null;
+            BigDecimal z = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+               String field = parser.getCurrentName();
+               parser.nextToken();
+               switch (field) {
+                  case "id":
+                     id = parseId(parser, COORDINATE_VERTEX_PREFIX);
+                     break;
+                  case "x":
+                     x = parser.getDecimalValue();
+                     break;
+                  case "y":
+                     y = parser.getDecimalValue();
+                     break;
+                  case "z":
+                     z = parser.getDecimalValue();
+                     break;
+                  default:
+                     parser.skipChildren();
+                     break;
+               }
+            }
+            IdCoordinateVertex vertex = new IdCoordinateVertex(id);
+            vertex.setX(x);
+            vertex.setY(y);
+            vertex.setZ(z);
+            return vertex;
+         }
+      };
+   }
+
+   static public <V> JsonPayloadCodec<UndirectedIdEdge<V>> undirectedIdEdges(final JsonPayloadCodec<V> vertexCodec) {
+      return new JsonPayloadCodec<UndirectedIdEdge<V>>() {
+         @Override
+         public String getId(UndirectedIdEdge<V> value) {
+            return value.getIdString();
+         }
+
+         @Override
+         public void write(JsonGenerator generator, UndirectedIdEdge<V> value) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", value.getIdString());
+            generator.writeStringField("source-vertex-id", vertexCodec.getId(value.getSource()));
+            generator.writeStringField("target-vertex-id", vertexCodec.getId(value.getTarget()));
+            generator.writeEndObject();
+         }
+
+         @Override
+         public UndirectedIdEdge<V> read(JsonParser parser, Map<String, Object> payloads) throws IOException {
+            Integer id = null;
+            V source = null;
+            V target = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+               String field = parser.getCurrentName();
+               parser.nextToken();
+               switch (field) {
+                  case "id":
+                     id = parseId(parser, ID_EDGE_PREFIX);
+                     break;
+                  case "source-vertex-id":
+                     source = (V) resolve(parser, payloads);
+                     break;
+                  case "target-vertex-id":
+                     target = (V) resolve(parser, payloads);
+                     break;
+                  default:
+                     parser.skipChildren();
+                     break;
+               }
+            }
+            return new UndirectedIdEdge<V>(id, source, target);
+         }
+      };
+   }
+
+   static public JsonPayloadCodec<IdFace> idFaces() {
+      return new JsonPayloadCodec<IdFace>() {
+         @Override
+         public String getId(IdFace value) {
+            return value.getIdString();
+         }
+
+         @Override
+         public void write(JsonGenerator generator, IdFace value) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", value.getIdString());
+            generator.writeEndObject();
+         }
+
+         @Override
+         public IdFace read(JsonParser parser, Map<String, Object> payloads) throws IOException {
+            Integer id = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+               String field = parser.getCurrentName();
+               parser.nextToken();
+               if ("id".equals(field)) {
+                  id = parseId(parser, ID_FACE_PREFIX);
+               } else {
+                  parser.skipChildren();
+               }
+            }
+            return new IdFace(id);
+         }
+      };
+   }
+
+   private static void writeOrdinate(JsonGenerator generator, String name, BigDecimal value) throws IOException {
+      if (value != null) {
+         generator.writeNumberField(name, value);
+      }
+   }
+
+   private static Integer parseId(JsonParser parser, String prefix) throws IOException {
+      String idString = parser.getText();
+      if (idString.startsWith(prefix)) {
+         idString = idString.substring(prefix.length());
+      }
+      try {
+         return Integer.parseInt(idString);
+      } catch (NumberFormatException ex) {
+         throw new JsonParseException(parser, "Invalid id " + parser.getText(), ex);
+      }
+   }
+
+   private static Object resolve(JsonParser parser, Map<String, Object> payloads) throws IOException {
+      Object value = payloads.get(parser.getText());
+      if (value == null) {
+         throw new JsonParseException(parser, "Unknown id " + parser.getText());
+      }
+      return value;
+   }
+}
@@ -62,6 +62,7 @@ public class XmlDoublyConnectedEdgeListAdapter<V, E, F> extends XmlAdapter<XmlDo
          dcel.getVertexMap().put(vertex.getVertex(), vertex);
       }
       
+      // Note the prev links are rebuilt by setNext as each next idref is resolved
       for (DcelHalfEdge<V, E, F> halfEdge : xmlDcel.getDcelHalfEdges()) {
          if (!dcel.getEdgeMap().containsKey(halfEdge.getEdge())) {
             dcel.getEdgeMap().put(halfEdge.getEdge(), halfEdge);
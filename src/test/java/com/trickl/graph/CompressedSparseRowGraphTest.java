@@ -0,0 +1,128 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.planar.PlanarSubGraph;
+import org.jgrapht.Graph;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CompressedSparseRowGraphTest {
+
+   private static void addWeightedPath(WeightedGraph<Integer, DefaultWeightedEdge> graph) {
+      for (int i = 0; i < 4; ++i) {
+         graph.addVertex(i);
+      }
+      graph.setEdgeWeight(graph.addEdge(0, 1), 2);
+      graph.setEdgeWeight(graph.addEdge(1, 2), 3);
+      graph.setEdgeWeight(graph.addEdge(2, 3), 5);
+   }
+
+   @Test
+   public void undirectedSnapshotHoldsBothDirections() throws Exception {
+      WeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+      addWeightedPath(graph);
+      CompressedSparseRowGraph<Integer, DefaultWeightedEdge> snapshot = new CompressedSparseRowGraph<Integer, DefaultWeightedEdge>(graph);
+
+      assertFalse(snapshot.isDirected());
+      assertEquals(4, snapshot.getVertexCount());
+      assertEquals(-1, snapshot.getId(4));
+      int one = snapshot.getId(1);
+      assertEquals(1, (int) snapshot.getVertex(one));
+      assertEquals(2, snapshot.getDegree(one));
+      assertEquals(6, snapshot.getTargets().length);
+
+      double weight = 0;
+      for (int i = snapshot.getOffsets()[one]; i < snapshot.getOffsets()[one + 1]; ++i) {
+         weight += snapshot.getWeights()[i];
+      }
+      assertEquals(5, weight, 1e-12);
+   }
+
+   @Test
+   public void algorithmsMatchOnSnapshot() throws Exception {
+      WeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+      addWeightedPath(graph);
+      CompressedSparseRowGraph<Integer, DefaultWeightedEdge> snapshot = new CompressedSparseRowGraph<Integer, DefaultWeightedEdge>(graph);
+
+      assertTrue(snapshot.isDirected());
+      assertEquals(3, snapshot.getTargets().length);
+      assertEquals(20, new Volume<Integer, DefaultWeightedEdge>(graph).getVolume(), 1e-12);
+      assertEquals(20, new Volume<Integer, DefaultWeightedEdge>(snapshot).getVolume(), 1e-12);
+
+      LaplacianGenerator<Integer, DefaultWeightedEdge> laplacian = new LaplacianGenerator<Integer, DefaultWeightedEdge>(snapshot);
+      assertEquals(laplacian.getLaplacian(), new LaplacianGenerator<Integer, DefaultWeightedEdge>(graph).getLaplacian());
+      int one = laplacian.getIndex(1);
+      int two = laplacian.getIndex(2);
+      assertEquals(5, laplacian.getLaplacian().get(one, one), 1e-12);
+      assertEquals(-3, laplacian.getLaplacian().get(one, two), 1e-12);
+      assertEquals(-3, laplacian.getLaplacian().get(two, one), 1e-12);
+   }
+
+   // The volume as counted over the edges of each vertex, before snapshots were used
+   private static <V, E> double getEdgesOfVolume(Graph<V, E> graph) {
+      double volume = 0;
+      for (V vertex : graph.vertexSet()) {
+         for (E edge : graph.edgesOf(vertex)) {
+            volume += graph.getEdgeWeight(edge);
+         }
+      }
+      return volume;
+   }
+
+   private static void assertTriangleMatchesBaseline(Graph<Integer, Integer> graph) {
+      CompressedSparseRowGraph<Integer, Integer> snapshot = new CompressedSparseRowGraph<Integer, Integer>(graph);
+      assertFalse(snapshot.isDirected());
+      assertEquals(6, getEdgesOfVolume(graph), 1e-12);
+      assertEquals(6, new Volume<Integer, Integer>(graph).getVolume(), 1e-12);
+      assertEquals(6, new Volume<Integer, Integer>(snapshot).getVolume(), 1e-12);
+
+      DoubleMatrix2D laplacian = new LaplacianGenerator<Integer, Integer>(graph).getLaplacian();
+      for (int i = 0; i < 3; ++i) {
+         assertEquals(2, laplacian.get(i, i), 1e-12);
+         assertEquals(0, laplacian.viewRow(i).zSum(), 1e-12);
+      }
+   }
+
+   @Test
+   public void planarGraphsMatchBaseline() throws Exception {
+      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      for (int i = 0; i < 3; ++i) {
+         graph.addVertex(i);
+      }
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 0);
+      assertTriangleMatchesBaseline(graph);
+
+      // A planar sub graph is not an UndirectedGraph, but holds each edge from both ends
+      assertTriangleMatchesBaseline(new PlanarSubGraph<Integer, Integer>(graph, graph.vertexSet(),
+              graph.getBoundary().getSource(), graph.getBoundary().getTarget()));
+   }
+}
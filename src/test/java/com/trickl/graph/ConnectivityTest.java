@@ -79,4 +79,29 @@ public class ConnectivityTest {
       assertFalse(connectivity.isConnected());
       assertEquals(2, connectivity.getComponents());
    }
+
+   @Test
+   public void twoComponentSnapshot() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 6; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(3, 4);
+      graph.addEdge(4, 5);
+
+      Connectivity<Integer, DefaultEdge> connectivity = new Connectivity<Integer, DefaultEdge>(
+              new CompressedSparseRowGraph<Integer, DefaultEdge>(graph));
+      assertEquals(2, connectivity.getComponents());
+      assertEquals(connectivity.getComponent(0), connectivity.getComponent(2));
+      assertNotEquals(connectivity.getComponent(2), connectivity.getComponent(3));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void snapshotNeedsAnEdgeFactoryToConnect() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      graph.addVertex(0);
+      graph.addVertex(1);
+
+      new Connectivity<Integer, DefaultEdge>(new CompressedSparseRowGraph<Integer, DefaultEdge>(graph)).makeConnected();
+   }
 }
@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Random;
+import org.jgrapht.Graph;
+
+class GraphTestSupport {
+
+   /**
+    * Add vertices 0 to vertexCount - 1 and random edges between them, the same
+    * for every call with the same arguments.
+    * @param <E>
+    * @param graph
+    * @param vertexCount
+    * @param edgeCount The number of edges to try adding, loops are skipped
+    * @param isolatedCount The number of highest numbered vertices left without
+    * edges, so the graph is disconnected
+    */
+   static public <E> void addRandomEdges(Graph<Integer, E> graph, int vertexCount, int edgeCount, int isolatedCount) {
+      Random random = new Random(0);
+      for (int i = 0; i < vertexCount; ++i) {
+         graph.addVertex(i);
+      }
+      for (int i = 0; i < edgeCount; ++i) {
+         int u = random.nextInt(vertexCount - isolatedCount);
+         int v = random.nextInt(vertexCount - isolatedCount);
+         if (u != v) {
+            graph.addEdge(u, v);
+         }
+      }
+   }
+}
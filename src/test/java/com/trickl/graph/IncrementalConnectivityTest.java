@@ -0,0 +1,84 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Random;
+import org.jgrapht.ListenableGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.ListenableUndirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalConnectivityTest {
+
+   @Test
+   public void emptyGraph() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      assertEquals(0, new IncrementalConnectivity<Integer, DefaultEdge>(graph).getComponents());
+   }
+
+   @Test
+   public void matchesConnectivityWhileStreamingEdges() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(
+              new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class));
+      for (int i = 0; i < 50; ++i) graph.addVertex(i);
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      assertEquals(50, connectivity.getComponents());
+
+      Random random = new Random(0);
+      for (int i = 0; i < 60; ++i) {
+         int u = random.nextInt(50);
+         int v = random.nextInt(50);
+         if (u != v) {
+            graph.addEdge(u, v);
+         }
+         if (i % 10 == 0) {
+            graph.addVertex(50 + i);
+         }
+
+         Connectivity<Integer, DefaultEdge> expected = new Connectivity<Integer, DefaultEdge>(graph);
+         assertEquals(expected.getComponents(), connectivity.getComponents());
+         assertEquals(expected.getComponent(0) == expected.getComponent(u),
+                      connectivity.isSameComponent(0, u));
+      }
+   }
+
+   @Test
+   public void removingAnEdgeSplitsItsComponent() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 4; ++i) graph.addVertex(i);
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 3);
+      assertTrue(connectivity.isConnected());
+      assertTrue(connectivity.isSameComponent(0, 3));
+
+      graph.removeEdge(1, 2);
+      assertEquals(2, connectivity.getComponents());
+      assertFalse(connectivity.isSameComponent(0, 3));
+
+      graph.removeVertex(3);
+      graph.addEdge(1, 2);
+      assertTrue(connectivity.isConnected());
+   }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static com.trickl.graph.GraphTestSupport.addRandomEdges;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ParallelBreadthFirstSearchTest {
+
+   // Split the levels into many small tasks, so both directions run in parallel
+   private static ParallelBreadthFirstSearch<Integer, DefaultEdge> createSearch(Graph<Integer, DefaultEdge> graph) {
+      ParallelBreadthFirstSearch<Integer, DefaultEdge> search = new ParallelBreadthFirstSearch<Integer, DefaultEdge>(graph);
+      search.setForkJoinPool(new ForkJoinPool(4));
+      search.setSequentialThreshold(16);
+      return search;
+   }
+
+   private static void assertSameHopCounts(Graph<Integer, DefaultEdge> graph) {
+      Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+      new BreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(7, new HopCountVisitor<Integer, DefaultEdge>(expected));
+
+      ParallelBreadthFirstSearch<Integer, DefaultEdge> search = createSearch(graph);
+      int[] actual = search.getSpanningHopCounts(7);
+      assertEquals(expected.size(), actual.length);
+      for (int i = 0; i < actual.length; ++i) {
+         assertEquals((int) expected.get(search.getGraph().getVertex(i)), actual[i]);
+      }
+   }
+
+   @Test
+   public void matchesHopCountVisitorOnUndirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 2000, 8000, 5);
+      assertSameHopCounts(graph);
+   }
+
+   @Test
+   public void matchesHopCountVisitorOnDirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 2000, 8000, 5);
+      assertSameHopCounts(graph);
+   }
+
+   @Test
+   public void multipleSourcesGiveNearestHopCount() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 500, 700, 5);
+      ParallelBreadthFirstSearch<Integer, DefaultEdge> search = createSearch(graph);
+
+      int[] expected = new int[500];
+      Arrays.fill(expected, -1);
+      for (int source : Arrays.asList(3, 50, 400)) {
+         int[] hops = search.getHopCounts(source);
+         for (int i = 0; i < hops.length; ++i) {
+            if (hops[i] >= 0 && (expected[i] < 0 || hops[i] < expected[i])) {
+               expected[i] = hops[i];
+            }
+         }
+      }
+
+      assertArrayEquals(expected, search.getHopCounts(Arrays.asList(3, 50, 400)));
+      assertEquals(-1, search.getHopCounts(3)[search.getGraph().getId(499)]);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void unknownSourceIsRejected() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 20, 10, 5);
+      new ParallelBreadthFirstSearch<Integer, DefaultEdge>(graph).getHopCounts(20);
+   }
+}
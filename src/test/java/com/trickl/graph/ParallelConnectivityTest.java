@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static com.trickl.graph.GraphTestSupport.addRandomEdges;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParallelConnectivityTest {
+
+   private static void assertSameComponents(Graph<Integer, DefaultEdge> graph) {
+      Connectivity<Integer, DefaultEdge> expected = new Connectivity<Integer, DefaultEdge>(graph);
+      ParallelConnectivity<Integer, DefaultEdge> actual = new ParallelConnectivity<Integer, DefaultEdge>(graph);
+      actual.setForkJoinPool(new ForkJoinPool(4));
+
+      assertEquals(expected.getComponents(), actual.getComponents());
+      Map<Integer, Integer> vertexComponents = actual.getVertexComponents();
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(expected.getComponent(vertex), actual.getComponent(vertex));
+         assertEquals(expected.getComponent(vertex), (int) vertexComponents.get(vertex));
+      }
+   }
+
+   @Test
+   public void emptyGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      assertEquals(0, new ParallelConnectivity<Integer, DefaultEdge>(graph).getComponents());
+   }
+
+   @Test
+   public void matchesConnectivityOnSparseGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 3000, 1400, 0);
+      assertSameComponents(graph);
+   }
+
+   @Test
+   public void matchesConnectivityWithLargeComponent() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 3000, 4000, 0);
+      assertSameComponents(graph);
+   }
+
+   @Test
+   public void directedEdgesJoinWeakComponents() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 5; ++i) graph.addVertex(i);
+      graph.addEdge(2, 0);
+      graph.addEdge(2, 1);
+      graph.addEdge(4, 3);
+
+      ParallelConnectivity<Integer, DefaultEdge> connectivity = new ParallelConnectivity<Integer, DefaultEdge>(
+              new CompressedSparseRowGraph<Integer, DefaultEdge>(graph));
+      assertEquals(2, connectivity.getComponents());
+      assertEquals(connectivity.getComponent(0), connectivity.getComponent(1));
+      assertNotEquals(connectivity.getComponent(1), connectivity.getComponent(3));
+   }
+}
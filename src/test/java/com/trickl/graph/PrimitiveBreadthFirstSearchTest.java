@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static com.trickl.graph.GraphTestSupport.addRandomEdges;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class PrimitiveBreadthFirstSearchTest {
+
+   public static class CallbackRecorder<V, E> implements SpanningSearchVisitor<V, E> {
+
+      private final List<String> callbacks = new ArrayList<String>();
+
+      @Override
+      public void initializeVertex(V u) {
+         callbacks.add("initialize " + u);
+      }
+
+      @Override
+      public void startVertex(V u) {
+         callbacks.add("start " + u);
+      }
+
+      @Override
+      public void discoverVertex(V u) {
+         callbacks.add("discover " + u);
+      }
+
+      @Override
+      public void examineEdge(V source, V target) {
+         callbacks.add("examine " + source + " " + target);
+      }
+
+      @Override
+      public void treeEdge(V source, V target) {
+         callbacks.add("tree " + source + " " + target);
+      }
+
+      @Override
+      public void backEdge(V source, V target) {
+         callbacks.add("back " + source + " " + target);
+      }
+
+      @Override
+      public void forwardOrCrossEdge(V source, V target) {
+         callbacks.add("forwardOrCross " + source + " " + target);
+      }
+
+      @Override
+      public void finishVertex(V u) {
+         callbacks.add("finish " + u);
+      }
+
+      public List<String> getCallbacks() {
+         return callbacks;
+      }
+   }
+
+   private static void assertSameCallbacks(Graph<Integer, DefaultEdge> graph) {
+      CallbackRecorder<Integer, DefaultEdge> expected = new CallbackRecorder<Integer, DefaultEdge>();
+      new BreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(expected);
+      CallbackRecorder<Integer, DefaultEdge> actual = new CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveBreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(actual);
+      assertEquals(expected.getCallbacks(), actual.getCallbacks());
+
+      expected = new CallbackRecorder<Integer, DefaultEdge>();
+      new BreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(7, expected);
+      actual = new CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveBreadthFirstSearch<Integer, DefaultEdge>(new CompressedSparseRowGraph<Integer, DefaultEdge>(graph)).traverse(7, actual);
+      assertEquals(expected.getCallbacks(), actual.getCallbacks());
+   }
+
+   @Test
+   public void emptyGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      CallbackRecorder<Integer, DefaultEdge> recorder = new CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveBreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(recorder);
+      assertEquals(0, recorder.getCallbacks().size());
+   }
+
+   @Test
+   public void matchesSearchOnUndirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 200, 300, 5);
+      assertSameCallbacks(graph);
+   }
+
+   @Test
+   public void matchesSearchOnDirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 200, 300, 5);
+      assertSameCallbacks(graph);
+   }
+}
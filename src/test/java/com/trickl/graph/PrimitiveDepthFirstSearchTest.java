@@ -0,0 +1,68 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static com.trickl.graph.GraphTestSupport.addRandomEdges;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class PrimitiveDepthFirstSearchTest {
+
+   private static void assertSameCallbacks(Graph<Integer, DefaultEdge> graph) {
+      PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge> expected = new PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge>();
+      new DepthFirstSearch<Integer, DefaultEdge>(graph).traverse(expected);
+      PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge> actual = new PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveDepthFirstSearch<Integer, DefaultEdge>(graph).traverse(actual);
+      assertEquals(expected.getCallbacks(), actual.getCallbacks());
+
+      expected = new PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge>();
+      new DepthFirstSearch<Integer, DefaultEdge>(graph).traverse(7, expected);
+      actual = new PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveDepthFirstSearch<Integer, DefaultEdge>(new CompressedSparseRowGraph<Integer, DefaultEdge>(graph)).traverse(7, actual);
+      assertEquals(expected.getCallbacks(), actual.getCallbacks());
+   }
+
+   @Test
+   public void emptyGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge> recorder = new PrimitiveBreadthFirstSearchTest.CallbackRecorder<Integer, DefaultEdge>();
+      new PrimitiveDepthFirstSearch<Integer, DefaultEdge>(graph).traverse(recorder);
+      assertEquals(0, recorder.getCallbacks().size());
+   }
+
+   @Test
+   public void matchesSearchOnUndirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 200, 300, 5);
+      assertSameCallbacks(graph);
+   }
+
+   @Test
+   public void matchesSearchOnDirectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      addRandomEdges(graph, 200, 300, 5);
+      assertSameCallbacks(graph);
+   }
+}
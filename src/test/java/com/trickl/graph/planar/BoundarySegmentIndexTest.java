@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineSegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class BoundarySegmentIndexTest {
+
+   @Test
+   public void findsSameInterceptionAsExhaustiveSearch() {
+      // A concave star shaped boundary with many segments
+      Map<Integer, Coordinate> coordinates = new HashMap<>();
+      List<Integer> boundaryVertices = new ArrayList<>();
+      int segmentCount = 400;
+      for (int i = 0; i < segmentCount; ++i) {
+         double angle = -2 * Math.PI * i / segmentCount;
+         double radius = i % 2 == 0 ? 1 : 0.6;
+         coordinates.put(i, new Coordinate(radius * Math.cos(angle), radius * Math.sin(angle)));
+         boundaryVertices.add(i);
+      }
+      PlanarLayout<Integer> layout = new MapPlanarLayout<>(coordinates);
+      BoundarySegmentIndex<Integer> boundaryIndex = new BoundarySegmentIndex<>(boundaryVertices, layout);
+
+      Random random = new Random(0);
+      for (int i = 0; i < 1000; ++i) {
+         // Include origins outside the boundary
+         Coordinate origin = new Coordinate(3 * random.nextDouble() - 1.5, 3 * random.nextDouble() - 1.5);
+         double angle = 2 * Math.PI * random.nextDouble();
+         LineSegment halfLine = new LineSegment(origin,
+                 new Coordinate(origin.x + Math.cos(angle), origin.y + Math.sin(angle)));
+         assertEquals(PlanarGraphs.getNearestInterceptingLineSegment(halfLine, boundaryVertices, layout),
+                 boundaryIndex.getNearestInterceptingLineSegment(halfLine));
+      }
+   }
+
+   @Test
+   public void ordersAddedVerticesAlongBoundary() {
+      Map<Integer, Coordinate> coordinates = new HashMap<>();
+      coordinates.put(0, new Coordinate(0, 0));
+      coordinates.put(1, new Coordinate(0, 1));
+      coordinates.put(2, new Coordinate(1, 1));
+      coordinates.put(3, new Coordinate(1, 0));
+      BoundarySegmentIndex<Integer> boundaryIndex = new BoundarySegmentIndex<>(Arrays.asList(0, 1, 2, 3),
+              new MapPlanarLayout<>(coordinates));
+
+      boundaryIndex.addVertex(0, 4, new Coordinate(0, 0.75));
+      boundaryIndex.addVertex(0, 5, new Coordinate(0, 0.25));
+      boundaryIndex.addVertex(3, 6, new Coordinate(0.5, 0));
+
+      assertEquals(Arrays.asList(0, 5, 4, 1, 2, 3, 6), boundaryIndex.getBoundaryVertices());
+      assertEquals(Integer.valueOf(5), boundaryIndex.getVertex(0, new Coordinate(0, 0.25)));
+      assertEquals(Integer.valueOf(1), boundaryIndex.getVertex(0, new Coordinate(0, 1)));
+      assertEquals(null, boundaryIndex.getVertex(0, new Coordinate(0, 0.5)));
+   }
+}
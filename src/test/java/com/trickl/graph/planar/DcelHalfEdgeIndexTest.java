@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class DcelHalfEdgeIndexTest {
+
+   @Test
+   public void testIndexMatchesRotation() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      DoublyConnectedEdgeList<Integer, Integer, Object> indexed = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      indexed.setHalfEdgeIndexed(true);
+
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(19);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+      generator.generateGraph(indexed, new IntegerVertexFactory(), null);
+
+      graph.removeEdge(0, 3);
+      indexed.removeEdge(0, 3);
+      graph.removeVertex(7);
+      indexed.removeVertex(7);
+
+      assertIndexedLookups(graph, indexed);
+
+      // Building the index on an existing graph must agree as well
+      graph.setHalfEdgeIndexed(true);
+      assertIndexedLookups(indexed, graph);
+   }
+
+   @Test
+   public void testIndexOnFanGraph() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> indexed = createFan(200);
+      indexed.setHalfEdgeIndexed(true);
+      assertIndexedLookups(createFan(200), indexed);
+   }
+
+   @Test
+   public void benchmarkFanGraph() {
+      if (!Boolean.parseBoolean(System.getProperty("performanceTests"))) {
+         return;
+      }
+
+      final int spokes = 2000;
+      final int repeats = 5;
+      for (boolean halfEdgeIndexed : new boolean[] {false, true}) {
+         DoublyConnectedEdgeList<Integer, Integer, Object> graph = createFan(spokes);
+         graph.setHalfEdgeIndexed(halfEdgeIndexed);
+
+         long start = System.nanoTime();
+         int found = 0;
+         for (int repeat = 0; repeat < repeats; ++repeat) {
+            for (int i = 1; i <= spokes; ++i) {
+               if (graph.containsEdge(0, i)) ++found;
+               if (graph.getEdge(i, 0) != null) ++found;
+               graph.getNextVertex(0, i);
+            }
+         }
+         long elapsed = System.nanoTime() - start;
+
+         assertEquals(2 * spokes * repeats, found);
+         System.out.println("Fan graph lookups (" + spokes + " spokes, indexed="
+                 + halfEdgeIndexed + "): " + (elapsed / 1000000) + "ms");
+      }
+   }
+
+   private static DoublyConnectedEdgeList<Integer, Integer, Object> createFan(int spokes) {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      graph.addEdge(0, 1);
+      for (int i = 2; i <= spokes; ++i) {
+         graph.addEdge(0, i, i - 1, null);
+         graph.addEdge(i - 1, i);
+      }
+      return graph;
+   }
+
+   private static void assertIndexedLookups(PlanarFaceGraph<Integer, Integer, Object> expected,
+           PlanarFaceGraph<Integer, Integer, Object> graph) {
+      assertEquals(expected.edgeSet(), graph.edgeSet());
+      for (Integer source : expected.vertexSet()) {
+         for (Integer target : expected.vertexSet()) {
+            assertEquals(expected.getEdge(source, target), graph.getEdge(source, target));
+            if (expected.containsEdge(source, target)) {
+               assertEquals(expected.getNextVertex(source, target), graph.getNextVertex(source, target));
+               assertEquals(expected.isBoundary(source, target), graph.isBoundary(source, target));
+            }
+         }
+      }
+   }
+}
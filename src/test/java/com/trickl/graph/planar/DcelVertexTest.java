@@ -24,8 +24,14 @@ import com.trickl.graph.vertices.IdVertex;
 import com.trickl.graph.vertices.IdVertexFactory;
 import com.trickl.graph.edges.UndirectedIdEdge;
 import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
 import com.trickl.graph.planar.DoublyConnectedEdgeList;
 import com.trickl.graph.planar.PlanarGraph;
+import java.util.*;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -34,6 +40,14 @@ public class DcelVertexTest {
    public DcelVertexTest() {
    }
 
+   /**
+    * Create the graph under test, so the same behaviours can be run against
+    * each planar graph backend.
+    */
+   protected <V, E> PlanarFaceGraph<V, E, Object> createGraph(EdgeFactory<V, E> edgeFactory) {
+      return new DoublyConnectedEdgeList<V, E, Object>(edgeFactory, Object.class);
+   }
+
    /**
     * Test the construction of a graph when joining two separate islands of edges
     */
@@ -41,9 +55,7 @@ public class DcelVertexTest {
    public void testAddEdgeDisconnectedFaces() {
         IdVertexFactory vertexFactory = new IdVertexFactory();
       PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph
-              = new DoublyConnectedEdgeList<IdVertex,
-              UndirectedIdEdge<IdVertex>,
-              Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+              = createGraph(new UndirectedIdEdgeFactory<IdVertex>());
       for (int i = 0; i < 6; ++i) graph.addVertex(vertexFactory.createVertex());
 
       graph.addEdge(vertexFactory.get(0), vertexFactory.get(1));
@@ -66,9 +78,7 @@ public class DcelVertexTest {
    public void testAddEdgeExteriorEdge() {
         IdVertexFactory vertexFactory = new IdVertexFactory();
       PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph
-              = new DoublyConnectedEdgeList<IdVertex,
-              UndirectedIdEdge<IdVertex>,
-              Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+              = createGraph(new UndirectedIdEdgeFactory<IdVertex>());
       for (int i = 0; i < 6; ++i) graph.addVertex(vertexFactory.createVertex());
 
       graph.addEdge(vertexFactory.get(0), vertexFactory.get(1));
@@ -84,4 +94,70 @@ public class DcelVertexTest {
 
       assertEquals(9, graph.edgeSet().size());
    }
-}
\ No newline at end of file
+
+   @Test
+   public void testCachedCountsMatchRotation() {
+      PlanarFaceGraph<Integer, Integer, Object> graph = createGraph(new IntegerEdgeFactory());
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(19);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+      assertCachedCounts(graph);
+
+      graph.removeEdge(0, 3);
+      graph.removeEdge(17, 18);
+      graph.removeVertex(7);
+      assertCachedCounts(graph);
+
+      graph.setBoundary(0, 1);
+      assertCachedCounts(graph);
+
+      // Pendant edge to a new vertex
+      graph.addEdge(0, 100);
+      assertCachedCounts(graph);
+   }
+
+   @Test
+   public void testRemoveAllEdges() {
+      PlanarFaceGraph<Integer, Integer, Object> graph = createGraph(new IntegerEdgeFactory());
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(7);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+      Integer edge = graph.getEdge(0, 1);
+
+      assertEquals(Collections.singleton(edge), graph.removeAllEdges(1, 0));
+      assertFalse(graph.containsEdge(0, 1));
+      assertTrue(graph.removeAllEdges(1, 0).isEmpty());
+      assertCachedCounts(graph);
+
+      // Every edge must go, not just the first one removed
+      assertTrue(graph.removeAllEdges(new ArrayList<Integer>(graph.edgeSet())));
+      assertTrue(graph.edgeSet().isEmpty());
+      assertFalse(graph.removeAllEdges(Arrays.asList(edge)));
+      assertCachedCounts(graph);
+   }
+
+   @Test
+   public void testRemoveAllVertices() {
+      PlanarFaceGraph<Integer, Integer, Object> graph = createGraph(new IntegerEdgeFactory());
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(7);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+
+      assertTrue(graph.removeAllVertices(Arrays.asList(1, 2, 3)));
+      assertEquals(new HashSet<Integer>(Arrays.asList(0, 4, 5, 6)), graph.vertexSet());
+      assertFalse(graph.removeAllVertices(Arrays.asList(1, 2)));
+      assertCachedCounts(graph);
+   }
+
+   private static <V, E> void assertCachedCounts(PlanarFaceGraph<V, E, Object> graph) {
+      for (V vertex : graph.vertexSet()) {
+         boolean isBoundary = false;
+         for (E edge : graph.edgesOf(vertex)) {
+            isBoundary |= graph.isBoundary(graph.getEdgeSource(edge), graph.getEdgeTarget(edge))
+                    || graph.isBoundary(graph.getEdgeTarget(edge), graph.getEdgeSource(edge));
+         }
+         assertEquals(graph.edgesOf(vertex).size(), ((UndirectedGraph<V, E>) graph).degreeOf(vertex));
+         assertEquals(isBoundary, PlanarGraphs.isVertexBoundary(graph, vertex));
+      }
+   }
+}
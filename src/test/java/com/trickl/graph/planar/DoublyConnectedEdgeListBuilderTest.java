@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class DoublyConnectedEdgeListBuilderTest {
+
+   @Test
+   public void testBuildMatchesIncrementalEmbedding() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(7);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+
+      DoublyConnectedEdgeListBuilder<Integer, Integer, Object> builder
+              = new DoublyConnectedEdgeListBuilder<Integer, Integer, Object>(new IntegerEdgeFactory(), new ClassBasedFaceFactory<Integer, Object>(Object.class));
+      RotationCursor<Integer> rotation = PlanarGraphs.rotationCursor(graph);
+      for (Integer vertex : graph.vertexSet()) {
+         List<Integer> neighbours = new ArrayList<Integer>();
+         if (rotation.reset(vertex)) {
+            do {
+               neighbours.add(rotation.getTarget());
+            } while (rotation.next());
+         }
+         builder.addVertex(vertex, neighbours);
+      }
+      DirectedEdge<Integer> boundary = graph.getBoundary();
+      builder.setBoundary(boundary.getSource(), boundary.getTarget());
+      DoublyConnectedEdgeList<Integer, Integer, Object> built = builder.build();
+
+      assertEquals(graph.vertexSet(), built.vertexSet());
+      assertEquals(graph.edgeSet().size(), built.edgeSet().size());
+      assertEquals(graph.getFaceMap().size(), built.getFaceMap().size());
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(getTargets(graph, vertex), getTargets(built, vertex));
+         for (Integer target : getTargets(graph, vertex)) {
+            assertEquals(PlanarGraphs.getVerticesOnFace(graph, vertex, target),
+                    PlanarGraphs.getVerticesOnFace(built, vertex, target));
+            assertEquals(graph.isBoundary(vertex, target), built.isBoundary(vertex, target));
+            assertSame(built.getVertexMap().get(vertex).getHalfEdge(target),
+                    built.getVertexMap().get(target).getHalfEdge(vertex).getTwin());
+         }
+      }
+   }
+
+   @Test
+   public void testBuildLargeGrid() {
+      int size = 400;
+      DoublyConnectedEdgeListBuilder<Integer, Integer, Object> builder
+              = new DoublyConnectedEdgeListBuilder<Integer, Integer, Object>(new IntegerEdgeFactory(), new ClassBasedFaceFactory<Integer, Object>(Object.class));
+      for (int y = 0; y < size; ++y) {
+         for (int x = 0; x < size; ++x) {
+            List<Integer> neighbours = new ArrayList<Integer>(4);
+            if (x + 1 < size) neighbours.add(y * size + x + 1);
+            if (y + 1 < size) neighbours.add((y + 1) * size + x);
+            if (x > 0) neighbours.add(y * size + x - 1);
+            if (y > 0) neighbours.add((y - 1) * size + x);
+            builder.addVertex(y * size + x, neighbours);
+         }
+      }
+      DoublyConnectedEdgeList<Integer, Integer, Object> built = builder.build();
+
+      int edgeCount = 2 * size * (size - 1);
+      assertEquals(size * size, built.vertexSet().size());
+      assertEquals(edgeCount, built.edgeSet().size());
+      // Euler's formula, including the boundary face
+      assertEquals(edgeCount - size * size + 2, built.getFaceMap().size());
+      assertTrue(built.isBoundary(0, 1));
+      assertFalse(built.isBoundary(1, 0));
+      assertTrue(built.isVertexBoundary(size - 1));
+      assertFalse(built.isVertexBoundary(size + 1));
+   }
+
+   @Test(expected = GraphArgumentException.class)
+   public void testAsymmetricRotationRejected() {
+      DoublyConnectedEdgeListBuilder<Integer, Integer, Object> builder
+              = new DoublyConnectedEdgeListBuilder<Integer, Integer, Object>(new IntegerEdgeFactory(), new ClassBasedFaceFactory<Integer, Object>(Object.class));
+      builder.addVertex(0, Arrays.asList(1, 2));
+      builder.addVertex(1, Arrays.asList(2, 0));
+      builder.addVertex(2, Arrays.asList(1));
+      builder.build();
+   }
+
+   private static List<Integer> getTargets(PlanarGraph<Integer, Integer> graph, Integer vertex) {
+      List<Integer> targets = new ArrayList<Integer>();
+      for (Integer edge : graph.edgesOf(vertex)) {
+         targets.add(org.jgrapht.Graphs.getOppositeVertex(graph, edge, vertex));
+      }
+      return targets;
+   }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DoublyConnectedEdgeListTest {
+
+   @Test
+   public void testTraversalBeyondTenThousandEdges() {
+      final int size = 20000;
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      graph.setHalfEdgeIndexed(true);
+      // A hub with many spokes, each spoke also extended into a long tail
+      for (int i = 1; i <= size; ++i) {
+         graph.addEdge(0, i);
+      }
+      for (int i = size + 1; i <= 2 * size; ++i) {
+         graph.addEdge(i - 1, i);
+      }
+
+      assertEquals(size, graph.degreeOf(0));
+      assertEquals(size, PlanarGraphs.getConnectedVertices(graph, 0).size());
+      assertEquals(2 * size - 1, (int) graph.getPrevVertexOnBoundary(2 * size));
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void testCorruptFaceWalkDetected() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2, 0, null);
+      graph.addEdge(2, 0, 1, null);
+
+      // Short circuit a face, so a walk from the prior edge never returns
+      DcelHalfEdge<Integer, Integer, Object> halfEdge = graph.getEdgeMap().get(graph.getEdge(0, 1));
+      DcelHalfEdge<Integer, Integer, Object> prev = halfEdge.getPrev();
+      halfEdge.setNext(halfEdge);
+      for (DcelHalfEdge<Integer, Integer, Object> itr : prev.edges()) {
+      }
+   }
+
+   @Test(expected = AssertionError.class)
+   public void testAssertionDetectsInconsistentTwin() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2, 0, null);
+
+      DcelHalfEdge<Integer, Integer, Object> halfEdge = graph.getEdgeMap().get(graph.getEdge(1, 2));
+      halfEdge.getTwin().setTwin(graph.getEdgeMap().get(graph.getEdge(0, 1)));
+      graph.degreeOf(1);
+   }
+}
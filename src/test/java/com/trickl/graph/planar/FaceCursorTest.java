@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class FaceCursorTest {
+
+   @Test
+   public void testDcelCursors() {
+      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      generateCircleGraph(graph);
+      assertCursorsMatchEmbedding(graph);
+   }
+
+   @Test
+   public void testIndexedDcelCursors() {
+      PlanarGraph<Integer, Integer> graph = new IndexedDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      generateCircleGraph(graph);
+      assertCursorsMatchEmbedding(graph);
+   }
+
+   @Test
+   public void testEmbeddingCursors() {
+      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      generateCircleGraph(graph);
+      DirectedEdge<Integer> boundary = graph.getBoundary();
+      PlanarGraph<Integer, Integer> subGraph = new PlanarSubGraph<Integer, Integer>(graph,
+              graph.vertexSet(), boundary.getSource(), boundary.getTarget());
+      assertCursorsMatchEmbedding(subGraph);
+   }
+
+   private static void generateCircleGraph(PlanarGraph<Integer, Integer> graph) {
+      PlanarCircleGraphGenerator generator =
+              new PlanarCircleGraphGenerator<Integer, Integer>(7);
+      generator.generateGraph(graph, new IntegerVertexFactory(), null);
+   }
+
+   private static void assertCursorsMatchEmbedding(PlanarGraph<Integer, Integer> graph) {
+
+      FaceCursor<Integer> faceCursor = PlanarGraphs.faceCursor(graph);
+      RotationCursor<Integer> rotationCursor = PlanarGraphs.rotationCursor(graph);
+      for (Integer vertex : graph.vertexSet()) {
+         List<Integer> targets = new ArrayList<Integer>();
+         assertTrue(rotationCursor.reset(vertex));
+         do {
+            assertEquals(vertex, rotationCursor.getSource());
+            targets.add(rotationCursor.getTarget());
+         } while (rotationCursor.next());
+
+         List<Integer> expectedTargets = new ArrayList<Integer>();
+         for (Integer edge : graph.edgesOf(vertex)) {
+            expectedTargets.add(org.jgrapht.Graphs.getOppositeVertex(graph, edge, vertex));
+         }
+         assertEquals(expectedTargets, targets);
+
+         // Stepping backwards visits the same edges in reverse
+         List<Integer> reverseTargets = new ArrayList<Integer>();
+         rotationCursor.reset(vertex, targets.get(0));
+         while (rotationCursor.prev()) {
+            reverseTargets.add(0, rotationCursor.getTarget());
+         }
+         assertEquals(targets.subList(1, targets.size()), reverseTargets);
+
+         for (Integer target : targets) {
+            List<Integer> faceVertices = new ArrayList<Integer>();
+            faceCursor.reset(vertex, target);
+            boolean isBoundary = faceCursor.isBoundary();
+            do {
+               faceVertices.add(faceCursor.getSource());
+               assertEquals(isBoundary, faceCursor.isBoundary());
+            } while (faceCursor.next());
+            assertEquals(PlanarGraphs.getVerticesOnFace(graph, vertex, target), faceVertices);
+            assertEquals(isBoundary, graph.isBoundary(vertex, target));
+
+            faceCursor.prev();
+            assertEquals(faceVertices.get(faceVertices.size() - 1), faceCursor.getSource());
+
+            faceCursor.reset(vertex, target);
+            faceCursor.twin();
+            assertEquals(target, faceCursor.getSource());
+            assertEquals(vertex, faceCursor.getTarget());
+         }
+      }
+   }
+}
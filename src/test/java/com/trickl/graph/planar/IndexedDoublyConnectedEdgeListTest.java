@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.DelaunayGraphGenerator;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.util.*;
+import org.jgrapht.EdgeFactory;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IndexedDoublyConnectedEdgeListTest extends DcelVertexTest {
+
+   @Override
+   protected <V, E> PlanarFaceGraph<V, E, Object> createGraph(EdgeFactory<V, E> edgeFactory) {
+      return new IndexedDoublyConnectedEdgeList<V, E, Object>(edgeFactory, Object.class);
+   }
+
+   @Test
+   public void testRemoveEdges() {
+      PlanarFaceGraph<Integer, Integer, Object> expected = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarFaceGraph<Integer, Integer, Object> graph = new IndexedDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      for (PlanarFaceGraph<Integer, Integer, Object> target : Arrays.asList(expected, graph)) {
+         PlanarCircleGraphGenerator generator =
+                 new PlanarCircleGraphGenerator<Integer, Integer>(7);
+         generator.generateGraph(target, new IntegerVertexFactory(), null);
+         assertEquals(7, target.faceSet().size());
+
+         target.removeEdge(0, 1);
+         target.removeEdge(0, 3);
+         assertEquals(5, target.faceSet().size());
+      }
+
+      assertEquals(PlanarGraphs.getConnectedVertices(expected, 0),
+              PlanarGraphs.getConnectedVertices(graph, 0));
+      assertEquals(expected.getBoundary(), graph.getBoundary());
+
+      expected.removeVertex(0);
+      graph.removeVertex(0);
+      assertEquals(6, graph.vertexSet().size());
+      assertEquals(expected.faceSet().size(), graph.faceSet().size());
+      for (Integer vertex : expected.vertexSet()) {
+         assertEquals(PlanarGraphs.getConnectedVertices(expected, vertex),
+                 PlanarGraphs.getConnectedVertices(graph, vertex));
+         assertEquals(PlanarGraphs.isVertexBoundary(expected, vertex),
+                 PlanarGraphs.isVertexBoundary(graph, vertex));
+      }
+   }
+
+   @Test
+   public void testSameEmbeddingAsObjectDcel() {
+      List<Coordinate> sites = new ArrayList<Coordinate>();
+      Random random = new Random(0);
+      for (int i = 0; i < 200; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+
+      PlanarFaceGraph<Integer, Integer, Object> expected = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      IntegerVertexFactory expectedVertexFactory = new IntegerVertexFactory();
+      new DelaunayGraphGenerator<Integer, Integer>(sites, expectedVertexFactory)
+              .generateGraph(expected, expectedVertexFactory, null);
+
+      PlanarFaceGraph<Integer, Integer, Object> graph = new IndexedDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
+      new DelaunayGraphGenerator<Integer, Integer>(sites, vertexFactory)
+              .generateGraph(graph, vertexFactory, null);
+
+      assertEquals(expected.vertexSet(), graph.vertexSet());
+      assertEquals(expected.edgeSet().size(), graph.edgeSet().size());
+      assertEquals(expected.faceSet().size(), graph.faceSet().size());
+      assertEquals(expected.getBoundary(), graph.getBoundary());
+      for (Integer vertex : expected.vertexSet()) {
+         assertEquals(PlanarGraphs.getConnectedVertices(expected, vertex),
+                 PlanarGraphs.getConnectedVertices(graph, vertex));
+      }
+   }
+}
@@ -62,12 +62,19 @@ public class PlanarGraphsTest {
    public PlanarGraphsTest() {
    }
 
+   /**
+    * Create the graph under test, so the same behaviours can be run against
+    * each planar graph backend.
+    */
+   protected PlanarGraph<Integer, Integer> createGraph() {
+      return new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+   }
 
    @Test
    public void testAggregation() {
       System.out.println("aggregation");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
+      PlanarGraph<Integer, Integer> subgraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -107,7 +114,7 @@ public class PlanarGraphsTest {
    @Test
    public void testBoundaryHops() {
       System.out.println("boundaryHops");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -127,7 +134,7 @@ public class PlanarGraphsTest {
    @Test
    public void testConnectedVertices() {
       System.out.println("connectedVertices");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -165,7 +172,7 @@ public class PlanarGraphsTest {
    @Test
    public void testVerticesOnFace() {
       System.out.println("verticesOnFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -204,8 +211,8 @@ public class PlanarGraphsTest {
    @Test
    public void testSubgraphDegreeTwo() {
       System.out.println("subgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
+      PlanarGraph<Integer, Integer> subgraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -235,8 +242,8 @@ public class PlanarGraphsTest {
    @Test
    public void testSubgraphDegreeHigherThanTwo() {
       System.out.println("subgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
+      PlanarGraph<Integer, Integer> subgraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -267,8 +274,8 @@ public class PlanarGraphsTest {
    @Test
    public void testDualGraph() {
       System.out.println("dualgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> dualGraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
+      PlanarGraph<Integer, Integer> dualGraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -293,8 +300,8 @@ public class PlanarGraphsTest {
    @Test
    public void testDualGraphLarge() {
       System.out.println("dualgraphlarge");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> dualGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
+      PlanarGraph<Integer, Integer> dualGraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -309,7 +316,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiMedium() throws Exception {
       System.out.println("delaunayVoronoiMedium");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator<Integer, Integer> generator =
@@ -332,7 +339,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiTiny() throws Exception {
       System.out.println("delaunayVoronoiTiny");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 5; ++i) {
@@ -366,7 +373,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiBoundaryConditions() throws Exception {
       System.out.println("delaunayVoronoiBoundaryConditions");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = createGraph();
 
       IntegerVertexFactory  vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 6; ++i) {         
@@ -456,7 +463,7 @@ public class PlanarGraphsTest {
    @Test
    public void testRemoveEdgesWithinBoundary() {
       System.out.println("removeEdgesWithinBoundary");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 5; ++i) {
@@ -490,7 +497,7 @@ public class PlanarGraphsTest {
    @Test
    public void testRemoveEdgesWithinBoundaryCaseTwo() {
       System.out.println("removeEdgesWithinBoundaryCaseTwo");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 8; ++i) {
@@ -525,7 +532,7 @@ public class PlanarGraphsTest {
    @Test
    public void testTriangulateFace() {
       System.out.println("triangulateFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
 
@@ -555,7 +562,7 @@ public class PlanarGraphsTest {
    @Test
    public void testTriangulateFaceCaseTwo() {
       System.out.println("triangulateFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = createGraph();
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
 
@@ -589,7 +596,7 @@ public class PlanarGraphsTest {
    @Test
    public void testInnermostVertices() {
        System.out.println("innermostVertices");
-       PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+       PlanarGraph<Integer, Integer> graph = createGraph();
 
         IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
         PlanarCircleGraphGenerator generator =
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.generate.DelaunayGraphGenerator;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class VoronoiCellProducerTest {
+
+   private final GeometryFactory geometryFactory = new GeometryFactory();
+
+   private DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generateDelaunay(
+           PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph, int siteCount) {
+      CoordinateList sites = new CoordinateList();
+      Random random = new Random(0);
+      for (int i = 0; i < siteCount; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+      IdVertexFactory vertexFactory = new IdVertexFactory();
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      generator.generateGraph(graph, vertexFactory, null);
+      return generator;
+   }
+
+   private LinearRing createSquare(double min, double max) {
+      return geometryFactory.createLinearRing(new Coordinate[]{
+         new Coordinate(min, min), new Coordinate(min, max), new Coordinate(max, max),
+         new Coordinate(max, min), new Coordinate(min, min)});
+   }
+
+   @Test
+   public void cellsPartitionBoundary() {
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> delaunay = new DoublyConnectedEdgeList<>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      PlanarLayout<IdVertex> layout = generateDelaunay(delaunay, 500);
+      LinearRing boundary = createSquare(-0.5, 1.5);
+      VoronoiCellProducer<IdVertex, UndirectedIdEdge<IdVertex>> producer = new VoronoiCellProducer<>(delaunay, layout, boundary);
+
+      Map<IdVertex, Polygon> cells = new HashMap<>();
+      producer.forEachCell((site, cell) -> cells.put(site, cell));
+      assertEquals(500, cells.size());
+
+      double totalArea = 0;
+      for (Polygon cell : cells.values()) {
+         totalArea += cell.getArea();
+      }
+      assertEquals(4, totalArea, 1e-9);
+
+      // Points in each cell are nearest its site
+      Random random = new Random(1);
+      for (int i = 0; i < 1000; ++i) {
+         Coordinate location = new Coordinate(2 * random.nextDouble() - 0.5, 2 * random.nextDouble() - 0.5);
+         IdVertex nearest = Collections.min(delaunay.vertexSet(),
+                 Comparator.comparing((IdVertex site) -> layout.getCoordinate(site).distance(location)));
+         assertTrue(cells.get(nearest).covers(geometryFactory.createPoint(location)));
+      }
+   }
+
+   @Test
+   public void parallelStreamMatchesSequential() {
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> delaunay = new DoublyConnectedEdgeList<>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      PlanarLayout<IdVertex> layout = generateDelaunay(delaunay, 500);
+      VoronoiCellProducer<IdVertex, UndirectedIdEdge<IdVertex>> producer = new VoronoiCellProducer<>(delaunay, layout, createSquare(0.25, 0.75));
+
+      Map<IdVertex, Double> areas = producer.stream().collect(Collectors.groupingBy(Map.Entry::getKey,
+              Collectors.summingDouble(entry -> entry.getValue().getArea())));
+      Map<IdVertex, Double> parallelAreas = producer.parallelStream().collect(Collectors.groupingBy(Map.Entry::getKey,
+              Collectors.summingDouble(entry -> entry.getValue().getArea())));
+      assertEquals(areas, parallelAreas);
+      assertTrue(areas.size() < 500);
+      assertEquals(0.25, areas.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+   }
+
+   @Test
+   public void unboundedCellsAreOmittedWithoutBoundary() {
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> delaunay = new DoublyConnectedEdgeList<>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      PlanarLayout<IdVertex> layout = generateDelaunay(delaunay, 100);
+      VoronoiCellProducer<IdVertex, UndirectedIdEdge<IdVertex>> producer = new VoronoiCellProducer<>(delaunay, layout, null);
+
+      List<Map.Entry<IdVertex, Polygon>> cells = producer.stream().collect(Collectors.toList());
+      int hullSites = 0;
+      for (IdVertex site : delaunay.vertexSet()) {
+         if (PlanarGraphs.isVertexBoundary(delaunay, site)) {
+            ++hullSites;
+         }
+      }
+      assertEquals(100 - hullSites, cells.size());
+      for (Map.Entry<IdVertex, Polygon> cell : cells) {
+         assertTrue(cell.getValue().covers(geometryFactory.createPoint(layout.getCoordinate(cell.getKey()))));
+      }
+   }
+}
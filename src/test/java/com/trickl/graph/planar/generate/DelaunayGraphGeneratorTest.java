@@ -37,6 +37,8 @@ import com.vividsolutions.jts.geom.CoordinateList;
 import javax.swing.JScrollPane;
 import org.jgraph.JGraph;
 import org.jgrapht.VertexFactory;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.createClusteredSites;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.getEdgeCoordinates;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
@@ -166,4 +168,44 @@ public class DelaunayGraphGeneratorTest {
         window.showAndWait();
       }
    }      
+
+   @Test
+   public void pointLocatorsProduceSameTriangulation() throws Exception {
+      CoordinateList sites = createClusteredSites(2000);
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      generator.setPointLocator(new LastVertexPointLocator<IdVertex>());
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> gridGenerator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      gridGenerator.setPointLocator(new GridPointLocator<IdVertex>());
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> gridGraph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      gridGenerator.generateGraph(gridGraph, vertexFactory, null);
+
+      assertEquals(getEdgeCoordinates(graph, generator), getEdgeCoordinates(gridGraph, gridGenerator));
+   }
+
+   @Test
+   public void batchInsertProducesSameTriangulation() throws Exception {
+      CoordinateList sites = createClusteredSites(2000);
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> batchGenerator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      batchGenerator.setBatchInsert(true);
+      batchGenerator.setPointLocator(new LastVertexPointLocator<IdVertex>());
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> batchGraph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      batchGenerator.generateGraph(batchGraph, vertexFactory, null);
+
+      assertEquals(getEdgeCoordinates(graph, generator), getEdgeCoordinates(batchGraph, batchGenerator));
+   }
 }
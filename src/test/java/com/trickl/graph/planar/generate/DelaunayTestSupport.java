@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.planar.PlanarLayout;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertTrue;
+
+class DelaunayTestSupport {
+
+   /**
+    * Random sites, every other one clustered near the origin, so the
+    * triangulation has both sparse and dense regions.
+    * @param count
+    * @return The sites, the same for every call with the same count
+    */
+   static public CoordinateList createClusteredSites(int count) {
+      CoordinateList sites = new CoordinateList();
+      Random random = new Random(0);
+      for (int i = 0; i < count; ++i) {
+         double scale = i % 2 == 0 ? 1 : 0.01;
+         sites.add(new Coordinate(scale * random.nextDouble(), scale * random.nextDouble()));
+      }
+      return sites;
+   }
+
+   /**
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @param layout
+    * @return The edges of the graph as pairs of coordinates, so triangulations
+    * with different vertices can be compared
+    */
+   static public <V, E> Set<Set<Coordinate>> getEdgeCoordinates(PlanarGraph<V, E> graph, PlanarLayout<V> layout) {
+      Set<Set<Coordinate>> edges = new HashSet<>();
+      for (E edge : graph.edgeSet()) {
+         Set<Coordinate> endpoints = new HashSet<>();
+         endpoints.add(layout.getCoordinate(graph.getEdgeSource(edge)));
+         endpoints.add(layout.getCoordinate(graph.getEdgeTarget(edge)));
+         edges.add(endpoints);
+      }
+      assertTrue(!edges.isEmpty());
+      return edges;
+   }
+}
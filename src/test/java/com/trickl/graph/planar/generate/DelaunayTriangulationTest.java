@@ -0,0 +1,120 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.VertexFactory;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.getEdgeCoordinates;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DelaunayTriangulationTest {
+
+   @Test
+   public void remainsDelaunayAfterInsertRemoveAndMove() throws Exception {
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>> triangulation
+              = new DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>>(graph, vertexFactory,
+                      new Envelope(0, 1, 0, 1), 1000, new GridPointLocator<IdVertex>());
+
+      Random random = new Random(0);
+      List<IdVertex> sites = new ArrayList<IdVertex>();
+      for (int i = 0; i < 1000; ++i) {
+         IdVertex vertex = vertexFactory.createVertex();
+         assertTrue(triangulation.insertSite(vertex, new Coordinate(random.nextDouble(), random.nextDouble())));
+         sites.add(vertex);
+      }
+
+      for (int i = 0; i < 300; ++i) {
+         IdVertex vertex = sites.remove(random.nextInt(sites.size()));
+         triangulation.removeSite(vertex);
+         assertFalse(graph.containsVertex(vertex));
+      }
+
+      for (int i = 0; i < 300; ++i) {
+         IdVertex vertex = sites.get(random.nextInt(sites.size()));
+         Coordinate site = triangulation.getCoordinate(vertex);
+         double dx = 0.05 * (random.nextDouble() - 0.5);
+         double dy = 0.05 * (random.nextDouble() - 0.5);
+         Coordinate moved = new Coordinate(Math.min(1, Math.max(0, site.x + dx)), Math.min(1, Math.max(0, site.y + dy)));
+         assertTrue(triangulation.moveSite(vertex, moved));
+         assertEquals(moved, triangulation.getCoordinate(vertex));
+      }
+
+      // Compare with a triangulation built from scratch
+      List<Coordinate> coordinates = new ArrayList<Coordinate>();
+      for (IdVertex vertex : sites) {
+         coordinates.add(triangulation.getCoordinate(vertex));
+      }
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(coordinates, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> expected = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(expected, vertexFactory, null);
+
+      for (IdVertex vertex : triangulation.getBoundingVertices()) {
+         graph.removeVertex(vertex);
+      }
+      assertEquals(getEdgeCoordinates(expected, generator), getEdgeCoordinates(graph, triangulation));
+   }
+
+   @Test
+   public void ignoresDuplicateSites() throws Exception {
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>> triangulation
+              = new DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>>(graph, vertexFactory, new Envelope(0, 1, 0, 1));
+
+      IdVertex a = vertexFactory.createVertex();
+      IdVertex b = vertexFactory.createVertex();
+      IdVertex c = vertexFactory.createVertex();
+      assertTrue(triangulation.insertSite(a, new Coordinate(0, 0)));
+      assertTrue(triangulation.insertSite(b, new Coordinate(1, 1)));
+      assertFalse(triangulation.insertSite(c, new Coordinate(0, 0)));
+      assertFalse(graph.containsVertex(c));
+
+      // Moving onto another site leaves the site where it was
+      assertFalse(triangulation.moveSite(b, new Coordinate(0, 0)));
+      assertEquals(new Coordinate(1, 1), triangulation.getCoordinate(b));
+      assertTrue(graph.containsEdge(a, b));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void rejectsSitesOutsideBounds() throws Exception {
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>> triangulation
+              = new DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>>(graph, vertexFactory, new Envelope(0, 1, 0, 1));
+      triangulation.insertSite(vertexFactory.createVertex(), new Coordinate(100, 100));
+   }
+}
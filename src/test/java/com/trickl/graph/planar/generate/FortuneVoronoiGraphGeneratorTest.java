@@ -39,8 +39,11 @@ import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JScrollPane;
@@ -414,6 +417,83 @@ public class FortuneVoronoiGraphGeneratorTest {
       }
    }
    
+   @Test
+   public void beachLineStaysBalancedForSortedSites() {
+      FortuneVoronoiGraphGenerator.BeachLineTree<IdVertex> beachLineTree = new FortuneVoronoiGraphGenerator.BeachLineTree<IdVertex>();
+      FortuneVoronoiGraphGenerator.Arc<IdVertex> lastArc = new FortuneVoronoiGraphGenerator.Arc<IdVertex>(new Coordinate(0, 0));
+      beachLineTree.head.left = lastArc;
+      lastArc.parent = beachLineTree.head;
+
+      // Always extending the same end of the beach line would degenerate an unbalanced tree to a list
+      int arcCount = 10000;
+      List<FortuneVoronoiGraphGenerator.BreakPoint<IdVertex>> breaks = new ArrayList<>();
+      List<FortuneVoronoiGraphGenerator.Arc<IdVertex>> arcs = new ArrayList<>();
+      arcs.add(lastArc);
+      for (int i = 1; i < arcCount; ++i) {
+         FortuneVoronoiGraphGenerator.Arc<IdVertex> arc = new FortuneVoronoiGraphGenerator.Arc<IdVertex>(new Coordinate(i, 0));
+         FortuneVoronoiGraphGenerator.BreakPoint<IdVertex> brk = new FortuneVoronoiGraphGenerator.BreakPoint<IdVertex>(null, arc);
+         beachLineTree.insert(lastArc, brk);
+         breaks.add(brk);
+         arcs.add(arc);
+         lastArc = arc;
+      }
+
+      assertEquals(breaks, beachLineTree.getInorderBreaks());
+      int maxDepth = 0;
+      for (FortuneVoronoiGraphGenerator.Arc<IdVertex> arc : arcs) {
+         int depth = 0;
+         for (FortuneVoronoiGraphGenerator.Node<IdVertex> node = arc; node != beachLineTree.head; node = node.parent) {
+            ++depth;
+         }
+         maxDepth = Math.max(maxDepth, depth);
+      }
+      assertTrue("Depth " + maxDepth, maxDepth < 4 * Math.log(arcCount) / Math.log(2));
+   }
+
+   @Test
+   public void eventQueueOrdersEventsAndDeletesCancelledEvents() {
+      Random random = new Random(0);
+      List<Coordinate> sites = new ArrayList<>();
+      for (int i = 0; i < 500; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+      FortuneVoronoiGraphGenerator.SweepEventQueue<IdVertex> eventQueue
+              = new FortuneVoronoiGraphGenerator.SweepEventQueue<IdVertex>(sites, new PrecisionModel());
+
+      List<FortuneVoronoiGraphGenerator.CircleEvent<IdVertex>> circleEvents = new ArrayList<>();
+      for (int i = 0; i < 1000; ++i) {
+         FortuneVoronoiGraphGenerator.Arc<IdVertex> arc = new FortuneVoronoiGraphGenerator.Arc<IdVertex>(new Coordinate(0, 0));
+         FortuneVoronoiGraphGenerator.CircleEvent<IdVertex> event = new FortuneVoronoiGraphGenerator.CircleEvent<IdVertex>(
+                 arc, new Coordinate(0, 0), new Coordinate(random.nextDouble(), 0));
+         arc.circleEvent = event;
+         eventQueue.add(event);
+         circleEvents.add(event);
+      }
+      for (int i = 0; i < circleEvents.size(); i += 3) {
+         eventQueue.cancel(circleEvents.get(i));
+      }
+
+      double position = Double.NEGATIVE_INFINITY;
+      int siteEvents = 0;
+      int liveCircleEvents = 0;
+      while (!eventQueue.isEmpty()) {
+         double next;
+         if (eventQueue.isSiteEventNext()) {
+            next = eventQueue.pollSiteEvent().x;
+            ++siteEvents;
+         } else {
+            FortuneVoronoiGraphGenerator.CircleEvent<IdVertex> event = eventQueue.pollCircleEvent();
+            assertTrue(!event.isCancelled());
+            next = event.eventLocation.x;
+            ++liveCircleEvents;
+         }
+         assertTrue(next >= position);
+         position = next;
+      }
+      assertEquals(sites.size(), siteEvents);
+      assertEquals(circleEvents.size() - (circleEvents.size() + 2) / 3, liveCircleEvents);
+   }
+
    private PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> readGraph(String fileName)
            throws IOException, JAXBException {
             
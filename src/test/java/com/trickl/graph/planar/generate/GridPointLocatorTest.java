@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.VertexFactory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class GridPointLocatorTest {
+
+   @Test
+   public void removedVertexIsReplacedByNeighbourInItsCell() {
+      GridPointLocator<Integer> locator = new GridPointLocator<Integer>(4);
+      locator.initialize(new Envelope(0, 1, 0, 1), 16);
+      assertNull(locator.getNearbyVertex(new Coordinate(0.1, 0.1)));
+
+      // Both sites share the lower left cell, the last one is remembered
+      locator.vertexInserted(1, new Coordinate(0.1, 0.1));
+      locator.vertexInserted(2, new Coordinate(0.2, 0.2));
+      locator.vertexInserted(3, new Coordinate(0.9, 0.9));
+      assertEquals(2, (int) locator.getNearbyVertex(new Coordinate(0.15, 0.15)));
+
+      locator.vertexRemoved(2, new Coordinate(0.2, 0.2), 1, new Coordinate(0.1, 0.1));
+      assertEquals(1, (int) locator.getNearbyVertex(new Coordinate(0.15, 0.15)));
+
+      // Removing a vertex that is not remembered leaves the cell alone
+      locator.vertexRemoved(4, new Coordinate(0.9, 0.9), 1, new Coordinate(0.1, 0.1));
+      assertEquals(3, (int) locator.getNearbyVertex(new Coordinate(0.9, 0.9)));
+   }
+
+   @Test
+   public void neighbourInAnotherCellIsNotRemembered() {
+      GridPointLocator<Integer> locator = new GridPointLocator<Integer>(4);
+      locator.initialize(new Envelope(0, 1, 0, 1), 16);
+      locator.vertexInserted(1, new Coordinate(0.1, 0.1));
+      locator.vertexInserted(2, new Coordinate(0.9, 0.9));
+
+      // The lower left cell is emptied, so the search finds the other cell
+      locator.vertexRemoved(1, new Coordinate(0.1, 0.1), 2, new Coordinate(0.9, 0.9));
+      assertEquals(2, (int) locator.getNearbyVertex(new Coordinate(0.1, 0.1)));
+
+      locator.vertexRemoved(2, new Coordinate(0.9, 0.9), null, null);
+      assertNull(locator.getNearbyVertex(new Coordinate(0.1, 0.1)));
+   }
+
+   @Test
+   public void neverReturnsRemovedVertexUnderChurn() {
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      GridPointLocator<IdVertex> locator = new GridPointLocator<IdVertex>();
+      DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>> triangulation
+              = new DelaunayTriangulation<IdVertex, UndirectedIdEdge<IdVertex>>(graph, vertexFactory,
+                      new Envelope(0, 1, 0, 1), 500, locator);
+
+      Random random = new Random(0);
+      List<IdVertex> sites = new ArrayList<IdVertex>();
+      for (int i = 0; i < 500; ++i) {
+         IdVertex vertex = vertexFactory.createVertex();
+         if (triangulation.insertSite(vertex, new Coordinate(random.nextDouble(), random.nextDouble()))) {
+            sites.add(vertex);
+         }
+      }
+
+      List<IdVertex> removed = new ArrayList<IdVertex>();
+      for (int tick = 0; tick < 20; ++tick) {
+         for (int i = 0; i < 20; ++i) {
+            IdVertex vertex = sites.remove(random.nextInt(sites.size()));
+            triangulation.removeSite(vertex);
+            removed.add(vertex);
+         }
+         for (int i = 0; i < 20; ++i) {
+            IdVertex vertex = sites.get(random.nextInt(sites.size()));
+            triangulation.moveSite(vertex, new Coordinate(random.nextDouble(), random.nextDouble()));
+         }
+         for (int i = 0; i < 20; ++i) {
+            IdVertex vertex = vertexFactory.createVertex();
+            if (triangulation.insertSite(vertex, new Coordinate(random.nextDouble(), random.nextDouble()))) {
+               sites.add(vertex);
+            }
+         }
+
+         for (int i = 0; i < 200; ++i) {
+            IdVertex vertex = locator.getNearbyVertex(new Coordinate(random.nextDouble(), random.nextDouble()));
+            assertFalse(removed.contains(vertex));
+            assertTrue(graph.containsVertex(vertex));
+         }
+      }
+   }
+}
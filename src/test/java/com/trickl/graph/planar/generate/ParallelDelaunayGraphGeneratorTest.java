@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DcelFace;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateList;
+import org.jgrapht.VertexFactory;
+import java.util.concurrent.ForkJoinPool;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.createClusteredSites;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.getEdgeCoordinates;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ParallelDelaunayGraphGeneratorTest {
+
+   @Test
+   public void producesSameTriangulationAsDelaunayGraphGenerator() throws Exception {
+      CoordinateList sites = createClusteredSites(20000);
+      // Duplicates are ignored
+      sites.add(new Coordinate(sites.getCoordinate(0)));
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      ParallelDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> parallelGenerator
+              = new ParallelDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      parallelGenerator.setForkJoinPool(new ForkJoinPool(4));
+      parallelGenerator.setSequentialThreshold(1000);
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object> parallelGraph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      parallelGenerator.generateGraph(parallelGraph, vertexFactory, null);
+
+      assertEquals(20000, parallelGraph.vertexSet().size());
+      assertEquals(getEdgeCoordinates(graph, generator), getEdgeCoordinates(parallelGraph, parallelGenerator));
+
+      // Euler's formula, with every face but the boundary a triangle
+      assertEquals(parallelGraph.edgeSet().size() - parallelGraph.vertexSet().size() + 2, parallelGraph.faceSet().size());
+      for (DcelFace<IdVertex, UndirectedIdEdge<IdVertex>, Object> face : parallelGraph.getFaceMap().values()) {
+         if (!face.getFace().equals(parallelGraph.getBoundaryFace())) {
+            assertEquals(3, face.getEdgeCount());
+         }
+      }
+   }
+
+   @Test
+   public void connectsCollinearPoints() throws Exception {
+      CoordinateList sites = new CoordinateList();
+      for (int i = 0; i < 10; ++i) {
+         sites.add(new Coordinate(i, 2 * i));
+      }
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      ParallelDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new ParallelDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      assertEquals(10, graph.vertexSet().size());
+      assertEquals(9, graph.edgeSet().size());
+   }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import cern.jet.random.engine.MersenneTwister;
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DcelFace;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraph;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateList;
+import org.jgrapht.VertexFactory;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.createClusteredSites;
+import static com.trickl.graph.planar.generate.DelaunayTestSupport.getEdgeCoordinates;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PrimitiveDelaunayGraphGeneratorTest {
+
+   @Test
+   public void producesCorrectLayoutForSixPoints() throws Exception {
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+
+      CoordinateList sites = new CoordinateList();
+      sites.add(new Coordinate(0, 1));
+      sites.add(new Coordinate(0, 0));
+      sites.add(new Coordinate(1, 0));
+      sites.add(new Coordinate(0.6, 0.6));
+      sites.add(new Coordinate(0.1, 0.5));
+      sites.add(new Coordinate(0.5, 0.1));
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      generator.setRandomEngine(new MersenneTwister(12345));
+      generator.generateGraph(graph, vertexFactory, null);
+
+      assertEquals(6, graph.vertexSet().size());
+      assertEquals(11, graph.edgeSet().size());
+      assertTriangulated(graph);
+   }
+
+   @Test
+   public void producesSameTriangulationAsDelaunayGraphGenerator() throws Exception {
+      CoordinateList sites = createClusteredSites(2000);
+      // Duplicates are ignored
+      sites.add(new Coordinate(sites.getCoordinate(0)));
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> primitiveGenerator
+              = new PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object> primitiveGraph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      primitiveGenerator.generateGraph(primitiveGraph, vertexFactory, null);
+
+      assertEquals(2000, primitiveGraph.vertexSet().size());
+      assertEquals(getEdgeCoordinates(graph, generator), getEdgeCoordinates(primitiveGraph, primitiveGenerator));
+      assertTriangulated(primitiveGraph);
+   }
+
+   @Test
+   public void connectsCollinearPoints() throws Exception {
+      CoordinateList sites = new CoordinateList();
+      for (int i = 0; i < 10; ++i) {
+         sites.add(new Coordinate(i, 2 * i));
+      }
+
+      VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+      PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator
+              = new PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory);
+      PlanarGraph<IdVertex, UndirectedIdEdge<IdVertex>> graph = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class);
+      generator.generateGraph(graph, vertexFactory, null);
+
+      assertEquals(10, graph.vertexSet().size());
+      Set<Set<Coordinate>> edges = getEdgeCoordinates(graph, generator);
+      for (int i = 1; i < 10; ++i) {
+         Set<Coordinate> endpoints = new HashSet<>();
+         endpoints.add(sites.getCoordinate(i - 1));
+         endpoints.add(sites.getCoordinate(i));
+         assertTrue(edges.contains(endpoints));
+      }
+   }
+
+   @Test
+   public void comparePerformance() throws Exception {
+      // Run with -DenableAssertions=false as well, the face consistency
+      // assertions in DoublyConnectedEdgeList.addEdge walk the whole outer face
+      if (!Boolean.parseBoolean(System.getProperty("performanceTests"))) {
+         return;
+      }
+
+      for (int siteCount : new int[] {10000, 100000}) {
+         CoordinateList sites = new CoordinateList();
+         Random random = new Random(0);
+         for (int i = 0; i < siteCount; ++i) {
+            sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+         }
+
+         for (int iteration = 0; iteration < 3; ++iteration) {
+            VertexFactory<IdVertex> vertexFactory = new IdVertexFactory();
+            long start = System.nanoTime();
+            new DelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory)
+                    .generateGraph(new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class), vertexFactory, null);
+            long objectTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new PrimitiveDelaunayGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>>(sites, vertexFactory)
+                    .generateGraph(new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, Object>(new UndirectedIdEdgeFactory<IdVertex>(), Object.class), vertexFactory, null);
+            long primitiveTime = System.nanoTime() - start;
+
+            System.out.println(String.format("%d sites: DelaunayGraphGenerator %d ms, PrimitiveDelaunayGraphGenerator %d ms",
+                    siteCount, objectTime / 1000000, primitiveTime / 1000000));
+         }
+      }
+   }
+
+   private static <V, E> void assertTriangulated(DoublyConnectedEdgeList<V, E, Object> graph) {
+      // Euler's formula for a connected planar graph
+      assertEquals(graph.edgeSet().size() - graph.vertexSet().size() + 2, graph.faceSet().size());
+      for (DcelFace<V, E, Object> face : graph.getFaceMap().values()) {
+         if (!face.getFace().equals(graph.getBoundaryFace())) {
+            assertEquals(3, face.getEdgeCount());
+         }
+      }
+   }
+}
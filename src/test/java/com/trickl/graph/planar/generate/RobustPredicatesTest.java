@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.generate;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class RobustPredicatesTest {
+
+   @Test
+   public void orient2dMatchesExactArithmeticNearCollinear() {
+      Random random = new Random(0);
+      for (int i = 0; i < 10000; ++i) {
+         // Points on (or a few ulps off) a line, where floating point evaluation fails
+         double ax = 0.5 + random.nextInt(64) * Math.ulp(0.5);
+         double ay = 0.5 + random.nextInt(64) * Math.ulp(0.5);
+         double bx = 12, by = 12, cx = 24, cy = 24;
+
+         assertEquals(orient2dSign(ax, ay, bx, by, cx, cy),
+                 (int) Math.signum(RobustPredicates.orient2d(ax, ay, bx, by, cx, cy)));
+      }
+   }
+
+   @Test
+   public void incircleMatchesExactArithmeticNearCocircular() {
+      Random random = new Random(0);
+      for (int i = 0; i < 10000; ++i) {
+         // Points near the unit circle, perturbed by a few ulps
+         double[] p = new double[8];
+         for (int j = 0; j < 4; ++j) {
+            double angle = j * Math.PI / 2 + random.nextDouble() * 0.1;
+            p[2 * j] = Math.cos(angle) + (random.nextInt(9) - 4) * Math.ulp(1.0);
+            p[2 * j + 1] = Math.sin(angle) + (random.nextInt(9) - 4) * Math.ulp(1.0);
+         }
+
+         assertEquals(incircleSign(p), (int) Math.signum(
+                 RobustPredicates.incircle(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7])));
+      }
+   }
+
+   @Test
+   public void exactlyDegenerateGivesZero() {
+      assertEquals(0, RobustPredicates.orient2d(0.1, 0.1, 0.2, 0.2, 0.3, 0.3), 0);
+      assertEquals(0, RobustPredicates.incircle(1, 0, 0, 1, -1, 0, 0, -1), 0);
+      assertEquals(1, Math.signum(RobustPredicates.incircle(1, 0, 0, 1, -1, 0, 0, 0.5)), 0);
+   }
+
+   private static int orient2dSign(double ax, double ay, double bx, double by, double cx, double cy) {
+      BigDecimal acx = new BigDecimal(ax).subtract(new BigDecimal(cx));
+      BigDecimal acy = new BigDecimal(ay).subtract(new BigDecimal(cy));
+      BigDecimal bcx = new BigDecimal(bx).subtract(new BigDecimal(cx));
+      BigDecimal bcy = new BigDecimal(by).subtract(new BigDecimal(cy));
+      return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+   }
+
+   private static int incircleSign(double[] p) {
+      BigDecimal[] d = new BigDecimal[6];
+      for (int i = 0; i < 6; ++i) {
+         d[i] = new BigDecimal(p[i]).subtract(new BigDecimal(p[6 + i % 2]));
+      }
+      BigDecimal alift = d[0].multiply(d[0]).add(d[1].multiply(d[1]));
+      BigDecimal blift = d[2].multiply(d[2]).add(d[3].multiply(d[3]));
+      BigDecimal clift = d[4].multiply(d[4]).add(d[5].multiply(d[5]));
+      return alift.multiply(d[2].multiply(d[5]).subtract(d[4].multiply(d[3])))
+              .add(blift.multiply(d[4].multiply(d[1]).subtract(d[0].multiply(d[5]))))
+              .add(clift.multiply(d[0].multiply(d[3]).subtract(d[2].multiply(d[1])))).signum();
+   }
+}
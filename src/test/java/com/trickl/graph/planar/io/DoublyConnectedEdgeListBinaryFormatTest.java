@@ -0,0 +1,173 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.io;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.ClassBasedFaceFactory;
+import com.trickl.graph.planar.DcelHalfEdge;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.DoublyConnectedEdgeListBuilder;
+import com.trickl.graph.planar.PlanarGraphs;
+import com.trickl.graph.planar.faces.IdFace;
+import com.trickl.graph.planar.faces.IdFaceFactory;
+import com.trickl.graph.planar.generate.DelaunayGraphGenerator;
+import com.trickl.graph.planar.xml.XmlDcelDocument;
+import com.trickl.graph.vertices.IdCoordinateVertex;
+import com.trickl.graph.vertices.IdCoordinateVertexFactory;
+import com.trickl.graph.vertices.IdVertex;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.xml.bind.JAXBContext;
+import org.jgrapht.EdgeFactory;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class DoublyConnectedEdgeListBinaryFormatTest {
+
+   @Test
+   public void testRoundTripWithPayloads() throws IOException {
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> dcel = createGrid(4);
+      DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> format
+              = new DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(
+              PayloadCodecs.idVertices(), PayloadCodecs.<IdVertex>undirectedIdEdges(), PayloadCodecs.idFaces());
+
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> copy
+              = format.read(Channels.newChannel(new ByteArrayInputStream(write(format, dcel))),
+              dcel.getEdgeFactory(), dcel.getFaceFactory());
+
+      assertSameStructure(dcel, copy);
+      assertEquals(dcel.getEdgeMap().keySet(), copy.getEdgeMap().keySet());
+      assertEquals(dcel.getFaceMap().keySet(), copy.getFaceMap().keySet());
+      assertEquals(dcel.getBoundaryFace(), copy.getBoundaryFace());
+   }
+
+   @Test
+   public void testRoundTripCoordinatesWithoutPayloads() throws IOException {
+      List<Coordinate> sites = new ArrayList<Coordinate>();
+      Random random = new Random(0);
+      for (int i = 0; i < 200; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+      IdCoordinateVertexFactory vertexFactory = new IdCoordinateVertexFactory();
+      DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, Object> dcel
+              = new DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, Object>(
+              new UndirectedIdEdgeFactory<IdCoordinateVertex>(), Object.class);
+      new DelaunayGraphGenerator<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>>(sites, vertexFactory)
+              .generateGraph(dcel, vertexFactory, null);
+
+      DoublyConnectedEdgeListBinaryFormat<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, Object> format
+              = new DoublyConnectedEdgeListBinaryFormat<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, Object>(
+              PayloadCodecs.idCoordinateVertices());
+      DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, Object> copy
+              = format.read(Channels.newChannel(new ByteArrayInputStream(write(format, dcel))),
+              new UndirectedIdEdgeFactory<IdCoordinateVertex>(),
+              new ClassBasedFaceFactory<IdCoordinateVertex, Object>(Object.class));
+
+      assertSameStructure(dcel, copy);
+      for (IdCoordinateVertex vertex : dcel.vertexSet()) {
+         IdCoordinateVertex copyVertex = copy.getVertexMap().get(vertex).getVertex();
+         assertEquals(vertex.getX(), copyVertex.getX());
+         assertEquals(vertex.getY(), copyVertex.getY());
+      }
+   }
+
+   @Test
+   public void testSmallerThanXml() throws Exception {
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> dcel = createGrid(30);
+      DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> format
+              = new DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(
+              PayloadCodecs.idVertices(), PayloadCodecs.<IdVertex>undirectedIdEdges(), PayloadCodecs.idFaces());
+      int binarySize = write(format, dcel).length;
+
+      XmlDcelDocument<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> document = new XmlDcelDocument<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>();
+      document.setDoublyConnectedEdgeList(dcel);
+      StringWriter writer = new StringWriter();
+      document.write(writer, JAXBContext.newInstance(XmlDcelDocument.class,
+              IdVertex.class,
+              UndirectedIdEdge.class,
+              UndirectedIdEdgeFactory.class,
+              IdFace.class,
+              IdFaceFactory.class));
+      int xmlSize = writer.toString().length();
+
+      assertTrue(binarySize * 10 < xmlSize);
+   }
+
+   @Test(expected = IOException.class)
+   public void testRejectsUnknownFormat() throws IOException {
+      DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> format
+              = new DoublyConnectedEdgeListBinaryFormat<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(
+              PayloadCodecs.idVertices());
+      format.read(Channels.newChannel(new ByteArrayInputStream(new byte[] {'<', '?', 'x', 'm', 'l'})),
+              new UndirectedIdEdgeFactory<IdVertex>(), new IdFaceFactory<IdVertex>());
+   }
+
+   private static <V, E, F> byte[] write(DoublyConnectedEdgeListBinaryFormat<V, E, F> format,
+           DoublyConnectedEdgeList<V, E, F> dcel) throws IOException {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      format.write(dcel, Channels.newChannel(output));
+      return output.toByteArray();
+   }
+
+   private static <V, E, F> void assertSameStructure(DoublyConnectedEdgeList<V, E, F> expected,
+           DoublyConnectedEdgeList<V, E, F> actual) {
+      assertEquals(expected.vertexSet(), actual.vertexSet());
+      assertEquals(expected.getEdgeMap().size(), actual.getEdgeMap().size());
+      assertEquals(expected.getFaceMap().size(), actual.getFaceMap().size());
+      assertEquals(expected.getBoundary(), actual.getBoundary());
+      for (V vertex : expected.vertexSet()) {
+         assertEquals(PlanarGraphs.getConnectedVertices(expected, vertex),
+                 PlanarGraphs.getConnectedVertices(actual, vertex));
+         for (V target : PlanarGraphs.getConnectedVertices(expected, vertex)) {
+            assertEquals(expected.isBoundary(vertex, target), actual.isBoundary(vertex, target));
+         }
+      }
+      for (DcelHalfEdge<V, E, F> halfEdge : actual.getEdgeMap().values()) {
+         assertSame(halfEdge, halfEdge.getPrev().getNext());
+         assertSame(halfEdge, halfEdge.getTwin().getTwin());
+      }
+   }
+
+   private static DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> createGrid(int size) {
+      EdgeFactory<IdVertex, UndirectedIdEdge<IdVertex>> edgeFactory = new UndirectedIdEdgeFactory<IdVertex>();
+      DoublyConnectedEdgeListBuilder<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> builder
+              = new DoublyConnectedEdgeListBuilder<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(edgeFactory, new IdFaceFactory<IdVertex>());
+      for (int y = 0; y < size; ++y) {
+         for (int x = 0; x < size; ++x) {
+            List<IdVertex> neighbours = new ArrayList<IdVertex>(4);
+            if (x + 1 < size) neighbours.add(new IdVertex(y * size + x + 1));
+            if (y + 1 < size) neighbours.add(new IdVertex((y + 1) * size + x));
+            if (x > 0) neighbours.add(new IdVertex(y * size + x - 1));
+            if (y > 0) neighbours.add(new IdVertex((y - 1) * size + x));
+            builder.addVertex(new IdVertex(y * size + x), neighbours);
+         }
+      }
+      return builder.build();
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.io;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraphs;
+import com.trickl.graph.planar.generate.DelaunayGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedPlanarFaceGraphTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void testSameEmbeddingAsDcel() throws IOException {
+      List<Coordinate> sites = new ArrayList<Coordinate>();
+      Random random = new Random(0);
+      for (int i = 0; i < 200; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+      DoublyConnectedEdgeList<Integer, Integer, Object> dcel = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
+      new DelaunayGraphGenerator<Integer, Integer>(sites, vertexFactory)
+              .generateGraph(dcel, vertexFactory, null);
+
+      // Vertex ids follow the iteration order of the vertex map
+      List<Integer> vertices = new ArrayList<Integer>(dcel.getVertexMap().keySet());
+      MappedPlanarFaceGraph graph = write(dcel);
+
+      assertEquals(dcel.vertexSet().size(), graph.vertexSet().size());
+      assertEquals(dcel.edgeSet().size(), graph.edgeSet().size());
+      assertEquals(dcel.faceSet().size(), graph.faceSet().size());
+      assertEquals(dcel.getBoundary().getSource(), vertices.get(graph.getBoundary().getSource()));
+      assertEquals(dcel.getBoundary().getTarget(), vertices.get(graph.getBoundary().getTarget()));
+      for (int vertex = 0; vertex < vertices.size(); ++vertex) {
+         List<Integer> expected = PlanarGraphs.getConnectedVertices(dcel, vertices.get(vertex));
+         List<Integer> actual = new ArrayList<Integer>();
+         for (Integer target : PlanarGraphs.getConnectedVertices(graph, vertex)) {
+            actual.add(vertices.get(target));
+         }
+         assertEquals(expected, actual);
+         assertEquals(expected.size(), graph.degreeOf(vertex));
+         assertEquals(dcel.isVertexBoundary(vertices.get(vertex)), graph.isVertexBoundary(vertex));
+
+         for (Integer target : PlanarGraphs.getConnectedVertices(graph, vertex)) {
+            Integer source = vertices.get(vertex);
+            assertEquals(dcel.getNextVertex(source, vertices.get(target)),
+                    vertices.get(graph.getNextVertex(vertex, target)));
+            assertEquals(dcel.getPrevVertex(source, vertices.get(target)),
+                    vertices.get(graph.getPrevVertex(vertex, target)));
+            assertEquals(dcel.isBoundary(source, vertices.get(target)), graph.isBoundary(vertex, target));
+            assertEquals(graph.getFace(vertex, target), graph.getFace(target, graph.getNextVertex(vertex, target)));
+         }
+      }
+   }
+
+   @Test(expected = UnsupportedOperationException.class)
+   public void testReadOnly() throws IOException {
+      DoublyConnectedEdgeList<Integer, Integer, Object> dcel = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      dcel.addVertex(0);
+      dcel.addVertex(1);
+      dcel.addEdge(0, 1);
+      MappedPlanarFaceGraph graph = write(dcel);
+      assertTrue(graph.containsEdge(0, 1));
+      graph.removeEdge(0, 1);
+   }
+
+   private MappedPlanarFaceGraph write(DoublyConnectedEdgeList<Integer, Integer, Object> dcel) throws IOException {
+      File file = folder.newFile();
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+         MappedPlanarFaceGraph.write(dcel, channel);
+      }
+      return MappedPlanarFaceGraph.open(file.toPath());
+   }
+}
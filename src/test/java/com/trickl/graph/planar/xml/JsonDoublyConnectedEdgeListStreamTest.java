@@ -0,0 +1,132 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar.xml;
+
+import com.trickl.graph.edges.UndirectedIdEdge;
+import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DcelHalfEdge;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraphs;
+import com.trickl.graph.planar.faces.IdFace;
+import com.trickl.graph.planar.faces.IdFaceFactory;
+import com.trickl.graph.planar.generate.DelaunayGraphGenerator;
+import com.trickl.graph.planar.generate.PlanarSquareGraphGenerator;
+import com.trickl.graph.vertices.IdCoordinateVertex;
+import com.trickl.graph.vertices.IdCoordinateVertexFactory;
+import com.trickl.graph.vertices.IdVertex;
+import com.trickl.graph.vertices.IdVertexFactory;
+import com.vividsolutions.jts.geom.Coordinate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+public class JsonDoublyConnectedEdgeListStreamTest {
+
+   @Test
+   public void testWriteMatchesDataBinding() throws Exception {
+      DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> dcel
+              = new DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(
+              new UndirectedIdEdgeFactory<IdVertex>(), new IdFaceFactory<IdVertex>());
+      PlanarSquareGraphGenerator<IdVertex, UndirectedIdEdge<IdVertex>> generator = new PlanarSquareGraphGenerator<>(4, 1);
+      generator.generateGraph(dcel, new IdVertexFactory(), null);
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      createIdStream().write(dcel, outputStream);
+
+      URL controlFile = this.getClass().getResource("dcel.square.json");
+      try (Reader reader = new InputStreamReader(controlFile.openStream(), "UTF-8")) {
+         String expected = new Scanner(reader).useDelimiter("\\A").next();
+         JSONAssert.assertEquals(expected, outputStream.toString("UTF-8"), false);
+      }
+   }
+
+   @Test
+   public void testReadDataBindingDocument() throws Exception {
+      URL controlFile = this.getClass().getResource("dcel.square.json");
+      try (InputStream inputStream = controlFile.openStream()) {
+         DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> dcel = createIdStream().read(inputStream);
+         assertEquals(2, dcel.getFaceMap().size());
+         assertEquals(4, dcel.getEdgeMap().size());
+         assertEquals(4, dcel.getVertexMap().size());
+         assertTrue(dcel.getEdgeFactory() instanceof UndirectedIdEdgeFactory);
+         assertTrue(dcel.getFaceFactory() instanceof IdFaceFactory);
+         assertEquals(new IdFace(0), dcel.getBoundaryFace());
+         assertTrue(dcel.isBoundary(new IdVertex(0), new IdVertex(1)));
+         for (DcelHalfEdge<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> halfEdge : dcel.getEdgeMap().values()) {
+            assertSame(halfEdge, halfEdge.getPrev().getNext());
+            assertSame(halfEdge, halfEdge.getTwin().getTwin());
+         }
+      }
+   }
+
+   @Test
+   public void testRoundTripCoordinates() throws Exception {
+      List<Coordinate> sites = new ArrayList<Coordinate>();
+      Random random = new Random(0);
+      for (int i = 0; i < 200; ++i) {
+         sites.add(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+      IdCoordinateVertexFactory vertexFactory = new IdCoordinateVertexFactory();
+      DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace> dcel
+              = new DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace>(
+              new UndirectedIdEdgeFactory<IdCoordinateVertex>(), new IdFaceFactory<IdCoordinateVertex>());
+      new DelaunayGraphGenerator<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>>(sites, vertexFactory)
+              .generateGraph(dcel, vertexFactory, null);
+      for (IdCoordinateVertex vertex : dcel.vertexSet()) {
+         vertex.setCoordinate(new Coordinate(random.nextDouble(), random.nextDouble()));
+      }
+
+      JsonPayloadCodec<IdCoordinateVertex> vertexCodec = JsonPayloadCodecs.idCoordinateVertices();
+      JsonDoublyConnectedEdgeListStream<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace> stream
+              = new JsonDoublyConnectedEdgeListStream<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace>(
+              vertexCodec, JsonPayloadCodecs.undirectedIdEdges(vertexCodec), JsonPayloadCodecs.idFaces());
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      stream.write(dcel, outputStream);
+      DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace> copy
+              = stream.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+      assertEquals(dcel.getEdgeMap().keySet(), copy.getEdgeMap().keySet());
+      assertEquals(dcel.getFaceMap().keySet(), copy.getFaceMap().keySet());
+      assertEquals(dcel.getBoundary(), copy.getBoundary());
+      for (IdCoordinateVertex vertex : dcel.vertexSet()) {
+         IdCoordinateVertex copyVertex = copy.getVertexMap().get(vertex).getVertex();
+         assertEquals(vertex.getCoordinate(), copyVertex.getCoordinate());
+         assertEquals(PlanarGraphs.getConnectedVertices(dcel, vertex),
+                 PlanarGraphs.getConnectedVertices(copy, vertex));
+      }
+   }
+
+   private static JsonDoublyConnectedEdgeListStream<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> createIdStream() {
+      JsonPayloadCodec<IdVertex> vertexCodec = JsonPayloadCodecs.idVertices();
+      return new JsonDoublyConnectedEdgeListStream<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>(
+              vertexCodec, JsonPayloadCodecs.undirectedIdEdges(vertexCodec), JsonPayloadCodecs.idFaces());
+   }
+}
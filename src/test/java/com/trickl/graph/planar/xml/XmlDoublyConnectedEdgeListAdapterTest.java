@@ -22,6 +22,7 @@ package com.trickl.graph.planar.xml;
 
 import com.trickl.graph.edges.UndirectedIdEdge;
 import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.planar.DcelHalfEdge;
 import com.trickl.graph.planar.DoublyConnectedEdgeList;
 import com.trickl.graph.planar.faces.IdFace;
 import com.trickl.graph.planar.faces.IdFaceFactory;
@@ -88,6 +89,28 @@ public class XmlDoublyConnectedEdgeListAdapterTest {
         assertTrue(document.getDoublyConnectedEdgeList().getFaceFactory() instanceof IdFaceFactory);
     }
 
+    @Test
+    public void transformFromXMLRestoresPrevLinks() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(XmlDcelDocument.class,
+                IdVertex.class,
+                UndirectedIdEdge.class,
+                UndirectedIdEdgeFactory.class,
+                IdFace.class,
+                IdFaceFactory.class);
+        XmlDcelDocument<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> document
+                = new XmlDcelDocument<IdVertex, UndirectedIdEdge<IdVertex>, IdFace>();
+
+        URL controlFile = this.getClass().getResource("dcel.square.xml");
+        InputStreamReader reader = new InputStreamReader(controlFile.openStream());
+        document.read(reader, context);
+
+        for (DcelHalfEdge<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> halfEdge
+                : document.getDoublyConnectedEdgeList().getEdgeMap().values()) {
+            assertSame(halfEdge, halfEdge.getPrev().getNext());
+            assertSame(halfEdge.getTwin(), halfEdge.getTwin().getPrev().getNext());
+        }
+    }
+
     private DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> createSquareDcel() {
         EdgeFactory<IdVertex, UndirectedIdEdge<IdVertex>> edgeFactory = new UndirectedIdEdgeFactory<IdVertex>();
         DoublyConnectedEdgeList<IdVertex, UndirectedIdEdge<IdVertex>, IdFace> square = new DoublyConnectedEdgeList(edgeFactory, new IdFaceFactory());